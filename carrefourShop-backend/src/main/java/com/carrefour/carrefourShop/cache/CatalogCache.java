@@ -0,0 +1,258 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.mapper.ProductMapper;
+import com.carrefour.carrefourShop.repository.OutboxRepository;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of the active catalog. Readers get the current {@link CatalogSnapshot}
+ * without locking; the first read loads it. Writers call {@link #invalidate(Collection)} or
+ * {@link #invalidateAll()} inside their transaction, and once it commits a single background
+ * thread reloads only what changed and swaps in a new snapshot (copy-on-write). Every swap is
+ * announced with a {@link CatalogChangedEvent} so derived indexes can follow along.
+ *
+ * <p>Orders taken on other nodes are followed through the {@code stock.changed} rows of the
+ * outbox: every {@code catalog.cache.sync-interval} ms each node reads the ones written since
+ * its last look, by the database clock, and reloads those products.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogCache {
+
+    private static final long SYNC_OVERLAP_MILLIS = 5_000;
+
+    private final ProductRepository productRepository;
+    private final OutboxRepository outboxRepository;
+    private final ProductMapper productMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.cache.enabled:true}")
+    private boolean enabled;
+
+    private final Object rebuildLock = new Object();
+    private final AtomicLong versions = new AtomicLong();
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingFull = new AtomicBoolean();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-cache-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CatalogSnapshot snapshot;
+    private volatile long lastSyncNanos = System.nanoTime();
+    private volatile Set<Long> seenEventIds = Set.of();
+
+    private TransactionTemplate readTransaction;
+    private Counter hits;
+    private Counter misses;
+    private Timer fullRebuilds;
+    private Timer partialRebuilds;
+
+    @PostConstruct
+    void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTransaction.setReadOnly(true);
+
+        hits = Counter.builder("catalog.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("catalog.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        fullRebuilds = Timer.builder("catalog.cache.rebuild")
+                .tag("type", "full")
+                .description("Time to reload the whole active catalog")
+                .register(meterRegistry);
+        partialRebuilds = Timer.builder("catalog.cache.rebuild")
+                .tag("type", "partial")
+                .description("Time to reload changed products and swap the snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.products", this, cache -> cache.snapshot != null ? cache.snapshot.size() : 0)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        synchronized (rebuildLock) {
+            if (snapshot == null) {
+                rebuildAll();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Schedules a reload of the given products once the surrounding transaction commits.
+     */
+    public void invalidate(Collection<Long> productIds) {
+        if (!enabled || productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(productIds);
+        afterCommit(() -> {
+            pendingIds.addAll(ids);
+            scheduleDrain();
+        });
+    }
+
+    /**
+     * Reloads the products whose stock was changed by orders on any node since the last sync.
+     * Windows overlap a little so that rows committed late are not missed; events already seen
+     * in the previous window are skipped.
+     */
+    @Scheduled(fixedDelayString = "${catalog.cache.sync-interval:1000}", initialDelayString = "${catalog.cache.sync-interval:1000}")
+    public void syncStockChanges() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long startedAt = System.nanoTime();
+            long windowMillis = TimeUnit.NANOSECONDS.toMillis(startedAt - lastSyncNanos) + SYNC_OVERLAP_MILLIS;
+            List<OutboxRepository.StockChange> changes = readTransaction.execute(status ->
+                    outboxRepository.findRecentStockChanges(windowMillis));
+            Set<Long> seen = new HashSet<>();
+            Set<Long> ids = new HashSet<>();
+            for (OutboxRepository.StockChange change : changes) {
+                seen.add(change.eventId());
+                if (!seenEventIds.contains(change.eventId())) {
+                    ids.add(change.productId());
+                }
+            }
+            seenEventIds = seen;
+            lastSyncNanos = startedAt;
+            if (!ids.isEmpty() && snapshot != null) {
+                pendingIds.addAll(ids);
+                scheduleDrain();
+            }
+        } catch (RuntimeException e) {
+            log.error("Catalog cache sync failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Schedules a reload of the whole catalog once the surrounding transaction commits.
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            pendingFull.set(true);
+            scheduleDrain();
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            refresher.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            synchronized (rebuildLock) {
+                if (pendingFull.getAndSet(false) || snapshot == null) {
+                    pendingIds.clear();
+                    if (snapshot != null) {
+                        rebuildAll();
+                    }
+                    return;
+                }
+                List<Long> ids = new ArrayList<>(pendingIds);
+                pendingIds.removeAll(ids);
+                if (!ids.isEmpty()) {
+                    refreshProducts(ids);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Catalog cache refresh failed, falling back to a full reload on next read", e);
+            snapshot = null;
+        }
+    }
+
+    private void rebuildAll() {
+        long start = System.nanoTime();
+        List<ProductDto> products = readTransaction.execute(status ->
+                productRepository.findByActiveTrue().stream()
+                        .map(productMapper::toDto)
+                        .toList());
+        snapshot = CatalogSnapshot.of(versions.incrementAndGet(), products);
+        fullRebuilds.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        eventPublisher.publishEvent(new CatalogChangedEvent(snapshot, null));
+    }
+
+    private void refreshProducts(List<Long> ids) {
+        long start = System.nanoTime();
+        List<ProductDto> reloaded = readTransaction.execute(status ->
+                productRepository.findAllById(ids).stream()
+                        .map(productMapper::toDto)
+                        .toList());
+        snapshot = snapshot.withChanges(versions.incrementAndGet(), ids, reloaded);
+        partialRebuilds.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        eventPublisher.publishEvent(new CatalogChangedEvent(snapshot, Set.copyOf(ids)));
+    }
+}
@@ -0,0 +1,14 @@
+package com.carrefour.carrefourShop.cache;
+
+import java.util.Set;
+
+/**
+ * Published by {@link CatalogCache} after a new snapshot is swapped in. {@code changedIds}
+ * lists the products that were reloaded, or is {@code null} when the whole catalog was.
+ */
+public record CatalogChangedEvent(CatalogSnapshot snapshot, Set<Long> changedIds) {
+
+    public boolean isFullReload() {
+        return changedIds == null;
+    }
+}
@@ -0,0 +1,273 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.FacetCountDto;
+import com.carrefour.carrefourShop.dto.FacetsDto;
+import com.carrefour.carrefourShop.dto.PriceRangeCountDto;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductFilter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Column-oriented copy of the facet fields of a {@link CatalogSnapshot}: category and brand as
+ * dictionary ids, price in cents and availability as a bit set, one row per product in id order.
+ * Filtering and facet counting is a single pass over these arrays.
+ */
+public final class CatalogColumns {
+
+    static final int[] PRICE_BOUNDS_CENTS = {200, 500, 1000, 2000, 5000};
+
+    private static final int NONE = -1;
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Integer.MAX_VALUE);
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(Integer.MIN_VALUE);
+    private static final int FAILS_CATEGORY = 1;
+    private static final int FAILS_BRAND = 1 << 1;
+    private static final int FAILS_PRICE = 1 << 2;
+    private static final int FAILS_STOCK = 1 << 3;
+
+    private final long[] ids;
+    private final int[] categoryIds;
+    private final int[] brandIds;
+    private final int[] priceCents;
+    private final BitSet inStock;
+    private final String[] categories;
+    private final String[] brands;
+    private final Map<String, Integer> categoryDictionary;
+    private final Map<String, Integer> brandDictionary;
+
+    private CatalogColumns(List<ProductDto> productsById) {
+        int rows = productsById.size();
+        ids = new long[rows];
+        categoryIds = new int[rows];
+        brandIds = new int[rows];
+        priceCents = new int[rows];
+        inStock = new BitSet(rows);
+        categoryDictionary = new HashMap<>();
+        brandDictionary = new HashMap<>();
+        List<String> categoryValues = new ArrayList<>();
+        List<String> brandValues = new ArrayList<>();
+
+        for (int row = 0; row < rows; row++) {
+            ProductDto product = productsById.get(row);
+            ids[row] = product.getId();
+            categoryIds[row] = encode(product.getCategory(), categoryDictionary, categoryValues);
+            brandIds[row] = encode(product.getBrand(), brandDictionary, brandValues);
+            priceCents[row] = toCents(product.getPrice());
+            if (isInStock(product)) {
+                inStock.set(row);
+            }
+        }
+        categories = categoryValues.toArray(String[]::new);
+        brands = brandValues.toArray(String[]::new);
+    }
+
+    private CatalogColumns(CatalogColumns base, List<ProductDto> changed) {
+        ids = base.ids;
+        categoryIds = base.categoryIds.clone();
+        brandIds = base.brandIds.clone();
+        priceCents = base.priceCents.clone();
+        inStock = (BitSet) base.inStock.clone();
+        categoryDictionary = new HashMap<>(base.categoryDictionary);
+        brandDictionary = new HashMap<>(base.brandDictionary);
+        List<String> categoryValues = new ArrayList<>(Arrays.asList(base.categories));
+        List<String> brandValues = new ArrayList<>(Arrays.asList(base.brands));
+
+        for (ProductDto product : changed) {
+            int row = rowOf(product.getId());
+            categoryIds[row] = encode(product.getCategory(), categoryDictionary, categoryValues);
+            brandIds[row] = encode(product.getBrand(), brandDictionary, brandValues);
+            priceCents[row] = toCents(product.getPrice());
+            inStock.set(row, isInStock(product));
+        }
+        categories = categoryValues.toArray(String[]::new);
+        brands = brandValues.toArray(String[]::new);
+    }
+
+    static CatalogColumns of(List<ProductDto> productsById) {
+        return new CatalogColumns(productsById);
+    }
+
+    /**
+     * Copy of these columns with the rows of {@code changed} rewritten. Every changed product
+     * must already have a row; the id column is shared.
+     */
+    CatalogColumns withRows(List<ProductDto> changed) {
+        return new CatalogColumns(this, changed);
+    }
+
+    public int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, id);
+        return row >= 0 ? row : NONE;
+    }
+
+    /**
+     * Applies {@code filter} to the rows in {@code candidates} (every row when {@code null}),
+     * setting matching rows in {@code matches}, and counts facets in the same pass.
+     *
+     * <p>Counts are disjunctive: a row that fails only the brand filter still counts towards the
+     * brand facet, so the client can show what selecting another brand would add. The same
+     * holds for every facet.
+     */
+    public FacetsDto scan(ProductFilter filter, BitSet candidates, BitSet matches) {
+        boolean[] wantedCategories = wanted(filter.categories(), categoryDictionary, categories.length);
+        boolean[] wantedBrands = wanted(filter.brands(), brandDictionary, brands.length);
+        int minCents = filter.minPrice() != null ? toCents(filter.minPrice()) : Integer.MIN_VALUE;
+        int maxCents = filter.maxPrice() != null ? toCents(filter.maxPrice()) : Integer.MAX_VALUE;
+
+        long[] categoryCounts = new long[categories.length];
+        long[] brandCounts = new long[brands.length];
+        long[] priceCounts = new long[PRICE_BOUNDS_CENTS.length + 1];
+        long inStockCount = 0;
+        long outOfStockCount = 0;
+        long total = 0;
+
+        for (int row = next(candidates, 0); row != NONE; row = next(candidates, row + 1)) {
+            int category = categoryIds[row];
+            int brand = brandIds[row];
+            int cents = priceCents[row];
+            boolean stocked = inStock.get(row);
+
+            int fails = 0;
+            if (wantedCategories != null && (category == NONE || !wantedCategories[category])) {
+                fails |= FAILS_CATEGORY;
+            }
+            if (wantedBrands != null && (brand == NONE || !wantedBrands[brand])) {
+                fails |= FAILS_BRAND;
+            }
+            if (cents < minCents || cents > maxCents) {
+                fails |= FAILS_PRICE;
+            }
+            if (filter.inStockOnly() && !stocked) {
+                fails |= FAILS_STOCK;
+            }
+
+            if (fails == 0) {
+                matches.set(row);
+                total++;
+            }
+            if ((fails & ~FAILS_CATEGORY) == 0 && category != NONE) {
+                categoryCounts[category]++;
+            }
+            if ((fails & ~FAILS_BRAND) == 0 && brand != NONE) {
+                brandCounts[brand]++;
+            }
+            if ((fails & ~FAILS_PRICE) == 0) {
+                priceCounts[bucketOf(cents)]++;
+            }
+            if ((fails & ~FAILS_STOCK) == 0) {
+                if (stocked) {
+                    inStockCount++;
+                } else {
+                    outOfStockCount++;
+                }
+            }
+        }
+
+        return FacetsDto.builder()
+                .total(total)
+                .categories(counts(categories, categoryCounts))
+                .brands(counts(brands, brandCounts))
+                .priceRanges(priceRanges(priceCounts))
+                .inStock(inStockCount)
+                .outOfStock(outOfStockCount)
+                .build();
+    }
+
+    private int next(BitSet candidates, int from) {
+        int row = candidates == null ? from : candidates.nextSetBit(from);
+        return row >= 0 && row < ids.length ? row : NONE;
+    }
+
+    private static int encode(String value, Map<String, Integer> dictionary, List<String> values) {
+        if (value == null) {
+            return NONE;
+        }
+        return dictionary.computeIfAbsent(value, v -> {
+            values.add(v);
+            return values.size() - 1;
+        });
+    }
+
+    private static boolean[] wanted(Set<String> selected, Map<String, Integer> dictionary, int size) {
+        if (selected.isEmpty()) {
+            return null;
+        }
+        boolean[] wanted = new boolean[size];
+        for (String value : selected) {
+            Integer id = dictionary.get(value);
+            if (id != null) {
+                wanted[id] = true;
+            }
+        }
+        return wanted;
+    }
+
+    /**
+     * Untracked stock counts as in stock. Otherwise reservations and leased units are set
+     * aside, as of the last time the product was loaded.
+     */
+    private static boolean isInStock(ProductDto product) {
+        if (product.getStock() == null) {
+            return true;
+        }
+        Integer available = product.getAvailable();
+        return (available != null ? available : product.getStock()) > 0;
+    }
+
+    /**
+     * Price in cents, clamped to the int range so that an out-of-range filter bound still
+     * means "no bound" instead of wrapping around.
+     */
+    private static int toCents(BigDecimal price) {
+        BigDecimal cents = price.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        if (cents.compareTo(MAX_CENTS) > 0) {
+            return Integer.MAX_VALUE;
+        }
+        if (cents.compareTo(MIN_CENTS) < 0) {
+            return Integer.MIN_VALUE;
+        }
+        return cents.intValue();
+    }
+
+    private static int bucketOf(int cents) {
+        int bucket = 0;
+        while (bucket < PRICE_BOUNDS_CENTS.length && cents >= PRICE_BOUNDS_CENTS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static List<FacetCountDto> counts(String[] values, long[] counts) {
+        List<FacetCountDto> facets = new ArrayList<>();
+        for (int id = 0; id < values.length; id++) {
+            if (counts[id] > 0) {
+                facets.add(new FacetCountDto(values[id], counts[id]));
+            }
+        }
+        facets.sort(Comparator.comparingLong(FacetCountDto::getCount).reversed().thenComparing(FacetCountDto::getValue));
+        return facets;
+    }
+
+    private static List<PriceRangeCountDto> priceRanges(long[] counts) {
+        List<PriceRangeCountDto> ranges = new ArrayList<>();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (counts[bucket] > 0) {
+                ranges.add(PriceRangeCountDto.builder()
+                        .min(bucket == 0 ? BigDecimal.ZERO.setScale(2) : BigDecimal.valueOf(PRICE_BOUNDS_CENTS[bucket - 1], 2))
+                        .max(bucket < PRICE_BOUNDS_CENTS.length ? BigDecimal.valueOf(PRICE_BOUNDS_CENTS[bucket], 2) : null)
+                        .count(counts[bucket])
+                        .build());
+            }
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,258 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Immutable view of the active catalog, indexed by id and by category and pre-sorted in
+ * every {@link ProductSort} order so that pages are a binary search away, with a
+ * {@link CatalogColumns} view for filtering and facet counts. The fingerprint hashes every
+ * product id with its {@code updatedAt}, so two nodes holding the same catalog agree on it and
+ * any product, price or stock change moves it. Every change yields a new snapshot, patched
+ * from the previous one and swapped in whole, so readers never see a half-applied update.
+ * Rendered response bodies are memoized per snapshot and go away with it.
+ * The contained {@link ProductDto}s are shared between requests and must not be mutated.
+ */
+@Getter
+public final class CatalogSnapshot {
+
+    private static final Comparator<ProductDto> BY_ID = Comparator.comparing(ProductDto::getId);
+    private static final long FINGERPRINT_SEED = 0x9e3779b97f4a7c15L;
+
+    private final long version;
+    private final List<ProductDto> products;
+    private final Map<Long, ProductDto> productsById;
+    private final Map<String, List<ProductDto>> productsByCategory;
+    private final Map<ProductSort, List<ProductDto>> sortedProducts;
+    private final Map<String, Map<ProductSort, List<ProductDto>>> sortedProductsByCategory;
+    private final CatalogColumns columns;
+    private final long fingerprint;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, RenderedPage> renderedPages = new ConcurrentHashMap<>();
+
+    private CatalogSnapshot(long version,
+                            List<ProductDto> products,
+                            Map<Long, ProductDto> productsById,
+                            Map<String, List<ProductDto>> productsByCategory,
+                            Map<ProductSort, List<ProductDto>> sortedProducts,
+                            Map<String, Map<ProductSort, List<ProductDto>>> sortedProductsByCategory,
+                            CatalogColumns columns) {
+        this.version = version;
+        this.products = products;
+        this.productsById = Collections.unmodifiableMap(productsById);
+        this.productsByCategory = Collections.unmodifiableMap(productsByCategory);
+        this.sortedProducts = sortedProducts;
+        this.sortedProductsByCategory = Collections.unmodifiableMap(sortedProductsByCategory);
+        this.columns = columns;
+        this.fingerprint = fingerprint(products);
+    }
+
+    private static long fingerprint(List<ProductDto> productsById) {
+        long hash = FINGERPRINT_SEED;
+        for (ProductDto product : productsById) {
+            hash = mix(hash ^ product.getId());
+            LocalDateTime updatedAt = product.getUpdatedAt();
+            if (updatedAt != null) {
+                hash = mix(hash ^ updatedAt.toEpochSecond(ZoneOffset.UTC) ^ ((long) updatedAt.getNano() << 32));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 64-bit finalizer from MurmurHash3; spreads every input bit across the whole word.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe1a85b53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static Map<ProductSort, List<ProductDto>> sortAll(List<ProductDto> products) {
+        Map<ProductSort, List<ProductDto>> bySort = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.LISTING_SORTS) {
+            List<ProductDto> copy = new ArrayList<>(products);
+            copy.sort(sort.comparator());
+            bySort.put(sort, Collections.unmodifiableList(copy));
+        }
+        return Collections.unmodifiableMap(bySort);
+    }
+
+    /**
+     * {@code base} in every listing order, without the products {@code kept} rejects and with
+     * {@code added} merged in. {@code base} may be {@code null} for a category that is new.
+     */
+    private static Map<ProductSort, List<ProductDto>> patchAll(Map<ProductSort, List<ProductDto>> base,
+                                                               Predicate<ProductDto> kept,
+                                                               List<ProductDto> added) {
+        Map<ProductSort, List<ProductDto>> bySort = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.LISTING_SORTS) {
+            List<ProductDto> sorted = base == null ? Collections.emptyList() : base.get(sort);
+            bySort.put(sort, patch(sorted, kept, added, sort.comparator()));
+        }
+        return Collections.unmodifiableMap(bySort);
+    }
+
+    /**
+     * Single merge pass over a list already sorted by {@code order}: O(n + k log k) for k
+     * added products instead of re-sorting all n.
+     */
+    private static List<ProductDto> patch(List<ProductDto> sorted,
+                                          Predicate<ProductDto> kept,
+                                          List<ProductDto> added,
+                                          Comparator<? super ProductDto> order) {
+        List<ProductDto> inserted = new ArrayList<>(added);
+        inserted.sort(order);
+        List<ProductDto> merged = new ArrayList<>(sorted.size() + inserted.size());
+        int next = 0;
+        for (ProductDto product : sorted) {
+            if (!kept.test(product)) {
+                continue;
+            }
+            while (next < inserted.size() && order.compare(inserted.get(next), product) < 0) {
+                merged.add(inserted.get(next++));
+            }
+            merged.add(product);
+        }
+        merged.addAll(inserted.subList(next, inserted.size()));
+        return Collections.unmodifiableList(merged);
+    }
+
+    public static CatalogSnapshot of(long version, Collection<ProductDto> activeProducts) {
+        Map<Long, ProductDto> byId = new HashMap<>();
+        for (ProductDto product : activeProducts) {
+            byId.put(product.getId(), product);
+        }
+        List<ProductDto> sorted = new ArrayList<>(byId.values());
+        sorted.sort(BY_ID);
+
+        Map<String, List<ProductDto>> byCategory = new HashMap<>();
+        for (ProductDto product : sorted) {
+            if (product.getCategory() != null) {
+                byCategory.computeIfAbsent(product.getCategory(), c -> new ArrayList<>()).add(product);
+            }
+        }
+        byCategory.replaceAll((category, list) -> Collections.unmodifiableList(list));
+
+        Map<String, Map<ProductSort, List<ProductDto>>> sortedByCategory = new HashMap<>();
+        byCategory.forEach((category, list) -> sortedByCategory.put(category, sortAll(list)));
+
+        List<ProductDto> products = Collections.unmodifiableList(sorted);
+        return new CatalogSnapshot(version, products, byId, byCategory, sortAll(products), sortedByCategory,
+                CatalogColumns.of(products));
+    }
+
+    /**
+     * Copy of this snapshot where the given products replace their previous entry. Products
+     * listed in {@code changedIds} but absent from {@code reloaded}, or no longer active, are
+     * dropped.
+     *
+     * <p>The sorted lists are patched rather than rebuilt: changed products are filtered out and
+     * their new versions merged back in, and only the categories a changed product left or
+     * joined are touched; the others are shared with this snapshot. When no product appears or
+     * disappears, the columns are patched in place of their rows as well.
+     */
+    public CatalogSnapshot withChanges(long newVersion, Collection<Long> changedIds, Collection<ProductDto> reloaded) {
+        Set<Long> changed = new HashSet<>(changedIds);
+        Map<Long, ProductDto> byId = new HashMap<>(productsById);
+        List<ProductDto> added = new ArrayList<>();
+        for (ProductDto product : reloaded) {
+            changed.add(product.getId());
+        }
+        changed.forEach(byId::remove);
+        for (ProductDto product : reloaded) {
+            if (Boolean.TRUE.equals(product.getActive())) {
+                byId.put(product.getId(), product);
+                added.add(product);
+            }
+        }
+        Predicate<ProductDto> kept = product -> !changed.contains(product.getId());
+
+        Set<String> touchedCategories = new HashSet<>();
+        boolean sameRows = added.size() == changed.size();
+        for (Long id : changed) {
+            ProductDto previous = productsById.get(id);
+            if (previous == null) {
+                sameRows = false;
+            } else if (previous.getCategory() != null) {
+                touchedCategories.add(previous.getCategory());
+            }
+        }
+        for (ProductDto product : added) {
+            if (product.getCategory() != null) {
+                touchedCategories.add(product.getCategory());
+            }
+        }
+
+        Map<String, List<ProductDto>> byCategory = new HashMap<>(productsByCategory);
+        Map<String, Map<ProductSort, List<ProductDto>>> sortedByCategory = new HashMap<>(sortedProductsByCategory);
+        for (String category : touchedCategories) {
+            List<ProductDto> addedHere = added.stream()
+                    .filter(product -> category.equals(product.getCategory()))
+                    .toList();
+            List<ProductDto> list = patch(getProductsByCategory(category), kept, addedHere, BY_ID);
+            if (list.isEmpty()) {
+                byCategory.remove(category);
+                sortedByCategory.remove(category);
+            } else {
+                byCategory.put(category, list);
+                sortedByCategory.put(category, patchAll(sortedProductsByCategory.get(category), kept, addedHere));
+            }
+        }
+
+        List<ProductDto> sorted = patch(products, kept, added, BY_ID);
+        CatalogColumns patchedColumns = sameRows ? columns.withRows(added) : CatalogColumns.of(sorted);
+        return new CatalogSnapshot(newVersion, sorted, byId, byCategory, patchAll(sortedProducts, kept, added),
+                sortedByCategory, patchedColumns);
+    }
+
+    public ProductDto getProduct(Long id) {
+        return productsById.get(id);
+    }
+
+    public List<ProductDto> getProductsByCategory(String category) {
+        return productsByCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    public List<ProductDto> getProducts(ProductSort sort) {
+        return sortedProducts.get(sort);
+    }
+
+    public List<ProductDto> getProductsByCategory(String category, ProductSort sort) {
+        Map<ProductSort, List<ProductDto>> bySort = sortedProductsByCategory.get(category);
+        return bySort == null ? Collections.emptyList() : bySort.get(sort);
+    }
+
+    /**
+     * Body for {@code key}, rendered on first use. Callers bound the key space; it lives as long
+     * as this snapshot.
+     */
+    public RenderedPage rendered(String key, Function<String, RenderedPage> renderer) {
+        return renderedPages.computeIfAbsent(key, renderer);
+    }
+
+    public int size() {
+        return products.size();
+    }
+}
@@ -0,0 +1,125 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.CategoryDto;
+import com.carrefour.carrefourShop.entity.Category;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable category hierarchy with active-product counts. A node's count includes its
+ * descendants. Counts are keyed by the product {@code category} text; when only counts change
+ * {@link #withCounts} reuses the loaded nodes. The DTO tree is built once and shared between
+ * requests, so it must not be mutated.
+ */
+public final class CategoryTree {
+
+    public static final String SEPARATOR = " > ";
+    private static final Pattern SEGMENT_SEPARATOR = Pattern.compile("\\s*>\\s*");
+    private static final Comparator<CategoryDto> BY_NAME = Comparator.comparing(CategoryDto::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(CategoryDto::getPath);
+
+    public static final CategoryTree EMPTY = new CategoryTree(-1, List.of(), Map.of());
+
+    private final long snapshotVersion;
+    private final List<Category> nodes;
+    private final Map<String, Category> nodesByPath;
+    private final List<CategoryDto> roots;
+
+    private CategoryTree(long snapshotVersion, List<Category> nodes, Map<String, Long> productCounts) {
+        this.snapshotVersion = snapshotVersion;
+        this.nodes = nodes;
+        this.nodesByPath = new HashMap<>();
+        for (Category node : nodes) {
+            nodesByPath.put(node.getPath(), node);
+        }
+        this.roots = buildRoots(nodes, totals(productCounts));
+    }
+
+    /**
+     * @param productCounts active products per product {@code category} value, as stored
+     */
+    public static CategoryTree build(long snapshotVersion, List<Category> nodes, Map<String, Long> productCounts) {
+        return new CategoryTree(snapshotVersion, List.copyOf(nodes), productCounts);
+    }
+
+    public CategoryTree withCounts(long snapshotVersion, Map<String, Long> productCounts) {
+        return new CategoryTree(snapshotVersion, nodes, productCounts);
+    }
+
+    /**
+     * Canonical path for a product category: segments trimmed and joined with
+     * {@value #SEPARATOR}, the same way the database names nodes. {@code null} for blank input.
+     */
+    public static String normalize(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        return String.join(SEPARATOR, SEGMENT_SEPARATOR.split(category.strip()));
+    }
+
+    /**
+     * Whether every given product category already has a node, i.e. whether new counts can be
+     * applied without reloading the nodes.
+     */
+    public boolean containsAll(Collection<String> categories) {
+        for (String category : categories) {
+            String path = normalize(category);
+            if (path != null && !nodesByPath.containsKey(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public List<CategoryDto> getRoots() {
+        return roots;
+    }
+
+    private static Map<String, Long> totals(Map<String, Long> productCounts) {
+        Map<String, Long> totals = new HashMap<>();
+        productCounts.forEach((category, count) -> {
+            String path = normalize(category);
+            while (path != null) {
+                totals.merge(path, count, Long::sum);
+                int parent = path.lastIndexOf(SEPARATOR);
+                path = parent >= 0 ? path.substring(0, parent) : null;
+            }
+        });
+        return totals;
+    }
+
+    private static List<CategoryDto> buildRoots(List<Category> nodes, Map<String, Long> totals) {
+        Map<Long, CategoryDto> byId = new HashMap<>();
+        for (Category node : nodes) {
+            byId.put(node.getId(), CategoryDto.builder()
+                    .id(node.getId())
+                    .name(node.getName())
+                    .path(node.getPath())
+                    .productCount(totals.getOrDefault(node.getPath(), 0L))
+                    .children(new ArrayList<>())
+                    .build());
+        }
+        List<CategoryDto> roots = new ArrayList<>();
+        for (Category node : nodes) {
+            CategoryDto dto = byId.get(node.getId());
+            CategoryDto parent = node.getParentId() != null ? byId.get(node.getParentId()) : null;
+            (parent != null ? parent.getChildren() : roots).add(dto);
+        }
+        for (CategoryDto dto : byId.values()) {
+            dto.getChildren().sort(BY_NAME);
+            dto.setChildren(List.copyOf(dto.getChildren()));
+        }
+        roots.sort(BY_NAME);
+        return List.copyOf(roots);
+    }
+}
@@ -1,5 +1,6 @@
 package com.carrefour.carrefourShop.config;
 
+import com.carrefour.carrefourShop.cache.CatalogCache;
 import com.carrefour.carrefourShop.entity.Product;
 import com.carrefour.carrefourShop.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +18,7 @@ import java.util.List;
 public class DataInitializer implements CommandLineRunner {
 
     private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
 
     @Override
     public void run(String... args) {
@@ -180,6 +182,7 @@ public class DataInitializer implements CommandLineRunner {
         );
 
         productRepository.saveAll(products);
+        catalogCache.invalidateAll();
     }
 }
 
@@ -1,29 +1,32 @@
 package com.carrefour.carrefourShop.config;
 
-import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.TokenRevocationService;
+import com.carrefour.carrefourShop.service.TokenVersionService;
 import com.carrefour.carrefourShop.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
-    private final UserRepository userRepository;
+    private final TokenVersionService tokenVersionService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -44,30 +47,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            if (jwtUtil.isTokenValid(jwt)) {
-                final String email = jwtUtil.extractEmail(jwt);
-
-                if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
-                    Long userId = userRepository.findByEmail(email)
-                            .map(com.carrefour.carrefourShop.entity.User::getId)
-                            .orElse(null);
+            Optional<Claims> claims = jwtUtil.parseToken(jwt);
+            if (claims.isPresent() && jwtUtil.isAccessToken(claims.get())
+                    && !tokenRevocationService.isRevoked(claims.get().getId())
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                Long userId = jwtUtil.getUserId(claims.get());
+                String role = jwtUtil.getRole(claims.get());
+                Integer tokenVersion = jwtUtil.getTokenVersion(claims.get());
 
+                if (userId != null && role != null && tokenVersion != null
+                        && tokenVersionService.isCurrent(userId, tokenVersion)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userId != null ? userId.toString() : email,
+                            userId.toString(),
                             null,
-                            userDetails.getAuthorities()
+                            List.of(new SimpleGrantedAuthority("ROLE_" + role))
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
         } catch (Exception e) {
-            logger.error("JWT token validation failed: {}");
+            logger.error("JWT token validation failed", e);
         }
 
         filterChain.doFilter(request, response);
     }
 }
-
@@ -0,0 +1,75 @@
+package com.carrefour.carrefourShop.controller;
+
+import com.carrefour.carrefourShop.dto.ProductImportReportDto;
+import com.carrefour.carrefourShop.service.HotStockService;
+import com.carrefour.carrefourShop.service.ProductImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/products")
+@RequiredArgsConstructor
+@Tag(name = "Product administration", description = "Catalog maintenance APIs (ADMIN only)")
+public class AdminProductController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ProductImportService productImportService;
+    private final HotStockService hotStockService;
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    @Operation(summary = "Import products from CSV", description = "Upserts products by SKU from a streamed CSV body with a header row. Columns: sku, name, price (required), description, stock, category, image_url, brand, active")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see the report for rejected rows",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductImportReportDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid header or malformed file", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<ProductImportReportDto> importCsv(InputStream body) {
+        return ResponseEntity.ok(productImportService.importCsv(body));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import products from NDJSON", description = "Upserts products by SKU from a streamed newline-delimited JSON body, one product per line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see the report for rejected rows",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductImportReportDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<ProductImportReportDto> importNdjson(InputStream body) {
+        return ResponseEntity.ok(productImportService.importNdjson(body));
+    }
+
+    @PutMapping("/{id}/hot")
+    @Operation(summary = "Turn hot mode on or off", description = "Hot products sell from stock leased to each node in blocks instead of updating the product row per checkout. Meant for flash sales of a few products; stock figures lag by up to the settle interval")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Hot mode updated"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<Void> setHot(@PathVariable Long id, @RequestParam boolean enabled) {
+        hotStockService.setHot(id, enabled);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,9 +2,11 @@ package com.carrefour.carrefourShop.controller;
 
 import com.carrefour.carrefourShop.dto.AuthRequest;
 import com.carrefour.carrefourShop.dto.AuthResponse;
+import com.carrefour.carrefourShop.dto.RefreshTokenRequest;
 import com.carrefour.carrefourShop.dto.RegisterRequest;
 import com.carrefour.carrefourShop.dto.UserDto;
 import com.carrefour.carrefourShop.mapper.UserMapper;
+import com.carrefour.carrefourShop.service.LoginAttemptService;
 import com.carrefour.carrefourShop.service.UserService;
 import com.carrefour.carrefourShop.util.TokenUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,8 +15,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +27,11 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Sign-in attempts are limited per client address. Behind the reverse proxy,
+ * {@link HttpServletRequest#getRemoteAddr()} is the address from {@code X-Forwarded-For}, as
+ * resolved by {@code server.forward-headers-strategy} for trusted proxies only.
+ */
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -30,6 +39,7 @@ import java.util.Map;
 public class AuthController {
 
     private final UserService userService;
+    private final LoginAttemptService loginAttemptService;
     private final UserMapper userMapper;
 
     @PostMapping("/register")
@@ -38,9 +48,11 @@ public class AuthController {
             @ApiResponse(responseCode = "201", description = "User registered successfully",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = UserDto.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input or email already exists", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many attempts or sign-in requests in progress", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
-    public ResponseEntity<UserDto> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<UserDto> register(@Valid @RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        loginAttemptService.checkAllowed(httpRequest.getRemoteAddr(), request.getEmail());
         UserDto user = userService.register(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(user);
     }
@@ -52,9 +64,11 @@ public class AuthController {
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = AuthResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content),
             @ApiResponse(responseCode = "401", description = "Invalid email or password", content = @Content),
+            @ApiResponse(responseCode = "429", description = "Too many attempts or sign-in requests in progress", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        loginAttemptService.checkAllowed(httpRequest.getRemoteAddr(), request.getEmail());
         AuthResponse response = userService.authenticate(request);
         return ResponseEntity.ok(response);
     }
@@ -74,13 +88,33 @@ public class AuthController {
         return ResponseEntity.ok(userMapper.toDto(user));
     }
 
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh tokens", description = "Exchanges a refresh token for a new access and refresh token pair")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens refreshed successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = AuthResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Invalid, expired or already used refresh token", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(userService.refresh(request.getRefreshToken()));
+    }
+
     @PostMapping("/logout")
-    @Operation(summary = "User logout", description = "Logs out the current user")
+    @Operation(summary = "User logout", description = "Revokes the current access token and, when provided, the refresh token")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Logout successful", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
-    public ResponseEntity<Map<String, String>> logout() {
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7).trim()
+                : null;
+        userService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logout successful");
         return ResponseEntity.ok(response);
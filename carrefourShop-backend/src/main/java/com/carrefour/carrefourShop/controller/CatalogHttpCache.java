@@ -0,0 +1,197 @@
+package com.carrefour.carrefourShop.controller;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.cache.CatalogSnapshot;
+import com.carrefour.carrefourShop.cache.RenderedPage;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * HTTP validators and Cache-Control policies for catalog endpoints. Validators come from the
+ * catalog snapshot, so a matching {@code If-None-Match} is answered with 304 before the
+ * service, the repositories or Jackson are involved. With the catalog cache disabled only the
+ * Cache-Control policy is applied.
+ *
+ * <p>The ETag is the only validator; no {@code Last-Modified} is sent. No timestamp can stand
+ * in for it: dropping a product does not move the newest {@code updatedAt} forward, and
+ * changes within the same second share one HTTP date. A gzip-encoded listing is a different
+ * byte sequence from the identity one, so it carries its own strong ETag ({@code "c<fp>-gz"});
+ * {@code If-None-Match} accepts either form, since both describe the same catalog.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogHttpCache {
+
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+
+    private final CatalogCache catalogCache;
+
+    @Value("${catalog.http.cache-control.list:public, max-age=30, stale-while-revalidate=60}")
+    private String listPolicy;
+
+    @Value("${catalog.http.cache-control.product:public, max-age=60, stale-while-revalidate=120}")
+    private String productPolicy;
+
+    @Value("${catalog.http.cache-control.search:public, max-age=30}")
+    private String searchPolicy;
+
+    @Value("${catalog.http.cache-control.suggest:public, max-age=60}")
+    private String suggestPolicy;
+
+    /**
+     * Listing whose content depends only on the active catalog and the request URL. When
+     * {@code rendered} supplies a pre-serialized body its bytes are written as is, gzipped if
+     * the client accepts it; otherwise {@code body} is serialized as usual.
+     */
+    public ResponseEntity<Object> list(WebRequest request, Supplier<RenderedPage> rendered, Supplier<?> body) {
+        if (!catalogCache.isEnabled()) {
+            return respond(null, listPolicy, response -> response.body(body.get()));
+        }
+        String etag = catalogETag();
+        String gzipETag = etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+        return conditional(request, etag, List.of(etag, gzipETag), listPolicy, response -> {
+            RenderedPage page = rendered.get();
+            if (page == null) {
+                return response.body(body.get());
+            }
+            response.contentType(MediaType.APPLICATION_JSON);
+            if (acceptsGzip(request)) {
+                return response.eTag(gzipETag).header(HttpHeaders.CONTENT_ENCODING, GZIP).body(page.gzip());
+            }
+            return response.body(page.json());
+        });
+    }
+
+    /**
+     * Batch of products by id. Validated like a listing because any product in it may change.
+     */
+    public <T> ResponseEntity<T> lookup(WebRequest request, Supplier<T> body) {
+        return catalogResponse(request, productPolicy, response -> response.body(body.get()));
+    }
+
+    public <T> ResponseEntity<T> categories(WebRequest request, Supplier<T> body) {
+        return catalogResponse(request, listPolicy, response -> response.body(body.get()));
+    }
+
+    public <T> ResponseEntity<T> search(WebRequest request, Supplier<T> body) {
+        return catalogResponse(request, searchPolicy, response -> response.body(body.get()));
+    }
+
+    public <T> ResponseEntity<T> suggest(Supplier<T> body) {
+        return respond(null, suggestPolicy, response -> response.body(body.get()));
+    }
+
+    /**
+     * Single product, validated by an ETag built from its own {@code updatedAt} to the
+     * nanosecond, so unrelated catalog changes do not invalidate it.
+     */
+    public <T> ResponseEntity<T> product(Long id, WebRequest request, Supplier<T> body) {
+        Function<ResponseEntity.BodyBuilder, ResponseEntity<T>> writer = response -> response.body(body.get());
+        if (!catalogCache.isEnabled()) {
+            return respond(null, productPolicy, writer);
+        }
+        ProductDto product = catalogCache.snapshot().getProduct(id);
+        if (product == null || product.getUpdatedAt() == null) {
+            return respond(null, productPolicy, writer);
+        }
+        LocalDateTime updatedAt = product.getUpdatedAt();
+        String etag = "\"p" + id + "-" + Long.toHexString(updatedAt.toEpochSecond(ZoneOffset.UTC))
+                + Integer.toHexString(updatedAt.getNano()) + "\"";
+        return conditional(request, etag, List.of(etag), productPolicy, writer);
+    }
+
+    private <T> ResponseEntity<T> catalogResponse(WebRequest request, String policy,
+                                                  Function<ResponseEntity.BodyBuilder, ResponseEntity<T>> writer) {
+        if (!catalogCache.isEnabled()) {
+            return respond(null, policy, writer);
+        }
+        String etag = catalogETag();
+        return conditional(request, etag, List.of(etag), policy, writer);
+    }
+
+    private String catalogETag() {
+        CatalogSnapshot snapshot = catalogCache.snapshot();
+        return "\"c" + Long.toHexString(snapshot.getFingerprint()) + "\"";
+    }
+
+    /**
+     * 304 when {@code If-None-Match} names any of {@code current}, echoing the tag the client
+     * holds; otherwise the full response tagged {@code etag}, which the writer may replace.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, String etag, List<String> current, String policy,
+                                              Function<ResponseEntity.BodyBuilder, ResponseEntity<T>> writer) {
+        String matched = matchingETag(request, current);
+        if (matched != null) {
+            return headers(ResponseEntity.status(HttpStatus.NOT_MODIFIED), matched, policy).build();
+        }
+        return respond(etag, policy, writer);
+    }
+
+    /**
+     * First of {@code current} listed in {@code If-None-Match}, compared weakly as the header
+     * requires, or {@code null}.
+     */
+    private static String matchingETag(WebRequest request, List<String> current) {
+        String[] values = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (values == null) {
+            return null;
+        }
+        for (String value : values) {
+            for (String tag : value.split(",")) {
+                String opaque = tag.trim();
+                if (opaque.equals("*")) {
+                    return current.get(0);
+                }
+                if (opaque.startsWith("W/")) {
+                    opaque = opaque.substring(2);
+                }
+                if (current.contains(opaque)) {
+                    return opaque;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <T> ResponseEntity<T> respond(String etag, String policy,
+                                                 Function<ResponseEntity.BodyBuilder, ResponseEntity<T>> writer) {
+        return writer.apply(headers(ResponseEntity.ok(), etag, policy));
+    }
+
+    private static ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder response, String etag, String policy) {
+        response.header(HttpHeaders.CACHE_CONTROL, policy)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        return response;
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String accepted = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accepted == null) {
+            return false;
+        }
+        for (String coding : accepted.split(",")) {
+            String[] parts = coding.split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
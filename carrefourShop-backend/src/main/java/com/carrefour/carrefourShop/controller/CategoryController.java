@@ -0,0 +1,42 @@
+package com.carrefour.carrefourShop.controller;
+
+import com.carrefour.carrefourShop.dto.CategoryDto;
+import com.carrefour.carrefourShop.service.CategoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+@RequiredArgsConstructor
+@Tag(name = "Categories", description = "Category navigation APIs")
+public class CategoryController {
+
+    private final CategoryService categoryService;
+    private final CatalogHttpCache httpCache;
+
+    @GetMapping
+    @Operation(summary = "Get category tree", description = "Returns the category hierarchy with the number of active products under each node, children included. Served from memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Categories retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = CategoryDto.class)))),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag the client holds", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<List<CategoryDto>> getCategoryTree(WebRequest request) {
+        return httpCache.categories(request, categoryService::getCategoryTree);
+    }
+}
@@ -2,6 +2,7 @@ package com.carrefour.carrefourShop.controller;
 
 import com.carrefour.carrefourShop.dto.CreateOrderRequest;
 import com.carrefour.carrefourShop.dto.OrderDto;
+import com.carrefour.carrefourShop.service.OrderProcessingService;
 import com.carrefour.carrefourShop.service.OrderService;
 import com.carrefour.carrefourShop.util.TokenUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,6 +18,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 
@@ -27,12 +29,15 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderProcessingService orderProcessingService;
 
     @PostMapping
-    @Operation(summary = "Create order", description = "Creates a new order from the user's cart")
+    @Operation(summary = "Create order", description = "Creates a new order from the user's cart. With asynchronous intake enabled the order is accepted with 202 and processed by the order workers; poll the Location URL until its status leaves ACCEPTED")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Order created successfully",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderDto.class))),
+            @ApiResponse(responseCode = "202", description = "Order accepted for processing",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderDto.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input or cart is empty", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
             @ApiResponse(responseCode = "404", description = "Cart not found", content = @Content),
@@ -42,6 +47,12 @@ public class OrderController {
             Authentication authentication,
             @Valid @RequestBody CreateOrderRequest request) {
         Long userId = TokenUtil.getUserId(authentication);
+        if (orderProcessingService.isEnabled()) {
+            OrderDto order = orderService.acceptOrder(userId, request);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{orderId}").buildAndExpand(order.getId()).toUri())
+                    .body(order);
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(userId, request));
     }
 
@@ -76,11 +87,11 @@ public class OrderController {
     }
 
     @PutMapping("/{orderId}/status")
-    @Operation(summary = "Update order status", description = "Updates the status of an order (ADMIN only)")
+    @Operation(summary = "Update order status", description = "Updates the status of an order (ADMIN only). An ACCEPTED order waiting for processing can only be CANCELLED, which releases the stock it holds, and no order can be set back to ACCEPTED")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order status updated successfully",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = OrderDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid order status", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid order status, status change not allowed, or order being processed", content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
             @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required", content = @Content),
             @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
@@ -1,18 +1,31 @@
 package com.carrefour.carrefourShop.controller;
 
 import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductLookupDto;
+import com.carrefour.carrefourShop.dto.ProductLookupRequest;
+import com.carrefour.carrefourShop.dto.ProductPageDto;
+import com.carrefour.carrefourShop.dto.ProductQuery;
+import com.carrefour.carrefourShop.dto.SuggestionDto;
+import com.carrefour.carrefourShop.service.ProductChangeService;
 import com.carrefour.carrefourShop.service.ProductService;
+import com.carrefour.carrefourShop.service.SuggestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Flux;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
@@ -21,16 +34,81 @@ import reactor.core.publisher.Flux;
 public class ProductController {
 
     private final ProductService productService;
+    private final SuggestionService suggestionService;
+    private final ProductChangeService productChangeService;
+    private final CatalogHttpCache httpCache;
 
     @GetMapping
-    @Operation(summary = "Get all products", description = "Returns a list of all active products")
+    @Operation(summary = "Get all products", description = "Returns a page of active products sorted by name, price or newest. Pass nextCursor back as cursor to fetch the following page. Filter with category, brand, minPrice, maxPrice and inStock; facets=true adds facet counts")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully",
-                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductDto.class))),
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductPageDto.class))),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag the client holds", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid sort or cursor", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<Object> getAllProducts(@ParameterObject ProductQuery query, WebRequest request) {
+        return httpCache.list(request, () -> productService.getRenderedPage(null, query), () -> productService.getAllProducts(query));
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get products by IDs", description = "Resolves up to catalog.lookup.max-ids products in one call, e.g. ids=1,2,3. Products come back in request order; unknown or inactive ids are listed in missingIds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductLookupDto.class))),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag the client holds", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Too many ids", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
-    public ResponseEntity<Flux<ProductDto>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductLookupDto> getProductsByIds(@RequestParam List<Long> ids, WebRequest request) {
+        return httpCache.lookup(request, () -> productService.getProductsByIds(ids));
+    }
+
+    @PostMapping("/lookup")
+    @Operation(summary = "Get products by IDs (POST)", description = "Same as GET /api/products?ids=... for id lists too long for a URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductLookupDto.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or too many ids", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<ProductLookupDto> lookupProducts(@Valid @RequestBody ProductLookupRequest request) {
+        return ResponseEntity.ok(productService.getProductsByIds(request.getIds()));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all products", description = "Streams every active product as newline-delimited JSON, optionally restricted to one category. Rows are written as they are read from the database")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Product stream started",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ProductDto.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<StreamingResponseBody> streamProducts(@RequestParam(required = false) String category) {
+        StreamingResponseBody body = out -> productService.streamProducts(category, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream product changes", description = "Server-Sent Events with price, stock and availability changes. Each 'products' event carries a JSON array of {id, price, stock, active}, coalesced per product. Reconnect with Last-Event-ID to resume; a 'reset' event means changes were missed and products should be reloaded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream opened", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return productChangeService.subscribe(lastEventId);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Autocomplete product names", description = "Returns the best matching product names for a typed prefix, ranked by match quality and popularity. Served from memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = SuggestionDto.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<List<SuggestionDto>> suggest(@RequestParam String prefix, @RequestParam(required = false) Integer limit) {
+        return httpCache.suggest(() -> suggestionService.suggest(prefix, limit));
     }
 
     @GetMapping("/{id}")
@@ -38,34 +116,39 @@ public class ProductController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product retrieved successfully",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductDto.class))),
+            @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag the client holds", content = @Content),
             @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id, WebRequest request) {
+        return httpCache.product(id, request, () -> productService.getProductById(id));
     }
 
     @GetMapping("/category/{category}")
-    @Operation(summary = "Get products by category", description = "Returns all products in a specific category")
+    @Operation(summary = "Get products by category", description = "Returns a page of products in a specific category, with the same filters and facets as the product list")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully",
-                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductDto.class))),
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductPageDto.class))),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag the client holds", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid sort or cursor", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
-    public ResponseEntity<Flux<ProductDto>> getProductsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    public ResponseEntity<Object> getProductsByCategory(@PathVariable String category, @ParameterObject ProductQuery query, WebRequest request) {
+        return httpCache.list(request, () -> productService.getRenderedPage(category, query),
+                () -> productService.getProductsByCategory(category, query));
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search products", description = "Searches products by keyword in name, description, or category")
+    @Operation(summary = "Search products", description = "Full-text search over name, brand, category and description with prefix matching. Sorted by relevance unless another sort is given, one page at a time. Accepts the product list filters and facets")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully",
-                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductDto.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid search parameter", content = @Content),
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductPageDto.class))),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag the client holds", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid search parameter, sort or cursor", content = @Content),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
     })
-    public ResponseEntity<Flux<ProductDto>> searchProducts(@RequestParam String keyword) {
-        return ResponseEntity.ok(productService.searchProducts(keyword));
+    public ResponseEntity<ProductPageDto> searchProducts(@RequestParam String keyword, @ParameterObject ProductQuery query, WebRequest request) {
+        return httpCache.search(request, () -> productService.searchProducts(keyword, query));
     }
 }
 
@@ -0,0 +1,20 @@
+package com.carrefour.carrefourShop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryDto {
+    private Long id;
+    private String name;
+    private String path;
+    private long productCount;
+    private List<CategoryDto> children;
+}
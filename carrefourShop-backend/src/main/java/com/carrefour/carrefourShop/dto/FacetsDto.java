@@ -0,0 +1,21 @@
+package com.carrefour.carrefourShop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetsDto {
+    private long total;
+    private List<FacetCountDto> categories;
+    private List<FacetCountDto> brands;
+    private List<PriceRangeCountDto> priceRanges;
+    private long inStock;
+    private long outOfStock;
+}
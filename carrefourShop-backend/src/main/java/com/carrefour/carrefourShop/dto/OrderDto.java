@@ -18,6 +18,7 @@ public class OrderDto {
     private Long id;
     private List<OrderItemDto> items;
     private Order.OrderStatus status;
+    private String statusReason;
     private BigDecimal totalPrice;
     private String shippingAddress;
     private String billingAddress;
@@ -0,0 +1,19 @@
+package com.carrefour.carrefourShop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeDto {
+    private Long id;
+    private BigDecimal price;
+    private Integer stock;
+    private boolean active;
+}
@@ -1,5 +1,6 @@
 package com.carrefour.carrefourShop.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,12 +13,15 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class ProductDto {
+public class ProductDto implements ProductSortKey {
     private Long id;
+    private String sku;
     private String name;
     private String description;
     private BigDecimal price;
     private Integer stock;
+    @JsonIgnore
+    private Integer available;
     private String category;
     private String imageUrl;
     private String brand;
@@ -0,0 +1,45 @@
+package com.carrefour.carrefourShop.dto;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Facet filters of a product listing. Values within a facet are OR-ed, facets are AND-ed.
+ */
+public record ProductFilter(Set<String> categories, Set<String> brands,
+                            BigDecimal minPrice, BigDecimal maxPrice, boolean inStockOnly) {
+
+    public static final ProductFilter NONE = new ProductFilter(Set.of(), Set.of(), null, null, false);
+
+    public static ProductFilter from(ProductQuery query) {
+        return new ProductFilter(values(query.getCategory()), values(query.getBrand()),
+                query.getMinPrice(), query.getMaxPrice(), Boolean.TRUE.equals(query.getInStock()));
+    }
+
+    public ProductFilter withCategory(String category) {
+        return new ProductFilter(Set.of(category), brands, minPrice, maxPrice, inStockOnly);
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty() && !hasNonCategoryFilters();
+    }
+
+    public boolean hasNonCategoryFilters() {
+        return !brands.isEmpty() || minPrice != null || maxPrice != null || inStockOnly;
+    }
+
+    private static Set<String> values(List<String> values) {
+        if (values == null) {
+            return Set.of();
+        }
+        Set<String> set = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                set.add(value.trim());
+            }
+        }
+        return Set.copyOf(set);
+    }
+}
@@ -0,0 +1,22 @@
+package com.carrefour.carrefourShop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportReportDto {
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsUnchanged;
+    private long rowsRejected;
+    private int batches;
+    private List<ProductImportErrorDto> errors;
+    private boolean errorsTruncated;
+}
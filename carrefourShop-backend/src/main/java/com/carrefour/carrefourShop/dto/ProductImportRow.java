@@ -0,0 +1,48 @@
+package com.carrefour.carrefourShop.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRow {
+    @NotBlank(message = "SKU is required")
+    @Size(max = 64, message = "SKU must be at most 64 characters")
+    private String sku;
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 255, message = "Name must be at most 255 characters")
+    private String name;
+
+    @Size(max = 1000, message = "Description must be at most 1000 characters")
+    private String description;
+
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.00", message = "Price must not be negative")
+    @Digits(integer = 36, fraction = 2, message = "Price must have at most 2 decimals")
+    private BigDecimal price;
+
+    @Min(value = 0, message = "Stock must not be negative")
+    private Integer stock;
+
+    @Size(max = 255, message = "Category must be at most 255 characters")
+    private String category;
+
+    @Size(max = 255, message = "Image URL must be at most 255 characters")
+    private String imageUrl;
+
+    @Size(max = 255, message = "Brand must be at most 255 characters")
+    private String brand;
+
+    private Boolean active;
+}
@@ -0,0 +1,16 @@
+package com.carrefour.carrefourShop.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupRequest {
+    @NotEmpty(message = "At least one product id is required")
+    private List<Long> ids;
+}
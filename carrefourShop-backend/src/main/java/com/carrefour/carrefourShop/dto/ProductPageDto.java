@@ -0,0 +1,20 @@
+package com.carrefour.carrefourShop.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageDto {
+    private List<ProductSummaryDto> items;
+    private String nextCursor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private FacetsDto facets;
+}
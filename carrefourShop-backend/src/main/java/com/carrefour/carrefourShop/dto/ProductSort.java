@@ -0,0 +1,99 @@
+package com.carrefour.carrefourShop.dto;
+
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Stable sort orders for product listings. Every order ends with the id so that keyset
+ * cursors always point at exactly one row. {@link #RELEVANCE} only exists for full-text
+ * search, where the rank is computed by the database per query.
+ */
+public enum ProductSort {
+
+    NAME(Comparator.comparing(ProductSortKey::getName).thenComparing(ProductSortKey::getId),
+            Sort.by(Sort.Order.asc("name"), Sort.Order.asc("id"))),
+    PRICE(Comparator.comparing(ProductSortKey::getPrice).thenComparing(ProductSortKey::getId),
+            Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"))),
+    NEWEST(Comparator.comparing(ProductSortKey::getCreatedAt).thenComparing(ProductSortKey::getId).reversed(),
+            Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"))),
+    RELEVANCE(null, null);
+
+    public static final List<ProductSort> LISTING_SORTS = List.of(NAME, PRICE, NEWEST);
+
+    private final Comparator<ProductSortKey> comparator;
+    private final Sort sort;
+
+    ProductSort(Comparator<ProductSortKey> comparator, Sort sort) {
+        this.comparator = comparator;
+        this.sort = sort;
+    }
+
+    public Comparator<ProductSortKey> comparator() {
+        return comparator;
+    }
+
+    public Sort toSort() {
+        return sort;
+    }
+
+    public String cursorValue(ProductSortKey product) {
+        return switch (this) {
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice().toPlainString();
+            case NEWEST -> product.getCreatedAt().toString();
+            case RELEVANCE -> throw new IllegalStateException("Relevance cursors carry the search rank, not a product field");
+        };
+    }
+
+    /**
+     * Product carrying only the fields this order compares, positioned where the cursor points.
+     */
+    public ProductDto cursorKey(Long id, String value) {
+        ProductDto key = ProductDto.builder().id(id).build();
+        try {
+            switch (this) {
+                case NAME -> key.setName(value);
+                case PRICE -> key.setPrice(new BigDecimal(value));
+                case NEWEST -> key.setCreatedAt(LocalDateTime.parse(value));
+                case RELEVANCE -> Float.parseFloat(value);
+            }
+        } catch (RuntimeException e) {
+            throw new BusinessException(ExceptionConstants.INVALID_CURSOR, ExceptionConstants.getMessage(ExceptionConstants.INVALID_CURSOR));
+        }
+        return key;
+    }
+
+    public static ProductSort forListing(String value) {
+        ProductSort sort = from(value, NAME);
+        if (sort == RELEVANCE) {
+            throw invalidSort(value);
+        }
+        return sort;
+    }
+
+    public static ProductSort forSearch(String value) {
+        return from(value, RELEVANCE);
+    }
+
+    private static ProductSort from(String value, ProductSort defaultSort) {
+        if (value == null || value.isBlank()) {
+            return defaultSort;
+        }
+        try {
+            return ProductSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw invalidSort(value);
+        }
+    }
+
+    private static BusinessException invalidSort(String value) {
+        return new BusinessException(ExceptionConstants.INVALID_SORT, ExceptionConstants.getMessage(ExceptionConstants.INVALID_SORT, value));
+    }
+}
@@ -0,0 +1,14 @@
+package com.carrefour.carrefourShop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fields every {@link ProductSort} order reads, shared by the full and summary product views.
+ */
+public interface ProductSortKey {
+    Long getId();
+    String getName();
+    BigDecimal getPrice();
+    LocalDateTime getCreatedAt();
+}
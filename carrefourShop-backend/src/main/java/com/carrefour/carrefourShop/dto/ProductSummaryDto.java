@@ -0,0 +1,28 @@
+package com.carrefour.carrefourShop.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Grid and list view of a product. Read straight from the database through a constructor
+ * expression, never from a managed entity. {@code createdAt} is only carried for keyset
+ * cursors and is not serialized.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class ProductSummaryDto implements ProductSortKey {
+    Long id;
+    String name;
+    BigDecimal price;
+    String imageUrl;
+    String brand;
+    Integer stock;
+    @JsonIgnore
+    LocalDateTime createdAt;
+}
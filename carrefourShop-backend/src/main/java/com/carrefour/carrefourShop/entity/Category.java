@@ -0,0 +1,36 @@
+package com.carrefour.carrefourShop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Node of the category hierarchy. Rows are created by the database whenever a product is
+ * saved with a new category path, see {@code ensure_category} in the V8 migration.
+ */
+@Entity
+@Table(name = "categories")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Category {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_seq", allocationSize = 50)
+    private Long id;
+
+    private Long parentId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, unique = true, length = 1000)
+    private String path;
+
+    @Column(nullable = false)
+    private Integer depth;
+}
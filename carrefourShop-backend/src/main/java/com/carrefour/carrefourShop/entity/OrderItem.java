@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -32,6 +33,14 @@ public class OrderItem {
     @Column(nullable = false)
     private Integer quantity;
 
+    /**
+     * Units of the line the cart still held when the order was accepted, settled against
+     * {@code products.reserved} once the order is processed.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer held = 0;
+
     @Column(nullable = false)
     private BigDecimal unitPrice;
 
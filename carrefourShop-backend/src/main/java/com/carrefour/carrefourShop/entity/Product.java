@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -18,9 +19,13 @@ import java.time.LocalDateTime;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
+    @Column(unique = true, length = 64)
+    private String sku;
+
     @Column(nullable = false)
     private String name;
 
@@ -32,6 +37,13 @@ public class Product {
 
     private Integer stock;
 
+    /**
+     * Stock left once cart reservations and units leased to hot-mode nodes are set aside.
+     * Read-only; {@code null} when stock is not tracked.
+     */
+    @Formula("stock - reserved - leased")
+    private Integer available;
+
     private String category;
 
     private String imageUrl;
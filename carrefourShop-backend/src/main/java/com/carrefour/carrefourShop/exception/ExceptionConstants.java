@@ -11,11 +11,19 @@ public class ExceptionConstants {
     public static final String INSUFFICIENT_STOCK = "INSUFFICIENT_STOCK";
     public static final String INSUFFICIENT_STOCK_FOR_PRODUCT = "INSUFFICIENT_STOCK_FOR_PRODUCT";
     public static final String PRODUCT_NO_LONGER_AVAILABLE = "PRODUCT_NO_LONGER_AVAILABLE";
+    public static final String INVALID_SORT = "INVALID_SORT";
+    public static final String INVALID_CURSOR = "INVALID_CURSOR";
+    public static final String TOO_MANY_PRODUCT_IDS = "TOO_MANY_PRODUCT_IDS";
+    public static final String INVALID_IMPORT_HEADER = "INVALID_IMPORT_HEADER";
+    public static final String MALFORMED_IMPORT_FILE = "MALFORMED_IMPORT_FILE";
 
     public static final String USER_NOT_FOUND = "USER_NOT_FOUND";
     public static final String USER_NOT_FOUND_BY_EMAIL = "USER_NOT_FOUND_BY_EMAIL";
     public static final String EMAIL_ALREADY_EXISTS = "EMAIL_ALREADY_EXISTS";
     public static final String INVALID_EMAIL_OR_PASSWORD = "INVALID_EMAIL_OR_PASSWORD";
+    public static final String INVALID_REFRESH_TOKEN = "INVALID_REFRESH_TOKEN";
+    public static final String TOO_MANY_LOGIN_ATTEMPTS = "TOO_MANY_LOGIN_ATTEMPTS";
+    public static final String PASSWORD_HASHING_BUSY = "PASSWORD_HASHING_BUSY";
 
     public static final String CART_NOT_FOUND = "CART_NOT_FOUND";
     public static final String CART_IS_EMPTY = "CART_IS_EMPTY";
@@ -26,6 +34,9 @@ public class ExceptionConstants {
     public static final String ORDER_NOT_FOUND = "ORDER_NOT_FOUND";
     public static final String ORDER_DOES_NOT_BELONG_TO_USER = "ORDER_DOES_NOT_BELONG_TO_USER";
     public static final String INVALID_ORDER_STATUS = "INVALID_ORDER_STATUS";
+    public static final String ORDER_PROCESSING_FAILED = "ORDER_PROCESSING_FAILED";
+    public static final String ORDER_STATUS_CHANGE_NOT_ALLOWED = "ORDER_STATUS_CHANGE_NOT_ALLOWED";
+    public static final String ORDER_BEING_PROCESSED = "ORDER_BEING_PROCESSED";
 
     public static final String AUTHENTICATION_NULL_OR_USER_ID_MISSING = "AUTHENTICATION_NULL_OR_USER_ID_MISSING";
     public static final String INVALID_USER_ID_FORMAT = "INVALID_USER_ID_FORMAT";
@@ -42,11 +53,19 @@ public class ExceptionConstants {
         MESSAGES.put(INSUFFICIENT_STOCK, "Insufficient stock");
         MESSAGES.put(INSUFFICIENT_STOCK_FOR_PRODUCT, "Insufficient stock for product %s");
         MESSAGES.put(PRODUCT_NO_LONGER_AVAILABLE, "Product %s is no longer available");
+        MESSAGES.put(INVALID_SORT, "Invalid sort order: %s");
+        MESSAGES.put(INVALID_CURSOR, "Invalid or expired page cursor");
+        MESSAGES.put(TOO_MANY_PRODUCT_IDS, "At most %s product ids can be looked up at once");
+        MESSAGES.put(INVALID_IMPORT_HEADER, "Invalid import header: %s");
+        MESSAGES.put(MALFORMED_IMPORT_FILE, "Malformed import file at line %s: %s");
 
         MESSAGES.put(USER_NOT_FOUND, "User not found");
         MESSAGES.put(USER_NOT_FOUND_BY_EMAIL, "User not found: %s");
         MESSAGES.put(EMAIL_ALREADY_EXISTS, "Email already exists");
         MESSAGES.put(INVALID_EMAIL_OR_PASSWORD, "Invalid email or password");
+        MESSAGES.put(INVALID_REFRESH_TOKEN, "Invalid or expired refresh token");
+        MESSAGES.put(TOO_MANY_LOGIN_ATTEMPTS, "Too many attempts, please try again later");
+        MESSAGES.put(PASSWORD_HASHING_BUSY, "Too many sign-in requests in progress, please retry shortly");
 
         MESSAGES.put(CART_NOT_FOUND, "Cart not found");
         MESSAGES.put(CART_IS_EMPTY, "Cart is empty");
@@ -57,6 +76,9 @@ public class ExceptionConstants {
         MESSAGES.put(ORDER_NOT_FOUND, "Order not found");
         MESSAGES.put(ORDER_DOES_NOT_BELONG_TO_USER, "Order does not belong to user");
         MESSAGES.put(INVALID_ORDER_STATUS, "Invalid order status: %s");
+        MESSAGES.put(ORDER_PROCESSING_FAILED, "Order could not be processed, please try again");
+        MESSAGES.put(ORDER_STATUS_CHANGE_NOT_ALLOWED, "Order status cannot change from %s to %s");
+        MESSAGES.put(ORDER_BEING_PROCESSED, "Order is being processed, please try again shortly");
 
         MESSAGES.put(AUTHENTICATION_NULL_OR_USER_ID_MISSING, "Authentication is null or user ID is missing");
         MESSAGES.put(INVALID_USER_ID_FORMAT, "Invalid user ID format in authentication");
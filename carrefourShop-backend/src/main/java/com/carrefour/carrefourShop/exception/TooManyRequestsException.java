@@ -0,0 +1,21 @@
+package com.carrefour.carrefourShop.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    private final String code;
+    private final String message;
+
+    public TooManyRequestsException(String code, String message) {
+        super(message);
+        this.code = code;
+        this.message = message;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
@@ -11,6 +11,7 @@ public interface OrderItemMapper {
     OrderItemDto toDto(OrderItem orderItem);
     
     @Mapping(target = "order", ignore = true)
+    @Mapping(target = "held", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     OrderItem toEntity(OrderItemDto dto);
 }
@@ -1,6 +1,7 @@
 package com.carrefour.carrefourShop.mapper;
 
 import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
 import com.carrefour.carrefourShop.entity.Product;
 import org.mapstruct.Mapper;
 import org.mapstruct.MappingConstants;
@@ -8,5 +9,6 @@ import org.mapstruct.MappingConstants;
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
 public interface ProductMapper {
     ProductDto toDto(Product product);
+    ProductSummaryDto toSummary(ProductDto dto);
     Product toEntity(ProductDto dto);
 }
@@ -11,6 +11,7 @@ public interface UserMapper {
     UserDto toDto(User user);
     
     @Mapping(target = "password", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
     @Mapping(target = "cart", ignore = true)
     @Mapping(target = "orders", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
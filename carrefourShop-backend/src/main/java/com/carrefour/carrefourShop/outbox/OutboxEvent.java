@@ -0,0 +1,21 @@
+package com.carrefour.carrefourShop.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event read back from the outbox, published to in-process {@code @EventListener}s and
+ * handed to the {@link OutboxSink} once the transaction that wrote it has committed. Delivery
+ * is at least once and only roughly in write order, since an event that fails is retried
+ * after the ones behind it, so listeners must tolerate repeats and reordering.
+ * {@code aggregateId} is the order the event is about, when there is one.
+ */
+public record OutboxEvent(Long id, String type, Long aggregateId, JsonNode payload, LocalDateTime createdAt) {
+
+    public static final String ORDER_PLACED = "order.placed";
+    public static final String ORDER_ACCEPTED = "order.accepted";
+    public static final String ORDER_REJECTED = "order.rejected";
+    public static final String ORDER_STATUS_CHANGED = "order.status-changed";
+    public static final String STOCK_CHANGED = "stock.changed";
+}
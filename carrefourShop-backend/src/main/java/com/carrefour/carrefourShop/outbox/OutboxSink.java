@@ -0,0 +1,14 @@
+package com.carrefour.carrefourShop.outbox;
+
+import java.util.List;
+
+/**
+ * Forwards outbox events out of the application, to a broker or an analytics pipeline.
+ * Declare a bean to plug one in; without one, events only reach in-process listeners. Events
+ * are sent before they are marked dispatched; when a batch fails it is sent again one event at
+ * a time, and only the events that still fail are retried later.
+ */
+public interface OutboxSink {
+
+    void send(List<OutboxEvent> events);
+}
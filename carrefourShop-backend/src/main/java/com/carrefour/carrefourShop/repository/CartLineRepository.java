@@ -0,0 +1,45 @@
+package com.carrefour.carrefourShop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Adds to a cart line in a single statement, keyed on the unique {@code (cart_id, product_id)}
+ * index. The product is re-checked both when the line is inserted and when it is incremented,
+ * so concurrent adds of the same product end up as one line holding every quantity, and none
+ * of them can take the line past the stock.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartLineRepository {
+
+    private static final String ADD = """
+            INSERT INTO cart_items (cart_id, product_id, quantity, created_at, updated_at)
+            SELECT ?, p.id, ?, LOCALTIMESTAMP, LOCALTIMESTAMP FROM products p
+            WHERE p.id = ? AND p.active AND (p.stock IS NULL OR p.stock >= ?)
+            ON CONFLICT (cart_id, product_id) DO UPDATE
+            SET quantity = cart_items.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at
+            WHERE EXISTS (SELECT 1 FROM products p
+                          WHERE p.id = EXCLUDED.product_id AND p.active
+                            AND (p.stock IS NULL OR p.stock >= cart_items.quantity + EXCLUDED.quantity))
+            RETURNING id, quantity""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the line as written, or empty when the product is gone, inactive or short of
+     * stock for the new quantity.
+     */
+    public Optional<CartLine> add(Long cartId, Long productId, int quantity) {
+        return jdbcTemplate.query(ADD, (rs, rowNum) -> new CartLine(rs.getLong("id"), rs.getInt("quantity")),
+                        cartId, quantity, productId, quantity)
+                .stream()
+                .findFirst();
+    }
+
+    public record CartLine(Long id, int quantity) {
+    }
+}
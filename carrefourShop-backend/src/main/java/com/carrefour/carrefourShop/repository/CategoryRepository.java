@@ -0,0 +1,9 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.entity.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+}
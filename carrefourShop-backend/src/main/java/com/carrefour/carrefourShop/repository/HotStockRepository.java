@@ -0,0 +1,80 @@
+package com.carrefour.carrefourShop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stock of hot products leased out to application nodes. A lease moves units from available
+ * stock into {@code products.leased}; settling moves the units a node sold out of both
+ * {@code stock} and {@code leased}, and hands back the ones it no longer wants.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HotStockRepository {
+
+    private static final String LEASE = """
+            WITH granted AS (
+                SELECT id, LEAST(?, stock - reserved - leased) AS units FROM products
+                WHERE id = ? AND hot AND active AND stock IS NOT NULL
+                FOR UPDATE)
+            UPDATE products p SET leased = p.leased + g.units
+            FROM granted g WHERE p.id = g.id AND g.units > 0
+            RETURNING g.units""";
+
+    private static final String SETTLE = """
+            UPDATE products SET stock = stock - ?, leased = leased - ?, updated_at = LOCALTIMESTAMP
+            WHERE id = ?""";
+
+    private static final String SET_HOT = "UPDATE products SET hot = ?, updated_at = LOCALTIMESTAMP WHERE id = ?";
+
+    private static final String SELECT_HOT_IDS = "SELECT id FROM products WHERE hot AND stock IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Leases up to {@code units} of the product's available stock. Returns the units granted,
+     * 0 when the product is not hot, has no stock figure or has nothing left.
+     */
+    public int lease(Long productId, int units) {
+        List<Integer> granted = jdbcTemplate.queryForList(LEASE, Integer.class, units, productId);
+        return granted.isEmpty() ? 0 : granted.get(0);
+    }
+
+    /**
+     * Settles leased units in one JDBC batch: {@code sold} units come off stock, and both
+     * those and the {@code returned} ones come off the lease.
+     */
+    public void settle(List<Settlement> settlements) {
+        if (settlements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SETTLE, new ArrayList<>(settlements), settlements.size(), (ps, settlement) -> {
+            ps.setLong(1, settlement.sold());
+            ps.setLong(2, settlement.sold() + settlement.returned());
+            ps.setLong(3, settlement.productId());
+        });
+    }
+
+    /**
+     * Turns hot mode on or off. Returns false when there is no such product.
+     */
+    public boolean setHot(Long productId, boolean hot) {
+        return jdbcTemplate.update(SET_HOT, hot, productId) > 0;
+    }
+
+    public Set<Long> findHotIds() {
+        return new HashSet<>(jdbcTemplate.queryForList(SELECT_HOT_IDS, Long.class));
+    }
+
+    /**
+     * Units of one product sold from, and handed back to, a node's lease since it last settled.
+     */
+    public record Settlement(Long productId, long sold, long returned) {
+    }
+}
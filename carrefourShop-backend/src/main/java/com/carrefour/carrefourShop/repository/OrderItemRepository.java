@@ -2,6 +2,7 @@ package com.carrefour.carrefourShop.repository;
 
 import com.carrefour.carrefourShop.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,5 +10,13 @@ import java.util.List;
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    @Query("SELECT oi.product.id AS productId, SUM(oi.quantity) AS quantity FROM OrderItem oi GROUP BY oi.product.id")
+    List<ProductSales> sumQuantityByProduct();
+
+    interface ProductSales {
+        Long getProductId();
+        Long getQuantity();
+    }
 }
 
@@ -0,0 +1,70 @@
+package com.carrefour.carrefourShop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Queue of accepted orders waiting to be processed. Workers claim due jobs with
+ * {@code FOR UPDATE SKIP LOCKED}, so any number of them, on any number of nodes, share the
+ * queue without taking the same order twice or waiting on each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderJobRepository {
+
+    private static final String ENQUEUE = "INSERT INTO order_jobs (order_id, available_at) VALUES (?, LOCALTIMESTAMP)";
+
+    private static final String CLAIM = """
+            SELECT order_id FROM order_jobs
+            WHERE available_at <= LOCALTIMESTAMP
+            ORDER BY available_at, order_id
+            LIMIT ? FOR UPDATE SKIP LOCKED""";
+
+    private static final String CLAIM_ONE = "SELECT order_id FROM order_jobs WHERE order_id = ? FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE = "DELETE FROM order_jobs WHERE order_id = ANY (?)";
+
+    private static final String RETRY_LATER = """
+            UPDATE order_jobs SET attempts = attempts + 1,
+                available_at = LOCALTIMESTAMP + (attempts + 1) * ? * INTERVAL '1 millisecond'
+            WHERE order_id = ?
+            RETURNING attempts""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void enqueue(Long orderId) {
+        jdbcTemplate.update(ENQUEUE, orderId);
+    }
+
+    /**
+     * Locks up to {@code limit} due jobs, oldest first, until the transaction ends and returns
+     * their order ids. Jobs another worker holds are skipped.
+     */
+    public List<Long> claim(int limit) {
+        return jdbcTemplate.queryForList(CLAIM, Long.class, limit);
+    }
+
+    /**
+     * Locks the order's job until the transaction ends, due or not. Returns false when it is
+     * gone or another worker holds it.
+     */
+    public boolean claim(Long orderId) {
+        return !jdbcTemplate.queryForList(CLAIM_ONE, Long.class, orderId).isEmpty();
+    }
+
+    public void delete(List<Long> orderIds) {
+        jdbcTemplate.update(DELETE, (Object) orderIds.toArray(Long[]::new));
+    }
+
+    /**
+     * Counts a failed attempt and holds the job back for {@code delayMillis} times the number
+     * of attempts so far. Returns the attempts so far, or 0 when the job is gone.
+     */
+    public int retryLater(Long orderId, long delayMillis) {
+        List<Integer> attempts = jdbcTemplate.queryForList(RETRY_LATER, Integer.class, delayMillis, orderId);
+        return attempts.isEmpty() ? 0 : attempts.get(0);
+    }
+}
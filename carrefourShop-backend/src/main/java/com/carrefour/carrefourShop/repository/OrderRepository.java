@@ -1,14 +1,18 @@
 package com.carrefour.carrefourShop.repository;
 
 import com.carrefour.carrefourShop.entity.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
-}
 
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    List<Order> findByIdInOrderById(Collection<Long> ids);
+}
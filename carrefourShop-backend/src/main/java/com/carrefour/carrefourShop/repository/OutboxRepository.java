@@ -0,0 +1,119 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.outbox.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Rows of the transactional outbox. Due rows are claimed with {@code FOR UPDATE SKIP LOCKED}
+ * and leased by pushing {@code available_at} forward, so pollers on several nodes share them
+ * without waiting on each other and without holding locks while events are delivered. A row
+ * whose lease runs out before it is marked dispatched or failed is claimed again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String INSERT =
+            "INSERT INTO outbox (event_type, aggregate_id, payload) VALUES (?, ?, ?::jsonb)";
+
+    private static final String CLAIM = """
+            UPDATE outbox SET available_at = LOCALTIMESTAMP + ? * INTERVAL '1 millisecond'
+            WHERE id IN (
+                SELECT id FROM outbox
+                WHERE dispatched_at IS NULL AND parked_at IS NULL AND available_at <= LOCALTIMESTAMP
+                ORDER BY id
+                LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING id, event_type, aggregate_id, payload::text AS payload, created_at,
+                      (EXTRACT(EPOCH FROM LOCALTIMESTAMP - created_at) * 1000)::int8 AS age_millis""";
+
+    private static final String FIND_RECENT_STOCK_CHANGES = """
+            SELECT o.id, jsonb_array_elements_text(o.payload -> 'productIds')::int8 AS product_id
+            FROM outbox o
+            WHERE o.event_type = ? AND o.created_at > LOCALTIMESTAMP - ? * INTERVAL '1 millisecond'""";
+
+    private static final String MARK_DISPATCHED =
+            "UPDATE outbox SET dispatched_at = LOCALTIMESTAMP WHERE id = ANY (?)";
+
+    private static final String MARK_FAILED = """
+            UPDATE outbox SET attempts = attempts + 1, last_error = ?,
+                available_at = LOCALTIMESTAMP + (attempts + 1) * ? * INTERVAL '1 millisecond',
+                parked_at = CASE WHEN attempts + 1 >= ? THEN LOCALTIMESTAMP END
+            WHERE id = ?
+            RETURNING parked_at IS NOT NULL""";
+
+    // Every row below the oldest one still pending or dispatched within the retention is
+    // done with, so they go in one range delete on the primary key. Parked rows are kept.
+    private static final String DELETE_DISPATCHED = """
+            DELETE FROM outbox WHERE parked_at IS NULL AND id < (
+                SELECT COALESCE(min(id), (SELECT COALESCE(max(id), 0) + 1 FROM outbox)) FROM outbox
+                WHERE (dispatched_at IS NULL AND parked_at IS NULL)
+                   OR dispatched_at >= LOCALTIMESTAMP - ? * INTERVAL '1 millisecond')""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(String type, Long aggregateId, String payload) {
+        jdbcTemplate.update(INSERT, type, aggregateId, payload);
+    }
+
+    /**
+     * Leases up to {@code limit} due rows, oldest first, for {@code leaseMillis} ms. Each comes
+     * with its age by the database clock, the one that stamped it.
+     */
+    public List<Row> claim(int limit, long leaseMillis) {
+        List<Row> rows = jdbcTemplate.query(CLAIM, (rs, rowNum) -> new Row(
+                rs.getLong("id"),
+                rs.getString("event_type"),
+                (Long) rs.getObject("aggregate_id"),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getLong("age_millis")), leaseMillis, limit);
+        return rows.stream().sorted(Comparator.comparing(Row::id)).toList();
+    }
+
+    /**
+     * Products of every {@code stock.changed} event written within the last
+     * {@code windowMillis} ms by the database clock, whether dispatched or not. Every node reads
+     * these for itself, unlike claimed rows, which reach a single node.
+     */
+    public List<StockChange> findRecentStockChanges(long windowMillis) {
+        return jdbcTemplate.query(FIND_RECENT_STOCK_CHANGES, (rs, rowNum) -> new StockChange(
+                rs.getLong("id"),
+                rs.getLong("product_id")), OutboxEvent.STOCK_CHANGED, windowMillis);
+    }
+
+    public void markDispatched(List<Long> ids) {
+        jdbcTemplate.update(MARK_DISPATCHED, (Object) ids.toArray(Long[]::new));
+    }
+
+    /**
+     * Counts a failed delivery and holds the row back for {@code delayMillis} times the number
+     * of attempts so far, or parks it once it has failed {@code maxAttempts} times. Returns
+     * whether it was parked.
+     */
+    public boolean markFailed(Long id, String error, long delayMillis, int maxAttempts) {
+        String lastError = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        List<Boolean> parked = jdbcTemplate.queryForList(MARK_FAILED, Boolean.class, lastError, delayMillis, maxAttempts, id);
+        return !parked.isEmpty() && parked.get(0);
+    }
+
+    /**
+     * Removes rows dispatched more than {@code retentionMillis} ago. Returns how many went.
+     */
+    public int deleteDispatched(long retentionMillis) {
+        return jdbcTemplate.update(DELETE_DISPATCHED, retentionMillis);
+    }
+
+    public record StockChange(Long eventId, Long productId) {
+    }
+
+    public record Row(Long id, String type, Long aggregateId, String payload, LocalDateTime createdAt, long ageMillis) {
+    }
+}
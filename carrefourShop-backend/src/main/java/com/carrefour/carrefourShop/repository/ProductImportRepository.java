@@ -0,0 +1,108 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductImportRow;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * Bulk upsert of imported products by SKU. Each batch is sent with {@code COPY} into a
+ * session-local staging table, then merged into {@code products} with a single
+ * {@code INSERT ... ON CONFLICT}. Rows identical to the stored product are left untouched, so
+ * re-importing an unchanged file neither rewrites rows nor moves {@code updated_at}. Imported
+ * stock never drops below the units carts and hot-stock leases already hold
+ * ({@code reserved + leased}), so available stock cannot turn negative; it is raised to that
+ * floor instead and settles back as the held units are released or sold.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductImportRepository {
+
+    private static final String IMPORT_COLUMNS = "sku, name, description, price, stock, category, image_url, brand, active";
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE IF NOT EXISTS product_import (
+                sku varchar(64), name varchar(255), description varchar(1000), price numeric(38, 2),
+                stock int4, category varchar(255), image_url varchar(255), brand varchar(255), active bool
+            ) ON COMMIT DELETE ROWS""";
+
+    private static final String COPY_STAGING =
+            "COPY product_import (" + IMPORT_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    // null stock is unlimited and stays so; GREATEST alone would skip the null
+    private static final String GUARDED_STOCK =
+            "CASE WHEN EXCLUDED.stock IS NULL THEN NULL ELSE GREATEST(EXCLUDED.stock, products.reserved + products.leased) END";
+
+    private static final String MERGE = """
+            INSERT INTO products (%1$s, created_at, updated_at)
+            SELECT %1$s, LOCALTIMESTAMP, LOCALTIMESTAMP FROM product_import
+            ON CONFLICT (sku) DO UPDATE SET
+                name = EXCLUDED.name, description = EXCLUDED.description, price = EXCLUDED.price,
+                stock = %2$s, category = EXCLUDED.category, image_url = EXCLUDED.image_url,
+                brand = EXCLUDED.brand, active = EXCLUDED.active, updated_at = EXCLUDED.updated_at
+            WHERE (products.name, products.description, products.price, products.stock, products.category,
+                   products.image_url, products.brand, products.active)
+                IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.description, EXCLUDED.price, %2$s,
+                   EXCLUDED.category, EXCLUDED.image_url, EXCLUDED.brand, EXCLUDED.active)""".formatted(IMPORT_COLUMNS, GUARDED_STOCK);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Upserts one batch. SKUs must be unique within the batch.
+     *
+     * @return number of products inserted or changed
+     */
+    @Transactional
+    public int upsert(Collection<ProductImportRow> rows) {
+        String csv = toCsv(rows);
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING);
+            }
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING, new StringReader(csv));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate(MERGE);
+            }
+        });
+    }
+
+    private static String toCsv(Collection<ProductImportRow> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 256);
+        for (ProductImportRow row : rows) {
+            appendField(csv, row.getSku()).append(',');
+            appendField(csv, row.getName()).append(',');
+            appendField(csv, row.getDescription()).append(',');
+            appendField(csv, row.getPrice() != null ? row.getPrice().toPlainString() : null).append(',');
+            appendField(csv, row.getStock() != null ? row.getStock().toString() : null).append(',');
+            appendField(csv, row.getCategory()).append(',');
+            appendField(csv, row.getImageUrl()).append(',');
+            appendField(csv, row.getBrand()).append(',');
+            appendField(csv, Boolean.FALSE.equals(row.getActive()) ? "false" : "true").append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Quotes every non-null value; in {@code COPY ... FORMAT csv} an unquoted empty field is
+     * NULL while a quoted one is an empty string.
+     */
+    private static StringBuilder appendField(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,28 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Resolves many products in one round trip. The ids go as a single array parameter, so the
+ * statement text is the same whatever the number of ids and PostgreSQL can reuse its plan.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductLookupRepository {
+
+    private static final String SELECT_ACTIVE_BY_IDS =
+            "SELECT " + ProductRows.COLUMNS + " FROM products WHERE active AND id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<ProductDto> findActiveByIds(Collection<Long> ids) {
+        return jdbcTemplate.query(SELECT_ACTIVE_BY_IDS, (rs, rowNum) -> ProductRows.toDto(rs),
+                (Object) ids.toArray(Long[]::new));
+    }
+}
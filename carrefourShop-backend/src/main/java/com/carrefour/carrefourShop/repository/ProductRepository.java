@@ -2,22 +2,22 @@ package com.carrefour.carrefourShop.repository;
 
 import com.carrefour.carrefourShop.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductSummaryQueries {
     List<Product> findByActiveTrue();
     List<Product> findByCategory(String category);
-    List<Product> findByActiveTrueAndCategory(String category);
-    
-    @Query("SELECT p FROM Product p WHERE p.active = true AND " +
-           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    List<Product> searchActiveProducts(@Param("keyword") String keyword);
-}
 
+    @Query("SELECT p.category AS category, COUNT(p) AS products FROM Product p WHERE p.active = true AND p.category IS NOT NULL GROUP BY p.category")
+    List<CategoryCount> countActiveByCategory();
+
+    interface CategoryCount {
+        String getCategory();
+        Long getProducts();
+    }
+}
@@ -0,0 +1,55 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Column lists and row mappings shared by the JDBC product repositories.
+ */
+final class ProductRows {
+
+    static final String COLUMNS =
+            "id, sku, name, description, price, stock, category, image_url, brand, active, created_at, updated_at";
+
+    static final String SUMMARY_COLUMNS = "id, name, price, image_url, brand, stock, created_at";
+
+    private ProductRows() {
+    }
+
+    static ProductDto toDto(ResultSet rs) throws SQLException {
+        return ProductDto.builder()
+                .id(rs.getLong("id"))
+                .sku(rs.getString("sku"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .price(rs.getBigDecimal("price"))
+                .stock(rs.getObject("stock", Integer.class))
+                .category(rs.getString("category"))
+                .imageUrl(rs.getString("image_url"))
+                .brand(rs.getString("brand"))
+                .active(rs.getBoolean("active"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .build();
+    }
+
+    static ProductSummaryDto toSummary(ResultSet rs) throws SQLException {
+        return new ProductSummaryDto(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getBigDecimal("price"),
+                rs.getString("image_url"),
+                rs.getString("brand"),
+                rs.getObject("stock", Integer.class),
+                toLocalDateTime(rs.getTimestamp("created_at")));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
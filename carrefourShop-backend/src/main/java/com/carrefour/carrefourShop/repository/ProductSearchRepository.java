@@ -0,0 +1,142 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductFilter;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
+import com.carrefour.carrefourShop.util.ProductCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text product search over the GIN-indexed {@code search_vector} column. Keywords are
+ * turned into a prefix query so partially typed words still match, and results are ranked
+ * with {@code ts_rank} using the weights set by the column's trigger.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductSearchRepository {
+
+    static final String TEXT_SEARCH_CONFIG = "french";
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    static final String SELECT =
+            "SELECT " + ProductRows.SUMMARY_COLUMNS + ", ts_rank(search_vector, q) AS rank " +
+            "FROM products, to_tsquery('" + TEXT_SEARCH_CONFIG + "', ?) q " +
+            "WHERE active AND search_vector @@ q";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record SearchHit(ProductSummaryDto product, float rank) {
+    }
+
+    /**
+     * One keyset page of active products matching every word of {@code keyword}, each word as
+     * a prefix, and the facet filters. Returns up to {@code limit} hits after the cursor.
+     */
+    public List<SearchHit> search(String keyword, ProductFilter filter, ProductSort sort, ProductCursor cursor, int limit) {
+        String tsQuery = toPrefixQuery(keyword);
+        if (tsQuery.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        args.add(tsQuery);
+        appendFilter(sql, args, filter);
+        if (cursor != null) {
+            ProductDto key = cursor.key();
+            switch (sort) {
+                case NAME -> sql.append(" AND (name, id) > (?, ?)");
+                case PRICE -> sql.append(" AND (price, id) > (?, ?)");
+                case NEWEST -> sql.append(" AND (created_at, id) < (?, ?)");
+                case RELEVANCE -> sql.append(" AND (ts_rank(search_vector, q), id) < (CAST(? AS real), ?)");
+            }
+            args.add(switch (sort) {
+                case NAME -> key.getName();
+                case PRICE -> key.getPrice();
+                case NEWEST -> Timestamp.valueOf(key.getCreatedAt());
+                case RELEVANCE -> Float.parseFloat(cursor.value());
+            });
+            args.add(key.getId());
+        }
+        sql.append(switch (sort) {
+            case NAME -> " ORDER BY name, id";
+            case PRICE -> " ORDER BY price, id";
+            case NEWEST -> " ORDER BY created_at DESC, id DESC";
+            case RELEVANCE -> " ORDER BY rank DESC, id DESC";
+        });
+        sql.append(" LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new SearchHit(ProductRows.toSummary(rs), rs.getFloat("rank")),
+                args.toArray());
+    }
+
+    /**
+     * Ids of every active product matching {@code keyword}, unfiltered and unordered, for
+     * computing facets over the whole result set.
+     */
+    public List<Long> findMatchingIds(String keyword) {
+        String tsQuery = toPrefixQuery(keyword);
+        if (tsQuery.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM products, to_tsquery('" + TEXT_SEARCH_CONFIG + "', ?) q WHERE active AND search_vector @@ q",
+                Long.class, tsQuery);
+    }
+
+    private static void appendFilter(StringBuilder sql, List<Object> args, ProductFilter filter) {
+        if (!filter.categories().isEmpty()) {
+            sql.append(" AND category = ANY (?)");
+            args.add(filter.categories().toArray(String[]::new));
+        }
+        if (!filter.brands().isEmpty()) {
+            sql.append(" AND brand = ANY (?)");
+            args.add(filter.brands().toArray(String[]::new));
+        }
+        if (filter.minPrice() != null) {
+            sql.append(" AND price >= ?");
+            args.add(filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            sql.append(" AND price <= ?");
+            args.add(filter.maxPrice());
+        }
+        if (filter.inStockOnly()) {
+            sql.append(" AND (stock IS NULL OR stock - reserved - leased > 0)");
+        }
+    }
+
+    /**
+     * Builds a {@code to_tsquery} expression from free text: words are reduced to letters and
+     * digits and AND-ed, each one matching as a prefix, so no user input reaches the query
+     * parser unescaped.
+     */
+    static String toPrefixQuery(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : NON_WORD.split(keyword.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (!query.isEmpty()) {
+                query.append(" & ");
+            }
+            query.append(word).append(":*");
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductFilter;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.util.ProductCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> active() {
+        return (root, query, cb) -> cb.isTrue(root.get("active"));
+    }
+
+    public static Specification<Product> matching(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (!filter.categories().isEmpty()) {
+                predicates.add(root.get("category").in(filter.categories()));
+            }
+            if (!filter.brands().isEmpty()) {
+                predicates.add(root.get("brand").in(filter.brands()));
+            }
+            if (filter.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.minPrice()));
+            }
+            if (filter.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.maxPrice()));
+            }
+            if (filter.inStockOnly()) {
+                predicates.add(cb.or(cb.isNull(root.get("stock")), cb.greaterThan(root.get("available"), 0)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Rows strictly after the cursor in the cursor's sort order. The leading bound on the sort
+     * column alone lets PostgreSQL range-scan the (column, id) index before the tie-break on id.
+     */
+    public static Specification<Product> after(ProductCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        ProductDto key = cursor.key();
+        return (root, query, cb) -> switch (cursor.sort()) {
+            case NAME -> ascendingAfter(cb, root.get("name"), root.get("id"), key.getName(), key.getId());
+            case PRICE -> ascendingAfter(cb, root.get("price"), root.get("id"), key.getPrice(), key.getId());
+            case NEWEST -> descendingAfter(cb, root.get("createdAt"), root.get("id"), key.getCreatedAt(), key.getId());
+            case RELEVANCE -> throw new IllegalArgumentException("Relevance order is only available for full-text search");
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate ascendingAfter(CriteriaBuilder cb, Path<T> column, Path<Long> id, T value, Long lastId) {
+        return cb.and(
+                cb.greaterThanOrEqualTo(column, value),
+                cb.or(cb.greaterThan(column, value), cb.greaterThan(id, lastId)));
+    }
+
+    private static <T extends Comparable<? super T>> Predicate descendingAfter(CriteriaBuilder cb, Path<T> column, Path<Long> id, T value, Long lastId) {
+        return cb.and(
+                cb.lessThanOrEqualTo(column, value),
+                cb.or(cb.lessThan(column, value), cb.lessThan(id, lastId)));
+    }
+}
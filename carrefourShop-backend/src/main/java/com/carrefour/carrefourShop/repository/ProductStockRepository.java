@@ -0,0 +1,94 @@
+package com.carrefour.carrefourShop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Conditional stock decrements for checkout. A row only changes when it still holds enough
+ * stock once other carts' reservations and units leased to hot-mode nodes are set aside, so
+ * concurrent checkouts can never take a product below zero, or into units held for someone
+ * else, whatever they read beforehand.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    private static final String DECREMENT = """
+            UPDATE products SET stock = stock - ?, reserved = reserved - ?, updated_at = LOCALTIMESTAMP
+            WHERE id = ? AND (stock IS NULL OR stock - reserved - leased + ? >= ?)""";
+
+    private static final String SELECT_FOR_UPDATE = """
+            SELECT id, active, stock - reserved - leased AS available FROM products
+            WHERE id = ANY (?) ORDER BY id FOR UPDATE""";
+
+    private static final String RELEASE_HELD = "UPDATE products SET reserved = reserved - ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the given units (by product id) off stock in one JDBC batch, settling the units
+     * the cart held in {@code held} against {@code products.reserved}. Rows are updated in id
+     * order so checkouts sharing products lock them in the same order. Products without a
+     * stock figure are unlimited and always pass. Returns the ids left untouched because their
+     * stock was too low.
+     */
+    public List<Long> decrementStock(SortedMap<Long, Integer> quantities, Map<Long, Integer> held) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT, lines, lines.size(), (ps, line) -> {
+            int reserved = held.getOrDefault(line.getKey(), 0);
+            ps.setInt(1, line.getValue());
+            ps.setInt(2, reserved);
+            ps.setLong(3, line.getKey());
+            ps.setInt(4, reserved);
+            ps.setInt(5, line.getValue());
+        })[0];
+
+        List<Long> shortIds = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                shortIds.add(lines.get(i).getKey());
+            }
+        }
+        return shortIds;
+    }
+
+    /**
+     * Locks the products' rows, in id order, until the transaction ends and returns what
+     * each can still sell: stock less reservations and leases, {@code null} when unlimited.
+     */
+    public Map<Long, StockLevel> lockStock(Collection<Long> productIds) {
+        Map<Long, StockLevel> levels = new HashMap<>();
+        jdbcTemplate.query(SELECT_FOR_UPDATE, rs -> {
+            levels.put(rs.getLong("id"), new StockLevel(rs.getBoolean("active"), (Integer) rs.getObject("available")));
+        }, (Object) productIds.toArray(Long[]::new));
+        return levels;
+    }
+
+    /**
+     * Gives units held for orders that were not placed back to available stock.
+     */
+    public void releaseHeld(Map<Long, Integer> held) {
+        if (held.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(held.entrySet());
+        jdbcTemplate.batchUpdate(RELEASE_HELD, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+        });
+    }
+
+    public record StockLevel(boolean active, Integer available) {
+    }
+}
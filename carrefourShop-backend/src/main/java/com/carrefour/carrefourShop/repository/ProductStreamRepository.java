@@ -0,0 +1,44 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads active products in keyset chunks of {@code catalog.stream.chunk-size} rows, in id
+ * order. Each chunk is one short query, so the connection goes back to the pool before the
+ * chunk is handed to the consumer and a slow client never holds a connection or a
+ * transaction open. A stream sees each row as of the chunk that read it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStreamRepository {
+
+    private static final String SELECT_ACTIVE =
+            "SELECT " + ProductRows.COLUMNS + " FROM products WHERE active AND id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${catalog.stream.chunk-size:500}")
+    private int chunkSize;
+
+    public void streamActive(String category, Consumer<ProductDto> consumer) {
+        String sql = SELECT_ACTIVE + (category != null ? " AND category = ?" : "") + " ORDER BY id LIMIT ?";
+        long lastId = 0;
+        List<ProductDto> chunk;
+        do {
+            chunk = category != null
+                    ? jdbcTemplate.query(sql, (rs, rowNum) -> ProductRows.toDto(rs), lastId, category, chunkSize)
+                    : jdbcTemplate.query(sql, (rs, rowNum) -> ProductRows.toDto(rs), lastId, chunkSize);
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == chunkSize);
+    }
+}
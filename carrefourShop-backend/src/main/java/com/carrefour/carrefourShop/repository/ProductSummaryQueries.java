@@ -0,0 +1,17 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
+import com.carrefour.carrefourShop.entity.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductSummaryQueries {
+
+    /**
+     * Summaries of the products matching {@code spec}, selected column by column into
+     * {@link ProductSummaryDto} so no entity enters the persistence context.
+     */
+    List<ProductSummaryDto> findSummaries(Specification<Product> spec, Sort sort, int limit);
+}
@@ -0,0 +1,33 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * Tokens revoked within the last {@code windowMillis} ms by the database clock, the one
+     * that stamps {@code revoked_at}, so nodes whose clocks drift still see every revocation.
+     */
+    @Query(value = "SELECT * FROM revoked_tokens WHERE revoked_at > LOCALTIMESTAMP - :windowMillis * INTERVAL '1 millisecond' " +
+                   "AND expires_at > :now", nativeQuery = true)
+    List<RevokedToken> findRevokedWithin(@Param("windowMillis") long windowMillis, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (:jti, :expiresAt, LOCALTIMESTAMP) " +
+                   "ON CONFLICT (jti) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,125 @@
+package com.carrefour.carrefourShop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reservation rows together with the {@code products.reserved} total they add up to. Every
+ * statement changes both at once, so the total never drifts from the rows it summarises.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockReservationRepository {
+
+    private static final String RESERVE = """
+            WITH held AS (
+                UPDATE products SET reserved = reserved + ?
+                WHERE id = ? AND active AND (stock IS NULL OR stock - reserved - leased >= ?)
+                RETURNING id)
+            INSERT INTO stock_reservations (cart_id, product_id, quantity, expires_at)
+            SELECT ?, id, ?, LOCALTIMESTAMP + ? * INTERVAL '1 millisecond' FROM held
+            ON CONFLICT (cart_id, product_id) DO UPDATE
+            SET quantity = stock_reservations.quantity + EXCLUDED.quantity, expires_at = EXCLUDED.expires_at
+            RETURNING quantity""";
+
+    private static final String RELEASE = """
+            WITH released AS (
+                DELETE FROM stock_reservations WHERE cart_id = ? %s
+                RETURNING product_id, quantity)
+            UPDATE products p SET reserved = p.reserved - r.quantity
+            FROM released r WHERE p.id = r.product_id
+            RETURNING p.id, r.quantity""";
+
+    private static final String RELEASE_PRODUCT = RELEASE.formatted("AND product_id = ?");
+    private static final String RELEASE_CART = RELEASE.formatted("");
+
+    private static final String TAKE_CART =
+            "DELETE FROM stock_reservations WHERE cart_id = ? RETURNING product_id, quantity";
+
+    private static final String RELEASE_EXPIRED = """
+            WITH expired AS (
+                DELETE FROM stock_reservations
+                WHERE id IN (SELECT id FROM stock_reservations WHERE expires_at < LOCALTIMESTAMP
+                             ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED)
+                RETURNING product_id, quantity),
+            released AS (
+                SELECT product_id, sum(quantity) AS quantity, count(*) AS reservations
+                FROM expired GROUP BY product_id)
+            UPDATE products p SET reserved = p.reserved - r.quantity
+            FROM released r WHERE p.id = r.product_id
+            RETURNING p.id, r.quantity, r.reservations""";
+
+    private static final String SELECT_RESERVED = "SELECT id, reserved FROM products WHERE reserved > 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Holds {@code quantity} more units of the product for the cart and pushes its expiry out
+     * by {@code ttlMillis}. Returns false, holding nothing, when fewer units are available.
+     */
+    public boolean reserve(Long cartId, Long productId, int quantity, long ttlMillis) {
+        return !jdbcTemplate.queryForList(RESERVE, Integer.class,
+                quantity, productId, quantity, cartId, quantity, ttlMillis).isEmpty();
+    }
+
+    /**
+     * Drops the cart's hold on the product. Returns the units released, 0 if there was none.
+     */
+    public int release(Long cartId, Long productId) {
+        return releasedQuantities(RELEASE_PRODUCT, cartId, productId).getOrDefault(productId, 0);
+    }
+
+    /**
+     * Drops every hold of the cart. Returns the units released by product id.
+     */
+    public Map<Long, Integer> releaseCart(Long cartId) {
+        return releasedQuantities(RELEASE_CART, cartId);
+    }
+
+    /**
+     * Removes the cart's reservations without touching {@code products.reserved}, for checkout
+     * to settle both in its stock update. Returns the units held by product id.
+     */
+    public Map<Long, Integer> takeCart(Long cartId) {
+        return releasedQuantities(TAKE_CART, cartId);
+    }
+
+    /**
+     * Releases up to {@code limit} expired reservations, skipping rows a cart is changing.
+     */
+    public ExpiredBatch releaseExpired(int limit) {
+        Map<Long, Integer> released = new HashMap<>();
+        int reservations = 0;
+        for (Map<String, Object> row : jdbcTemplate.queryForList(RELEASE_EXPIRED, limit)) {
+            released.put(((Number) row.get("id")).longValue(), ((Number) row.get("quantity")).intValue());
+            reservations += ((Number) row.get("reservations")).intValue();
+        }
+        return new ExpiredBatch(released, reservations);
+    }
+
+    public Map<Long, Integer> findReserved() {
+        Map<Long, Integer> reserved = new HashMap<>();
+        jdbcTemplate.query(SELECT_RESERVED, rs -> {
+            reserved.put(rs.getLong("id"), rs.getInt("reserved"));
+        });
+        return reserved;
+    }
+
+    private Map<Long, Integer> releasedQuantities(String sql, Object... args) {
+        Map<Long, Integer> released = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            released.put(rs.getLong(1), rs.getInt(2));
+        }, args);
+        return released;
+    }
+
+    /**
+     * Units released by product id, and how many reservations they came from.
+     */
+    public record ExpiredBatch(Map<Long, Integer> released, int reservations) {
+    }
+}
@@ -2,13 +2,39 @@ package com.carrefour.carrefourShop.repository;
 
 import com.carrefour.carrefourShop.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-}
 
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u")
+    List<TokenVersionView> findAllTokenVersions();
+
+    /**
+     * Token versions of users updated within the last {@code windowMillis} ms by the database
+     * clock, the one that stamps {@code updated_at} when a version is bumped.
+     */
+    @Query(value = "SELECT id AS id, token_version AS tokenVersion FROM users " +
+                   "WHERE updated_at > LOCALTIMESTAMP - :windowMillis * INTERVAL '1 millisecond'", nativeQuery = true)
+    List<TokenVersionView> findTokenVersionsUpdatedWithin(@Param("windowMillis") long windowMillis);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    interface TokenVersionView {
+        Long getId();
+        Integer getTokenVersion();
+    }
+}
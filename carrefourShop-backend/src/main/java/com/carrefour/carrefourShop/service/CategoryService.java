@@ -0,0 +1,9 @@
+package com.carrefour.carrefourShop.service;
+
+import com.carrefour.carrefourShop.dto.CategoryDto;
+
+import java.util.List;
+
+public interface CategoryService {
+    List<CategoryDto> getCategoryTree();
+}
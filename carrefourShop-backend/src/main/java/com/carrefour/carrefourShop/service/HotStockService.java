@@ -0,0 +1,18 @@
+package com.carrefour.carrefourShop.service;
+
+public interface HotStockService {
+
+    /**
+     * Whether checkouts of the product sell from this node's in-memory lease.
+     */
+    boolean isHot(Long productId);
+
+    /**
+     * Sells {@code quantity} units of a hot product from this node's lease, leasing another
+     * block when it runs dry. The sale is given back if the surrounding transaction rolls
+     * back. Returns false when the product has too little stock left.
+     */
+    boolean take(Long productId, int quantity);
+
+    void setHot(Long productId, boolean hot);
+}
@@ -0,0 +1,5 @@
+package com.carrefour.carrefourShop.service;
+
+public interface LoginAttemptService {
+    void checkAllowed(String clientIp, String email);
+}
@@ -0,0 +1,15 @@
+package com.carrefour.carrefourShop.service;
+
+public interface OrderProcessingService {
+
+    /**
+     * Whether checkouts are accepted with 202 and left to the order workers.
+     */
+    boolean isEnabled();
+
+    /**
+     * Claims up to one batch of due order jobs and takes their stock in shared statements,
+     * placing or rejecting each order. Returns the number of orders claimed.
+     */
+    int processBatch();
+}
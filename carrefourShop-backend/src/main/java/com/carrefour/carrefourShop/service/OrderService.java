@@ -7,6 +7,14 @@ import java.util.List;
 
 public interface OrderService {
     OrderDto createOrder(Long userId, CreateOrderRequest request);
+
+    /**
+     * Checks the cart and records it as an {@code ACCEPTED} order queued for the order
+     * workers, without touching stock. The order moves to {@code PENDING} or
+     * {@code REJECTED} once a worker has processed it.
+     */
+    OrderDto acceptOrder(Long userId, CreateOrderRequest request);
+
     List<OrderDto> getUserOrders(Long userId);
     OrderDto getOrderById(Long orderId, Long userId);
     OrderDto updateOrderStatus(Long orderId, String status);
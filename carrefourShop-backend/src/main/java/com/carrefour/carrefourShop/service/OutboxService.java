@@ -0,0 +1,10 @@
+package com.carrefour.carrefourShop.service;
+
+public interface OutboxService {
+
+    /**
+     * Writes an event to the outbox in the current transaction. It is dispatched once that
+     * transaction commits, and never if it rolls back. {@code payload} is stored as JSON.
+     */
+    void publish(String type, Long aggregateId, Object payload);
+}
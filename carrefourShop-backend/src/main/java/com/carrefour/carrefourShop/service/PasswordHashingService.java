@@ -0,0 +1,6 @@
+package com.carrefour.carrefourShop.service;
+
+public interface PasswordHashingService {
+    String encode(CharSequence rawPassword);
+    boolean matches(CharSequence rawPassword, String encodedPassword);
+}
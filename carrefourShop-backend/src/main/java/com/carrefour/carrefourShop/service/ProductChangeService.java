@@ -0,0 +1,7 @@
+package com.carrefour.carrefourShop.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface ProductChangeService {
+    SseEmitter subscribe(String lastEventId);
+}
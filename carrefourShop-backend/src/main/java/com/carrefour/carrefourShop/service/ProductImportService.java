@@ -0,0 +1,10 @@
+package com.carrefour.carrefourShop.service;
+
+import com.carrefour.carrefourShop.dto.ProductImportReportDto;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportReportDto importCsv(InputStream body);
+    ProductImportReportDto importNdjson(InputStream body);
+}
@@ -1,12 +1,20 @@
 package com.carrefour.carrefourShop.service;
 
+import com.carrefour.carrefourShop.cache.RenderedPage;
 import com.carrefour.carrefourShop.dto.ProductDto;
-import reactor.core.publisher.Flux;
+import com.carrefour.carrefourShop.dto.ProductLookupDto;
+import com.carrefour.carrefourShop.dto.ProductPageDto;
+import com.carrefour.carrefourShop.dto.ProductQuery;
+
+import java.io.OutputStream;
+import java.util.List;
 
 public interface ProductService {
-    Flux<ProductDto> getAllProducts();
-    Flux<ProductDto> getProductsByCategory(String category);
-    Flux<ProductDto> searchProducts(String keyword);
+    ProductPageDto getAllProducts(ProductQuery query);
+    ProductPageDto getProductsByCategory(String category, ProductQuery query);
+    RenderedPage getRenderedPage(String category, ProductQuery query);
+    ProductPageDto searchProducts(String keyword, ProductQuery query);
     ProductDto getProductById(Long id);
+    ProductLookupDto getProductsByIds(List<Long> ids);
+    void streamProducts(String category, OutputStream out);
 }
-
@@ -0,0 +1,33 @@
+package com.carrefour.carrefourShop.service;
+
+import java.util.Map;
+
+public interface StockReservationService {
+
+    /**
+     * Holds {@code quantity} more units of the product for the cart. Returns false, holding
+     * nothing, when fewer units are available.
+     */
+    boolean reserve(Long cartId, Long productId, int quantity);
+
+    /**
+     * Replaces the cart's hold on the product with {@code quantity} units; 0 releases it.
+     * Returns false when the new quantity is not available.
+     */
+    boolean replace(Long cartId, Long productId, int quantity);
+
+    void release(Long cartId, Long productId);
+
+    void releaseCart(Long cartId);
+
+    /**
+     * Ends every hold of the cart for checkout and returns the units held by product id. The
+     * caller settles them against {@code products.reserved} in its stock update.
+     */
+    Map<Long, Integer> takeForCheckout(Long cartId);
+
+    /**
+     * Stock not held by any cart, or {@code null} for a product without a stock figure.
+     */
+    Integer getAvailableStock(Long productId, Integer stock);
+}
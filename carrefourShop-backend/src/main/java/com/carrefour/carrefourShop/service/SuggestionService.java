@@ -0,0 +1,9 @@
+package com.carrefour.carrefourShop.service;
+
+import com.carrefour.carrefourShop.dto.SuggestionDto;
+
+import java.util.List;
+
+public interface SuggestionService {
+    List<SuggestionDto> suggest(String prefix, Integer limit);
+}
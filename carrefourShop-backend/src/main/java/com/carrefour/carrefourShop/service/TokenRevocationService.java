@@ -0,0 +1,8 @@
+package com.carrefour.carrefourShop.service;
+
+import java.util.Date;
+
+public interface TokenRevocationService {
+    boolean revoke(String jti, Date expiresAt);
+    boolean isRevoked(String jti);
+}
@@ -0,0 +1,7 @@
+package com.carrefour.carrefourShop.service;
+
+public interface TokenVersionService {
+    boolean isCurrent(Long userId, int tokenVersion);
+    void remember(Long userId, int tokenVersion);
+    int revokeAllTokens(Long userId);
+}
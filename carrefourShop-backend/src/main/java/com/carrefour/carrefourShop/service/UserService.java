@@ -9,6 +9,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 public interface UserService extends UserDetailsService {
     UserDto register(RegisterRequest request);
     AuthResponse authenticate(AuthRequest request);
+    AuthResponse refresh(String refreshToken);
+    void logout(String accessToken, String refreshToken);
     UserDto getCurrentUser(String email);
     com.carrefour.carrefourShop.entity.User getUserById(Long id);
 }
@@ -10,10 +10,14 @@ import com.carrefour.carrefourShop.exception.ExceptionConstants;
 import com.carrefour.carrefourShop.exception.ResourceNotFoundException;
 import com.carrefour.carrefourShop.mapper.CartMapper;
 import com.carrefour.carrefourShop.repository.CartItemRepository;
+import com.carrefour.carrefourShop.repository.CartLineRepository;
 import com.carrefour.carrefourShop.repository.CartRepository;
 import com.carrefour.carrefourShop.repository.ProductRepository;
 import com.carrefour.carrefourShop.repository.UserRepository;
 import com.carrefour.carrefourShop.service.CartService;
+import com.carrefour.carrefourShop.service.HotStockService;
+import com.carrefour.carrefourShop.service.StockReservationService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,9 +32,13 @@ public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final CartLineRepository cartLineRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final StockReservationService stockReservationService;
+    private final HotStockService hotStockService;
     private final CartMapper cartMapper;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
@@ -56,32 +64,33 @@ public class CartServiceImpl implements CartService {
             throw new BusinessException(ExceptionConstants.PRODUCT_NOT_AVAILABLE, ExceptionConstants.getMessage(ExceptionConstants.PRODUCT_NOT_AVAILABLE));
         }
 
-        if (product.getStock() != null && product.getStock() < request.getQuantity()) {
+        Integer available = stockReservationService.getAvailableStock(product.getId(), product.getStock());
+        if (available != null && available < request.getQuantity()) {
             throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK));
         }
 
-        CartItem existingItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), request.getProductId())
-                .orElse(null);
-
-        if (existingItem != null) {
-            int newQuantity = existingItem.getQuantity() + request.getQuantity();
-            if (product.getStock() != null && product.getStock() < newQuantity) {
-                throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK));
-            }
-            existingItem.setQuantity(newQuantity);
-            cartItemRepository.save(existingItem);
-        } else {
-            CartItem newItem = CartItem.builder()
-                    .cart(cart)
-                    .product(product)
-                    .quantity(request.getQuantity())
-                    .build();
-            cartItemRepository.save(newItem);
-            cart.getItems().add(newItem);
+        // Hot products are not held per cart: their stock goes to whoever checks out first.
+        if (!hotStockService.isHot(product.getId())
+                && !stockReservationService.reserve(cart.getId(), product.getId(), request.getQuantity())) {
+            throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK));
         }
+        CartLineRepository.CartLine line = cartLineRepository.add(cart.getId(), product.getId(), request.getQuantity())
+                .orElseThrow(() -> new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK)));
+
+        // The line is already written; detach the cart so its copy can be brought in line
+        // with the row without Hibernate flushing it back.
+        entityManager.detach(cart);
+        cart.getItems().stream()
+                .filter(cartItem -> cartItem.getId().equals(line.id()))
+                .findFirst()
+                .ifPresentOrElse(cartItem -> cartItem.setQuantity(line.quantity()),
+                        () -> cart.getItems().add(CartItem.builder()
+                                .id(line.id())
+                                .cart(cart)
+                                .product(product)
+                                .quantity(line.quantity())
+                                .build()));
 
-        cartRepository.flush();
-        cart = cartRepository.findByUserId(userId).orElse(cart);
         return cartMapper.toDto(cart);
     }
 
@@ -91,26 +100,23 @@ public class CartServiceImpl implements CartService {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.CART_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.CART_NOT_FOUND)));
 
-        CartItem item = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.CART_ITEM_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.CART_ITEM_NOT_FOUND)));
-
-        if (!item.getCart().getId().equals(cart.getId())) {
-            throw new BusinessException(ExceptionConstants.CART_ITEM_DOES_NOT_BELONG, ExceptionConstants.getMessage(ExceptionConstants.CART_ITEM_DOES_NOT_BELONG));
-        }
+        CartItem item = findItem(cart, itemId);
 
+        Product product = item.getProduct();
         if (quantity <= 0) {
-            cartItemRepository.delete(item);
+            stockReservationService.release(cart.getId(), product.getId());
+            cart.getItems().remove(item);
         } else {
-            Product product = item.getProduct();
             if (product.getStock() != null && product.getStock() < quantity) {
                 throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK));
             }
+            if (!hotStockService.isHot(product.getId())
+                    && !stockReservationService.replace(cart.getId(), product.getId(), quantity)) {
+                throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK));
+            }
             item.setQuantity(quantity);
-            cartItemRepository.save(item);
         }
 
-        cartRepository.flush();
-        cart = cartRepository.findByUserId(userId).orElse(cart);
         return cartMapper.toDto(cart);
     }
 
@@ -125,9 +131,8 @@ public class CartServiceImpl implements CartService {
                 .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.CART_ITEM_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.CART_ITEM_NOT_FOUND)));
 
+        stockReservationService.release(cart.getId(), item.getProduct().getId());
         cart.getItems().remove(item);
-        cartRepository.save(cart);
-        cart = cartRepository.findByUserId(userId).orElse(cart);
         return cartMapper.toDto(cart);
     }
 
@@ -136,13 +141,27 @@ public class CartServiceImpl implements CartService {
     public void clearCart(Long userId) {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.CART_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.CART_NOT_FOUND)));
+        stockReservationService.releaseCart(cart.getId());
         cartItemRepository.deleteByCartId(cart.getId());
     }
 
+    /**
+     * Looks the item up in the cart that is already loaded. Only when it is missing is the
+     * item table queried, to tell an unknown item from one that belongs to another cart.
+     */
+    private CartItem findItem(Cart cart, Long itemId) {
+        return cart.getItems().stream()
+                .filter(cartItem -> cartItem.getId().equals(itemId))
+                .findFirst()
+                .orElseThrow(() -> cartItemRepository.existsById(itemId)
+                        ? new BusinessException(ExceptionConstants.CART_ITEM_DOES_NOT_BELONG, ExceptionConstants.getMessage(ExceptionConstants.CART_ITEM_DOES_NOT_BELONG))
+                        : new ResourceNotFoundException(ExceptionConstants.CART_ITEM_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.CART_ITEM_NOT_FOUND)));
+    }
+
     private Cart createCartForUser(Long userId) {
         com.carrefour.carrefourShop.entity.User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.USER_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.USER_NOT_FOUND)));
-        return cartRepository.save(Cart.builder()
+        return cartRepository.saveAndFlush(Cart.builder()
                 .user(user)
                 .items(new ArrayList<>())
                 .build());
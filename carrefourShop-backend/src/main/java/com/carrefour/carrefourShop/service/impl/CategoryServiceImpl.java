@@ -0,0 +1,132 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.cache.CatalogChangedEvent;
+import com.carrefour.carrefourShop.cache.CatalogSnapshot;
+import com.carrefour.carrefourShop.cache.CategoryTree;
+import com.carrefour.carrefourShop.dto.CategoryDto;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.entity.Category;
+import com.carrefour.carrefourShop.repository.CategoryRepository;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.service.CategoryService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Category navigation served from an in-memory {@link CategoryTree}. With the catalog cache
+ * enabled, counts come from the snapshot's per-category lists and are reapplied on every
+ * catalog change; the category nodes are only reloaded when a product uses a path the tree
+ * does not know yet. Without the cache the tree follows the periodic refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryServiceImpl implements CategoryService {
+
+    private static final long NO_SNAPSHOT = -1;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Object updateLock = new Object();
+    private volatile CategoryTree tree;
+
+    private TransactionTemplate readTransaction;
+
+    @PostConstruct
+    void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public List<CategoryDto> getCategoryTree() {
+        CategoryTree current = tree;
+        if (current == null) {
+            current = reload();
+        }
+        return current.getRoots();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        CatalogSnapshot snapshot = event.snapshot();
+        Map<String, Long> counts = counts(snapshot);
+        CategoryTree current = tree;
+        if (current != null && current.containsAll(counts.keySet())) {
+            swap(current.withCounts(snapshot.getVersion(), counts));
+        } else {
+            swap(CategoryTree.build(snapshot.getVersion(), loadNodes(), counts));
+        }
+    }
+
+    /**
+     * Picks up categories created outside this node and, with the catalog cache disabled,
+     * refreshes the counts.
+     */
+    @Scheduled(fixedDelayString = "${catalog.categories.refresh-interval:600000}", initialDelayString = "${catalog.categories.refresh-interval:600000}")
+    public void scheduledRefresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Category tree refresh failed, keeping the previous tree", e);
+        }
+    }
+
+    /**
+     * Full reload. The snapshot is read before taking the update lock: loading it may publish a
+     * {@link CatalogChangedEvent} from the cache's refresher thread, whose listener needs the lock.
+     */
+    private CategoryTree reload() {
+        CategoryTree reloaded;
+        if (catalogCache.isEnabled()) {
+            CatalogSnapshot snapshot = catalogCache.snapshot();
+            reloaded = CategoryTree.build(snapshot.getVersion(), loadNodes(), counts(snapshot));
+        } else {
+            Map<String, Long> counts = new HashMap<>();
+            readTransaction.executeWithoutResult(status -> productRepository.countActiveByCategory()
+                    .forEach(count -> counts.put(count.getCategory(), count.getProducts())));
+            reloaded = CategoryTree.build(NO_SNAPSHOT, loadNodes(), counts);
+        }
+        return swap(reloaded);
+    }
+
+    /**
+     * Installs {@code candidate} unless a tree for a newer snapshot is already in place.
+     */
+    private CategoryTree swap(CategoryTree candidate) {
+        synchronized (updateLock) {
+            CategoryTree current = tree;
+            if (current == null || candidate.getSnapshotVersion() >= current.getSnapshotVersion()) {
+                tree = candidate;
+                return candidate;
+            }
+            return current;
+        }
+    }
+
+    private List<Category> loadNodes() {
+        return readTransaction.execute(status -> categoryRepository.findAll());
+    }
+
+    private static Map<String, Long> counts(CatalogSnapshot snapshot) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, List<ProductDto>> entry : snapshot.getProductsByCategory().entrySet()) {
+            counts.put(entry.getKey(), (long) entry.getValue().size());
+        }
+        return counts;
+    }
+}
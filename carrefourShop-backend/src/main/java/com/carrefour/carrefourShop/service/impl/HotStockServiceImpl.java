@@ -0,0 +1,241 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.exception.ResourceNotFoundException;
+import com.carrefour.carrefourShop.repository.HotStockRepository;
+import com.carrefour.carrefourShop.service.HotStockService;
+import com.carrefour.carrefourShop.util.StripedCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Checkout stock for hot products, sold from memory. This node leases blocks of
+ * {@code catalog.hot-stock.block-size} units from the product row and spreads them over
+ * {@code catalog.hot-stock.stripes} lock-free counters, so checkouts of a flash-sale product
+ * no longer queue on its row lock; only the checkout that the counters cannot cover touches
+ * the row, to lease the next block.
+ *
+ * <p>Every {@code catalog.hot-stock.settle-interval} ms the units sold are written off stock
+ * in one batch, and units are handed back for products that are no longer hot or sold
+ * nothing since the last run. Everything left is settled at shutdown. Units leased by a node
+ * that dies without shutting down stay set aside until {@code products.leased} is corrected.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HotStockServiceImpl implements HotStockService {
+
+    private final HotStockRepository hotStockRepository;
+    private final CatalogCache catalogCache;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${catalog.hot-stock.stripes:8}")
+    private int stripes;
+
+    @Value("${catalog.hot-stock.block-size:50}")
+    private int blockSize;
+
+    private final Map<Long, Shard> shards = new ConcurrentHashMap<>();
+
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+    private Counter leases;
+
+    @PostConstruct
+    void init() {
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+
+        leases = Counter.builder("catalog.hot-stock.leases")
+                .description("Blocks of hot-product stock leased by this node")
+                .register(meterRegistry);
+        Gauge.builder("catalog.hot-stock.units", this, service -> service.shards.values().stream().mapToLong(shard -> shard.available.sum()).sum())
+                .description("Leased hot-product units this node has not sold yet")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isHot(Long productId) {
+        Shard shard = shards.get(productId);
+        return shard != null && shard.hot;
+    }
+
+    @Override
+    public boolean take(Long productId, int quantity) {
+        Shard shard = shards.get(productId);
+        if (shard == null) {
+            return false;
+        }
+        if (shard.available.tryTake(quantity)) {
+            shard.sold.add(quantity);
+            onCompletion(committed -> {
+                if (!committed) {
+                    shard.available.add(quantity);
+                    shard.sold.add(-quantity);
+                }
+            });
+            return true;
+        }
+
+        // The lease belongs to the checkout's transaction, so the counters only get the new
+        // units once it commits and a rollback hands the whole block back to the row. When the
+        // row has fewer left than the checkout needs, units still on the counters make up the
+        // difference.
+        int granted = hotStockRepository.lease(productId, Math.max(blockSize, quantity));
+        if (granted > 0) {
+            leases.increment();
+        }
+        int fromCounters = Math.max(quantity - granted, 0);
+        if (fromCounters > 0 && !shard.available.tryTake(fromCounters)) {
+            onCompletion(committed -> {
+                if (committed) {
+                    shard.available.add(granted);
+                }
+            });
+            return false;
+        }
+        shard.sold.add(quantity);
+        onCompletion(committed -> {
+            if (committed) {
+                shard.available.add(granted - quantity + fromCounters);
+            } else {
+                shard.sold.add(-quantity);
+                shard.available.add(fromCounters);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void setHot(Long productId, boolean hot) {
+        if (!hotStockRepository.setHot(productId, hot)) {
+            throw new ResourceNotFoundException(ExceptionConstants.PRODUCT_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.PRODUCT_NOT_FOUND));
+        }
+        if (hot) {
+            shards.computeIfAbsent(productId, id -> new Shard(stripes)).hot = true;
+        } else {
+            Shard shard = shards.get(productId);
+            if (shard != null) {
+                shard.hot = false;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshHot();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.hot-stock.settle-interval:5000}", initialDelayString = "${catalog.hot-stock.settle-interval:5000}")
+    public void settle() {
+        try {
+            refreshHot();
+            settle(false);
+        } catch (RuntimeException e) {
+            log.error("Hot stock settlement failed, sales stay pending until the next run", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            settle(true);
+        } catch (RuntimeException e) {
+            log.error("Hot stock settlement at shutdown failed, leased units stay set aside", e);
+        }
+    }
+
+    /**
+     * Picks up products flagged or unflagged on other nodes.
+     */
+    private void refreshHot() {
+        Set<Long> hotIds = readTransaction.execute(status -> hotStockRepository.findHotIds());
+        hotIds.forEach(productId -> shards.computeIfAbsent(productId, id -> new Shard(stripes)));
+        shards.forEach((productId, shard) -> shard.hot = hotIds.contains(productId));
+    }
+
+    private void settle(boolean returnAll) {
+        List<HotStockRepository.Settlement> settlements = new ArrayList<>();
+        List<Long> sold = new ArrayList<>();
+        shards.forEach((productId, shard) -> {
+            long units = shard.sold.sumThenReset();
+            long returned = returnAll || !shard.hot || units == 0 ? shard.available.drain() : 0;
+            if (units != 0 || returned != 0) {
+                settlements.add(new HotStockRepository.Settlement(productId, units, returned));
+            }
+            if (units != 0) {
+                sold.add(productId);
+            }
+        });
+        if (settlements.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                hotStockRepository.settle(settlements);
+                catalogCache.invalidate(sold);
+            });
+        } catch (RuntimeException e) {
+            settlements.forEach(settlement -> {
+                Shard shard = shards.get(settlement.productId());
+                shard.sold.add(settlement.sold());
+                shard.available.add(settlement.returned());
+            });
+            throw e;
+        }
+    }
+
+    private static void onCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+
+    /**
+     * This node's lease on one product: units not sold yet, and units sold since the last
+     * settlement.
+     */
+    private static final class Shard {
+
+        private final StripedCounter available;
+        private final LongAdder sold = new LongAdder();
+        private volatile boolean hot = true;
+
+        private Shard(int stripes) {
+            this.available = new StripedCounter(stripes);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.exception.TooManyRequestsException;
+import com.carrefour.carrefourShop.service.LoginAttemptService;
+import com.carrefour.carrefourShop.util.SlidingWindowRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * Per-IP and per-email sliding-window limits checked before any password hashing starts.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoginAttemptServiceImpl implements LoginAttemptService {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.login.ip.max-attempts:30}")
+    private int ipMaxAttempts;
+
+    @Value("${security.login.ip.window:60000}")
+    private long ipWindow;
+
+    @Value("${security.login.email.max-attempts:10}")
+    private int emailMaxAttempts;
+
+    @Value("${security.login.email.window:60000}")
+    private long emailWindow;
+
+    private SlidingWindowRateLimiter ipLimiter;
+    private SlidingWindowRateLimiter emailLimiter;
+    private Counter ipRejected;
+    private Counter emailRejected;
+
+    @PostConstruct
+    void init() {
+        ipLimiter = new SlidingWindowRateLimiter(ipMaxAttempts, ipWindow);
+        emailLimiter = new SlidingWindowRateLimiter(emailMaxAttempts, emailWindow);
+        ipRejected = Counter.builder("login.attempts.rejected")
+                .tag("limit", "ip")
+                .register(meterRegistry);
+        emailRejected = Counter.builder("login.attempts.rejected")
+                .tag("limit", "email")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void checkAllowed(String clientIp, String email) {
+        long now = System.currentTimeMillis();
+        if (clientIp != null && !ipLimiter.tryAcquire(clientIp, now)) {
+            ipRejected.increment();
+            throw tooManyAttempts();
+        }
+        if (email != null && !emailLimiter.tryAcquire(email.toLowerCase(Locale.ROOT), now)) {
+            emailRejected.increment();
+            throw tooManyAttempts();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.login.eviction-interval:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        ipLimiter.evictIdle(now);
+        emailLimiter.evictIdle(now);
+    }
+
+    private TooManyRequestsException tooManyAttempts() {
+        return new TooManyRequestsException(ExceptionConstants.TOO_MANY_LOGIN_ATTEMPTS, ExceptionConstants.getMessage(ExceptionConstants.TOO_MANY_LOGIN_ATTEMPTS));
+    }
+}
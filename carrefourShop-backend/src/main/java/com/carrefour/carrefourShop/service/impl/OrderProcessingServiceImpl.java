@@ -0,0 +1,339 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.entity.Order;
+import com.carrefour.carrefourShop.entity.OrderItem;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.outbox.OutboxEvent;
+import com.carrefour.carrefourShop.repository.OrderJobRepository;
+import com.carrefour.carrefourShop.repository.OrderRepository;
+import com.carrefour.carrefourShop.repository.ProductStockRepository;
+import com.carrefour.carrefourShop.service.OrderProcessingService;
+import com.carrefour.carrefourShop.service.OutboxService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Workers behind asynchronous order intake. Each of the {@code catalog.orders.async.workers}
+ * threads claims up to {@code catalog.orders.async.batch-size} due jobs at a time and handles
+ * them in one transaction: the product rows are locked once, in id order, the orders are
+ * admitted oldest first against what those rows can still sell, and the stock of every placed
+ * order goes out in one shared decrement per product. Holds of rejected orders are released
+ * in the same transaction.
+ *
+ * <p>Hot products are taken from their row like any other here: a batch already takes each
+ * row once, which is what hot mode buys the synchronous checkout.
+ *
+ * <p>A batch that fails is retried one order per transaction, so one bad order cannot hold
+ * back the others; an order that still fails is retried after
+ * {@code catalog.orders.async.retry-delay} ms times its attempts. After
+ * {@code catalog.orders.async.max-attempts} failures it is rejected and its hold released.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderProcessingServiceImpl implements OrderProcessingService {
+
+    private final OrderJobRepository orderJobRepository;
+    private final OrderRepository orderRepository;
+    private final ProductStockRepository productStockRepository;
+    private final OutboxService outboxService;
+    private final CatalogCache catalogCache;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${catalog.orders.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${catalog.orders.async.workers:2}")
+    private int workers;
+
+    @Value("${catalog.orders.async.batch-size:50}")
+    private int batchSize;
+
+    @Value("${catalog.orders.async.poll-interval:200}")
+    private long pollInterval;
+
+    @Value("${catalog.orders.async.retry-delay:5000}")
+    private long retryDelay;
+
+    @Value("${catalog.orders.async.max-attempts:5}")
+    private int maxAttempts;
+
+    private volatile boolean running;
+    private ExecutorService executor;
+    private TransactionTemplate writeTransaction;
+    private Timer batches;
+    private Counter placed;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        writeTransaction = new TransactionTemplate(transactionManager);
+
+        batches = Timer.builder("catalog.orders.batch")
+                .description("Time to process one batch of accepted orders")
+                .register(meterRegistry);
+        placed = Counter.builder("catalog.orders.processed")
+                .tag("result", "placed")
+                .description("Accepted orders processed by the order workers")
+                .register(meterRegistry);
+        rejected = Counter.builder("catalog.orders.processed")
+                .tag("result", "rejected")
+                .description("Accepted orders processed by the order workers")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        AtomicInteger sequence = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "order-worker-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public int processBatch() {
+        List<Long> claimed = new ArrayList<>();
+        try {
+            count(batches.record(() -> writeTransaction.execute(status -> {
+                claimed.addAll(orderJobRepository.claim(batchSize));
+                return process(claimed);
+            })));
+            return claimed.size();
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            if (claimed.size() == 1) {
+                retryLater(claimed.get(0), e);
+            } else {
+                log.warn("Batch of {} orders failed, processing them one by one", claimed.size(), e);
+                claimed.forEach(this::processAlone);
+            }
+            return claimed.size();
+        }
+    }
+
+    private void work() {
+        while (running) {
+            int claimed;
+            try {
+                claimed = processBatch();
+            } catch (RuntimeException e) {
+                log.error("Order worker failed to claim a batch", e);
+                claimed = 0;
+            }
+            if (claimed < batchSize) {
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void processAlone(Long orderId) {
+        try {
+            count(writeTransaction.execute(status ->
+                    orderJobRepository.claim(orderId) ? process(List.of(orderId)) : new Processed(0, 0)));
+        } catch (RuntimeException e) {
+            retryLater(orderId, e);
+        }
+    }
+
+    private void retryLater(Long orderId, RuntimeException cause) {
+        log.error("Processing order {} failed", orderId, cause);
+        int attempts;
+        try {
+            attempts = writeTransaction.execute(status -> orderJobRepository.retryLater(orderId, retryDelay));
+        } catch (RuntimeException e) {
+            log.error("Could not reschedule order {}", orderId, e);
+            return;
+        }
+        if (attempts < maxAttempts) {
+            return;
+        }
+        log.warn("Order {} failed {} times, rejecting it", orderId, attempts);
+        try {
+            count(writeTransaction.execute(status -> giveUp(orderId)));
+        } catch (RuntimeException e) {
+            log.error("Could not reject order {}, retrying later", orderId, e);
+        }
+    }
+
+    /**
+     * Rejects an order that kept failing and releases its hold, the way admission rejects an
+     * order it cannot place.
+     */
+    private Processed giveUp(Long orderId) {
+        if (!orderJobRepository.claim(orderId)) {
+            return new Processed(0, 0);
+        }
+        orderJobRepository.delete(List.of(orderId));
+        List<Order> orders = orderRepository.findByIdInOrderById(List.of(orderId));
+        if (orders.isEmpty() || orders.get(0).getStatus() != Order.OrderStatus.ACCEPTED) {
+            return new Processed(0, 0);
+        }
+        Order order = orders.get(0);
+        Map<Long, Integer> released = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            if (item.getHeld() > 0) {
+                released.merge(item.getProduct().getId(), item.getHeld(), Integer::sum);
+            }
+        }
+        reject(order, ExceptionConstants.getMessage(ExceptionConstants.ORDER_PROCESSING_FAILED));
+        productStockRepository.releaseHeld(released);
+        return new Processed(0, 1);
+    }
+
+    private void reject(Order order, String reason) {
+        order.setStatus(Order.OrderStatus.REJECTED);
+        order.setStatusReason(reason);
+        Map<String, Object> payload = new HashMap<>(OrderServiceImpl.summary(order));
+        payload.put("reason", reason);
+        outboxService.publish(OutboxEvent.ORDER_REJECTED, order.getId(), payload);
+    }
+
+    private void count(Processed processed) {
+        placed.increment(processed.placed());
+        rejected.increment(processed.rejected());
+    }
+
+    private Processed process(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new Processed(0, 0);
+        }
+        List<Order> orders = orderRepository.findByIdInOrderById(orderIds);
+        Set<Long> productIds = orders.stream()
+                .flatMap(order -> order.getItems().stream())
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet());
+        Map<Long, ProductStockRepository.StockLevel> levels = productStockRepository.lockStock(productIds);
+
+        Map<Long, Integer> available = new HashMap<>();
+        levels.forEach((productId, level) -> {
+            if (level.available() != null) {
+                available.put(productId, level.available());
+            }
+        });
+        SortedMap<Long, Integer> taken = new TreeMap<>();
+        Map<Long, Integer> settled = new HashMap<>();
+        Map<Long, Integer> released = new HashMap<>();
+        int placedOrders = 0;
+        int rejectedOrders = 0;
+
+        for (Order order : orders) {
+            if (order.getStatus() != Order.OrderStatus.ACCEPTED) {
+                continue;
+            }
+            String reason = refusal(order, levels, available);
+            for (OrderItem item : order.getItems()) {
+                Long productId = item.getProduct().getId();
+                int units = reason == null ? item.getHeld() - item.getQuantity() : item.getHeld();
+                available.computeIfPresent(productId, (id, free) -> free + units);
+                if (reason == null) {
+                    taken.merge(productId, item.getQuantity(), Integer::sum);
+                    settled.merge(productId, item.getHeld(), Integer::sum);
+                } else if (item.getHeld() > 0) {
+                    released.merge(productId, item.getHeld(), Integer::sum);
+                }
+            }
+            if (reason == null) {
+                order.setStatus(Order.OrderStatus.PENDING);
+                outboxService.publish(OutboxEvent.ORDER_PLACED, order.getId(), OrderServiceImpl.summary(order));
+                placedOrders++;
+            } else {
+                reject(order, reason);
+                rejectedOrders++;
+            }
+        }
+
+        // The rows are locked, so the guarded decrement can only come up short if they were
+        // changed without going through the guards; better to fail the batch than oversell.
+        List<Long> shortIds = productStockRepository.decrementStock(taken, settled);
+        if (!shortIds.isEmpty()) {
+            throw new IllegalStateException("Stock of products " + shortIds + " changed while locked");
+        }
+        productStockRepository.releaseHeld(released);
+        orderJobRepository.delete(orderIds);
+        List<Long> stockChanged = taken.keySet().stream().filter(available::containsKey).toList();
+        if (!stockChanged.isEmpty()) {
+            outboxService.publish(OutboxEvent.STOCK_CHANGED, null, Map.of("productIds", stockChanged));
+        }
+        catalogCache.invalidate(stockChanged);
+        return new Processed(placedOrders, rejectedOrders);
+    }
+
+    /**
+     * Why the order cannot be placed against the stock left by the orders before it in the
+     * batch, or {@code null} when it can.
+     */
+    private static String refusal(Order order, Map<Long, ProductStockRepository.StockLevel> levels, Map<Long, Integer> available) {
+        for (OrderItem item : order.getItems()) {
+            Product product = item.getProduct();
+            ProductStockRepository.StockLevel level = levels.get(product.getId());
+            if (level == null || !level.active()) {
+                return ExceptionConstants.getMessage(ExceptionConstants.PRODUCT_NO_LONGER_AVAILABLE, product.getName());
+            }
+            Integer free = available.get(product.getId());
+            if (free != null && free + item.getHeld() < item.getQuantity()) {
+                return ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, product.getName());
+            }
+        }
+        return null;
+    }
+
+    private record Processed(int placed, int rejected) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.carrefour.carrefourShop.service.impl;
 
+import com.carrefour.carrefourShop.cache.CatalogCache;
 import com.carrefour.carrefourShop.dto.CreateOrderRequest;
 import com.carrefour.carrefourShop.dto.OrderDto;
 import com.carrefour.carrefourShop.entity.*;
@@ -7,8 +8,12 @@ import com.carrefour.carrefourShop.exception.BusinessException;
 import com.carrefour.carrefourShop.exception.ExceptionConstants;
 import com.carrefour.carrefourShop.exception.ResourceNotFoundException;
 import com.carrefour.carrefourShop.mapper.OrderMapper;
+import com.carrefour.carrefourShop.outbox.OutboxEvent;
 import com.carrefour.carrefourShop.repository.*;
+import com.carrefour.carrefourShop.service.HotStockService;
 import com.carrefour.carrefourShop.service.OrderService;
+import com.carrefour.carrefourShop.service.OutboxService;
+import com.carrefour.carrefourShop.service.StockReservationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +21,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,79 +34,93 @@ public class OrderServiceImpl implements OrderService {
     private final OrderItemRepository orderItemRepository;
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
+    private final ProductStockRepository productStockRepository;
+    private final OrderJobRepository orderJobRepository;
     private final UserRepository userRepository;
+    private final StockReservationService stockReservationService;
+    private final HotStockService hotStockService;
     private final OrderMapper orderMapper;
+    private final OutboxService outboxService;
+    private final CatalogCache catalogCache;
 
     @Override
     @Transactional
     public OrderDto createOrder(Long userId, CreateOrderRequest request) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.CART_IS_EMPTY, ExceptionConstants.getMessage(ExceptionConstants.CART_IS_EMPTY)));
-
-        if (cart.getItems().isEmpty()) {
-            throw new BusinessException(ExceptionConstants.CANNOT_CREATE_ORDER_WITH_EMPTY_CART, ExceptionConstants.getMessage(ExceptionConstants.CANNOT_CREATE_ORDER_WITH_EMPTY_CART));
-        }
-
-        User user = User.builder().id(userId).build();
-        Order order = Order.builder()
-                .user(user)
-                .status(Order.OrderStatus.PENDING)
-                .shippingAddress(request.getShippingAddress())
-                .billingAddress(request.getBillingAddress() != null ? request.getBillingAddress() : request.getShippingAddress())
-                .phone(request.getPhone())
-                .email(request.getEmail())
-                .items(new ArrayList<>())
-                .build();
+        Cart cart = findCartToOrder(userId);
+        Order order = newOrder(userId, request, Order.OrderStatus.PENDING);
 
         BigDecimal totalPrice = BigDecimal.ZERO;
+        List<Long> stockChanged = new ArrayList<>();
+        SortedMap<Long, Integer> stockTaken = new TreeMap<>();
+        Map<Long, Integer> held = stockReservationService.takeForCheckout(cart.getId());
 
         for (CartItem cartItem : cart.getItems()) {
             Product product = cartItem.getProduct();
+            OrderItem orderItem = toOrderItem(order, cartItem);
+            order.getItems().add(orderItem);
+            totalPrice = totalPrice.add(orderItem.getTotalPrice());
 
-            if (!product.getActive()) {
-                throw new BusinessException(ExceptionConstants.PRODUCT_NO_LONGER_AVAILABLE, ExceptionConstants.getMessage(ExceptionConstants.PRODUCT_NO_LONGER_AVAILABLE, product.getName()));
+            // Hot products sell from this node's lease unless the cart held units before the
+            // product turned hot; those are settled against the row like any other hold.
+            if (product.getStock() != null && hotStockService.isHot(product.getId()) && !held.containsKey(product.getId())) {
+                if (!hotStockService.take(product.getId(), cartItem.getQuantity())) {
+                    throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, product.getName()));
+                }
+                continue;
             }
 
-            if (product.getStock() != null && product.getStock() < cartItem.getQuantity()) {
-                throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, product.getName()));
+            stockTaken.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
+            if (product.getStock() != null) {
+                stockChanged.add(product.getId());
             }
+        }
 
-            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
+        List<Long> shortIds = productStockRepository.decrementStock(stockTaken, held);
+        if (!shortIds.isEmpty()) {
+            String name = cart.getItems().stream()
+                    .map(CartItem::getProduct)
+                    .filter(product -> product.getId().equals(shortIds.get(0)))
+                    .map(Product::getName)
+                    .findFirst()
+                    .orElse(null);
+            throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, name));
+        }
 
-            OrderItem orderItem = OrderItem.builder()
-                    .order(order)
-                    .product(product)
-                    .quantity(cartItem.getQuantity())
-                    .unitPrice(product.getPrice())
-                    .totalPrice(itemTotal)
-                    .build();
+        order.setTotalPrice(totalPrice);
+        order = orderRepository.save(order);
+        outboxService.publish(OutboxEvent.ORDER_PLACED, order.getId(), summary(order));
+        if (!stockChanged.isEmpty()) {
+            outboxService.publish(OutboxEvent.STOCK_CHANGED, order.getId(), Map.of("productIds", stockChanged));
+        }
+        catalogCache.invalidate(stockChanged);
 
-            order.getItems().add(orderItem);
-            totalPrice = totalPrice.add(itemTotal);
+        closeCart(cart, userId);
 
-            if (product.getStock() != null) {
-                product.setStock(product.getStock() - cartItem.getQuantity());
-                productRepository.save(product);
-            }
+        return orderMapper.toDto(order);
+    }
+
+    @Override
+    @Transactional
+    public OrderDto acceptOrder(Long userId, CreateOrderRequest request) {
+        Cart cart = findCartToOrder(userId);
+        Order order = newOrder(userId, request, Order.OrderStatus.ACCEPTED);
+
+        // The holds leave the cart with the order and stay counted in products.reserved until
+        // a worker settles or releases them.
+        Map<Long, Integer> held = stockReservationService.takeForCheckout(cart.getId());
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (CartItem cartItem : cart.getItems()) {
+            OrderItem orderItem = toOrderItem(order, cartItem);
+            orderItem.setHeld(held.getOrDefault(cartItem.getProduct().getId(), 0));
+            order.getItems().add(orderItem);
+            totalPrice = totalPrice.add(orderItem.getTotalPrice());
         }
 
         order.setTotalPrice(totalPrice);
-        order = orderRepository.save(order);
-
-        cartItemRepository.deleteByCartId(cart.getId());
-        
-        cart = cartRepository.findById(cart.getId())
-                .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.CART_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.CART_NOT_FOUND)));
-        
-        cart.getItems().clear();
-        
-        User userEntity = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.USER_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.USER_NOT_FOUND)));
-        userEntity.setCart(null);
-        userRepository.save(userEntity);
-        
-        cartRepository.delete(cart);
+        order = orderRepository.saveAndFlush(order);
+        orderJobRepository.enqueue(order.getId());
+        outboxService.publish(OutboxEvent.ORDER_ACCEPTED, order.getId(), summary(order));
+        closeCart(cart, userId);
 
         return orderMapper.toDto(order);
     }
@@ -128,13 +150,116 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.ORDER_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.ORDER_NOT_FOUND)));
 
+        Order.OrderStatus previous = order.getStatus();
+        Order.OrderStatus next;
         try {
-            order.setStatus(Order.OrderStatus.valueOf(status.toUpperCase()));
-            order = orderRepository.save(order);
-            return orderMapper.toDto(order);
+            next = Order.OrderStatus.valueOf(status.toUpperCase());
         } catch (IllegalArgumentException e) {
             throw new BusinessException(ExceptionConstants.INVALID_ORDER_STATUS, ExceptionConstants.getMessage(ExceptionConstants.INVALID_ORDER_STATUS, status));
         }
+        // An accepted order still holds its units and waits for a worker, which alone takes
+        // its stock. It can only be cancelled, releasing the hold, and nothing else becomes one.
+        if (next == Order.OrderStatus.ACCEPTED || previous == Order.OrderStatus.ACCEPTED && next != Order.OrderStatus.CANCELLED) {
+            throw new BusinessException(ExceptionConstants.ORDER_STATUS_CHANGE_NOT_ALLOWED, ExceptionConstants.getMessage(ExceptionConstants.ORDER_STATUS_CHANGE_NOT_ALLOWED, previous, next));
+        }
+        if (previous == Order.OrderStatus.ACCEPTED) {
+            cancelAccepted(order);
+        }
+        order.setStatus(next);
+        order = orderRepository.save(order);
+        outboxService.publish(OutboxEvent.ORDER_STATUS_CHANGED, order.getId(), Map.of(
+                "userId", order.getUser().getId(),
+                "from", previous,
+                "to", order.getStatus()));
+        return orderMapper.toDto(order);
     }
-}
 
+    /**
+     * Takes an accepted order out of the queue and releases its hold, the way a worker giving
+     * up on it does. Fails if a worker has the order in hand; it will be placed or rejected
+     * shortly and can then be changed like any other.
+     */
+    private void cancelAccepted(Order order) {
+        if (!orderJobRepository.claim(order.getId())) {
+            throw new BusinessException(ExceptionConstants.ORDER_BEING_PROCESSED, ExceptionConstants.getMessage(ExceptionConstants.ORDER_BEING_PROCESSED));
+        }
+        orderJobRepository.delete(List.of(order.getId()));
+        Map<Long, Integer> released = order.getItems().stream()
+                .filter(item -> item.getHeld() > 0)
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), OrderItem::getHeld, Integer::sum));
+        productStockRepository.releaseHeld(released);
+    }
+
+    private Cart findCartToOrder(Long userId) {
+        Cart cart = cartRepository.findByUserId(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.CART_IS_EMPTY, ExceptionConstants.getMessage(ExceptionConstants.CART_IS_EMPTY)));
+
+        if (cart.getItems().isEmpty()) {
+            throw new BusinessException(ExceptionConstants.CANNOT_CREATE_ORDER_WITH_EMPTY_CART, ExceptionConstants.getMessage(ExceptionConstants.CANNOT_CREATE_ORDER_WITH_EMPTY_CART));
+        }
+        return cart;
+    }
+
+    private static Order newOrder(Long userId, CreateOrderRequest request, Order.OrderStatus status) {
+        User user = User.builder().id(userId).build();
+        return Order.builder()
+                .user(user)
+                .status(status)
+                .shippingAddress(request.getShippingAddress())
+                .billingAddress(request.getBillingAddress() != null ? request.getBillingAddress() : request.getShippingAddress())
+                .phone(request.getPhone())
+                .email(request.getEmail())
+                .items(new ArrayList<>())
+                .build();
+    }
+
+    /**
+     * Copies a cart line into the order at the current price, after checking the product can
+     * still be sold. The stock figure read with the cart only rules out hopeless orders; the
+     * guarded decrement is what actually takes the units.
+     */
+    private static OrderItem toOrderItem(Order order, CartItem cartItem) {
+        Product product = cartItem.getProduct();
+
+        if (!product.getActive()) {
+            throw new BusinessException(ExceptionConstants.PRODUCT_NO_LONGER_AVAILABLE, ExceptionConstants.getMessage(ExceptionConstants.PRODUCT_NO_LONGER_AVAILABLE, product.getName()));
+        }
+
+        if (product.getStock() != null && product.getStock() < cartItem.getQuantity()) {
+            throw new BusinessException(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, product.getName()));
+        }
+
+        BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
+
+        return OrderItem.builder()
+                .order(order)
+                .product(product)
+                .quantity(cartItem.getQuantity())
+                .unitPrice(product.getPrice())
+                .totalPrice(itemTotal)
+                .build();
+    }
+
+    static Map<String, Object> summary(Order order) {
+        return Map.of(
+                "userId", order.getUser().getId(),
+                "status", order.getStatus(),
+                "totalPrice", order.getTotalPrice());
+    }
+
+    private void closeCart(Cart cart, Long userId) {
+        cartItemRepository.deleteByCartId(cart.getId());
+        
+        cart = cartRepository.findById(cart.getId())
+                .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.CART_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.CART_NOT_FOUND)));
+        
+        cart.getItems().clear();
+        
+        User userEntity = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.USER_NOT_FOUND, ExceptionConstants.getMessage(ExceptionConstants.USER_NOT_FOUND)));
+        userEntity.setCart(null);
+        userRepository.save(userEntity);
+        
+        cartRepository.delete(cart);
+    }
+}
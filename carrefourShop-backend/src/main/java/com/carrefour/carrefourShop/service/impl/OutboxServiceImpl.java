@@ -0,0 +1,208 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.outbox.OutboxEvent;
+import com.carrefour.carrefourShop.outbox.OutboxSink;
+import com.carrefour.carrefourShop.repository.OutboxRepository;
+import com.carrefour.carrefourShop.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox. Events are inserted by the transaction that caused them; a poller on
+ * every node leases up to {@code catalog.outbox.batch-size} due rows at a time for
+ * {@code catalog.outbox.lease} ms, publishes each to in-process {@code @EventListener}s on its
+ * own, hands the ones that went through to the {@link OutboxSink} if one is declared, and
+ * marks them dispatched. Delivery is at least once: a lease that runs out has its rows
+ * delivered again.
+ *
+ * <p>An event whose delivery fails does not hold back the others. It is retried after
+ * {@code catalog.outbox.retry-delay} ms times its attempts, and parked with its last error
+ * after {@code catalog.outbox.max-attempts} of them.
+ *
+ * <p>Dispatched rows are kept for {@code catalog.outbox.retention} ms, then removed with a
+ * single range delete every {@code catalog.outbox.cleanup-interval} ms.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<OutboxSink> sink;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${catalog.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${catalog.outbox.lease:30000}")
+    private long lease;
+
+    @Value("${catalog.outbox.retry-delay:1000}")
+    private long retryDelay;
+
+    @Value("${catalog.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${catalog.outbox.retention:86400000}")
+    private long retention;
+
+    private TransactionTemplate writeTransaction;
+    private Counter dispatched;
+    private Counter failed;
+    private Counter parked;
+    private DistributionSummary batches;
+    private Timer lag;
+
+    @PostConstruct
+    void init() {
+        writeTransaction = new TransactionTemplate(transactionManager);
+
+        dispatched = Counter.builder("catalog.outbox.dispatched")
+                .description("Outbox events delivered to listeners and the sink")
+                .register(meterRegistry);
+        failed = Counter.builder("catalog.outbox.failed")
+                .description("Outbox event deliveries that failed and will be retried")
+                .register(meterRegistry);
+        parked = Counter.builder("catalog.outbox.parked")
+                .description("Outbox events parked after failing too many times")
+                .register(meterRegistry);
+        batches = DistributionSummary.builder("catalog.outbox.batch.size")
+                .description("Outbox events claimed per dispatch batch")
+                .register(meterRegistry);
+        lag = Timer.builder("catalog.outbox.lag")
+                .description("Time from writing an outbox event to dispatching it")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(String type, Long aggregateId, Object payload) {
+        try {
+            outboxRepository.insert(type, aggregateId, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + type + " event payload", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.outbox.poll-interval:500}", initialDelayString = "${catalog.outbox.poll-interval:500}")
+    public void dispatch() {
+        try {
+            List<OutboxRepository.Row> claimed;
+            do {
+                claimed = writeTransaction.execute(status -> outboxRepository.claim(batchSize, lease));
+                if (!claimed.isEmpty()) {
+                    batches.record(claimed.size());
+                    deliver(claimed);
+                }
+            } while (claimed.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Outbox dispatch failed, leased events are delivered again once their lease runs out", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.outbox.cleanup-interval:3600000}", initialDelayString = "${catalog.outbox.cleanup-interval:3600000}")
+    public void cleanUp() {
+        try {
+            int deleted = writeTransaction.execute(status -> outboxRepository.deleteDispatched(retention));
+            log.debug("Removed {} dispatched outbox events", deleted);
+        } catch (RuntimeException e) {
+            log.error("Outbox cleanup failed", e);
+        }
+    }
+
+    private void deliver(List<OutboxRepository.Row> rows) {
+        Map<Long, RuntimeException> failures = new LinkedHashMap<>();
+        List<OutboxEvent> published = new ArrayList<>(rows.size());
+        for (OutboxRepository.Row row : rows) {
+            try {
+                OutboxEvent event = toEvent(row);
+                eventPublisher.publishEvent(event);
+                published.add(event);
+            } catch (RuntimeException e) {
+                failures.put(row.id(), e);
+            }
+        }
+        sink.ifAvailable(outboxSink -> send(outboxSink, published, failures));
+
+        List<OutboxRepository.Row> delivered = rows.stream().filter(row -> !failures.containsKey(row.id())).toList();
+        List<Long> parkedIds = writeTransaction.execute(status -> {
+            if (!delivered.isEmpty()) {
+                outboxRepository.markDispatched(delivered.stream().map(OutboxRepository.Row::id).toList());
+            }
+            List<Long> parkedNow = new ArrayList<>();
+            failures.forEach((id, e) -> {
+                if (outboxRepository.markFailed(id, e.toString(), retryDelay, maxAttempts)) {
+                    parkedNow.add(id);
+                }
+            });
+            return parkedNow;
+        });
+
+        failures.forEach((id, e) -> {
+            if (parkedIds.contains(id)) {
+                log.error("Outbox event {} failed {} times and was parked", id, maxAttempts, e);
+            } else {
+                log.warn("Outbox event {} could not be delivered, retrying later", id, e);
+            }
+        });
+        delivered.forEach(row -> lag.record(Duration.ofMillis(row.ageMillis())));
+        dispatched.increment(delivered.size());
+        failed.increment(failures.size() - parkedIds.size());
+        parked.increment(parkedIds.size());
+    }
+
+    /**
+     * Sends the events to the sink in one batch. When the batch fails they are sent again one
+     * at a time, so only the events the sink keeps refusing are retried.
+     */
+    private static void send(OutboxSink outboxSink, List<OutboxEvent> events, Map<Long, RuntimeException> failures) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            outboxSink.send(events);
+        } catch (RuntimeException batchFailure) {
+            if (events.size() == 1) {
+                failures.put(events.get(0).id(), batchFailure);
+                return;
+            }
+            for (OutboxEvent event : events) {
+                try {
+                    outboxSink.send(List.of(event));
+                } catch (RuntimeException e) {
+                    failures.put(event.id(), e);
+                }
+            }
+        }
+    }
+
+    private OutboxEvent toEvent(OutboxRepository.Row row) {
+        try {
+            return new OutboxEvent(row.id(), row.type(), row.aggregateId(), objectMapper.readTree(row.payload()), row.createdAt());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox event " + row.id() + " has an unreadable payload", e);
+        }
+    }
+}
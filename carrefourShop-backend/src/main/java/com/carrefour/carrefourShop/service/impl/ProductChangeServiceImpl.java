@@ -0,0 +1,351 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogChangedEvent;
+import com.carrefour.carrefourShop.cache.CatalogSnapshot;
+import com.carrefour.carrefourShop.dto.ProductChangeDto;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.service.ProductChangeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live price, stock and availability changes as Server-Sent Events. Catalog changes are diffed
+ * against the previous snapshot and coalesced per product for {@code catalog.changes.window}
+ * milliseconds; each window becomes one event, serialized once and queued for every
+ * subscriber by a single publisher thread. Connections are async, so subscribers cost no
+ * thread while idle. Writes are made by a pool of {@code catalog.changes.writer-threads}
+ * threads, one at a time per subscriber, so the publisher never waits on a socket. A
+ * subscriber whose {@code catalog.changes.send-queue} frames are still unwritten is too slow
+ * to keep up and is disconnected, to resume with {@code Last-Event-ID} when it reconnects.
+ * The last {@code catalog.changes.buffer-size} events are kept for clients resuming; a client
+ * that fell further behind, whose missed events would fill its send queue, or whose id
+ * comes from before a restart, gets a {@code reset} event and should reload. Changes are only
+ * observed while the catalog cache is enabled.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductChangeServiceImpl implements ProductChangeService {
+
+    static final String CHANGES_EVENT = "products";
+    static final String RESET_EVENT = "reset";
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${catalog.changes.window:500}")
+    private long window;
+
+    @Value("${catalog.changes.buffer-size:1024}")
+    private int bufferSize;
+
+    @Value("${catalog.changes.heartbeat-interval:15000}")
+    private long heartbeatInterval;
+
+    @Value("${catalog.changes.emitter-timeout:1800000}")
+    private long emitterTimeout;
+
+    @Value("${catalog.changes.send-queue:64}")
+    private int sendQueue;
+
+    @Value("${catalog.changes.writer-threads:4}")
+    private int writerThreads;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, ProductChangeDto> pending = new LinkedHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-change-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ExecutorService writers;
+    private Counter dropped;
+
+    // ring buffer and sequence are only touched by the publisher thread
+    private Set<ResponseBodyEmitter.DataWithMediaType>[] ring;
+    private long nextSequence = 1;
+    private long lastSendNanos = System.nanoTime();
+
+    private CatalogSnapshot previous;
+
+    @PostConstruct
+    void init() {
+        @SuppressWarnings("unchecked")
+        Set<ResponseBodyEmitter.DataWithMediaType>[] buffer = new Set[bufferSize];
+        ring = buffer;
+        AtomicInteger sequence = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-change-writer-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::publish, window, window, TimeUnit.MILLISECONDS);
+        Gauge.builder("catalog.changes.subscribers", subscribers, Set::size)
+                .description("Clients connected to the product change stream")
+                .register(meterRegistry);
+        dropped = Counter.builder("catalog.changes.dropped")
+                .description("Clients disconnected for falling behind the product change stream")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publisher.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @Override
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        // replay and join on the publisher thread so no event is missed or sent twice
+        publisher.execute(() -> {
+            if (replay(subscriber, lastEventId)) {
+                subscribers.add(subscriber);
+            }
+        });
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeout);
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        CatalogSnapshot snapshot = event.snapshot();
+        CatalogSnapshot before;
+        synchronized (this) {
+            before = previous;
+            previous = snapshot;
+        }
+        if (before == null) {
+            return;
+        }
+        Set<Long> ids;
+        if (event.isFullReload()) {
+            ids = new HashSet<>(before.getProductsById().keySet());
+            ids.addAll(snapshot.getProductsById().keySet());
+        } else {
+            ids = event.changedIds();
+        }
+        List<ProductChangeDto> changes = new ArrayList<>();
+        for (Long id : ids) {
+            ProductChangeDto change = diff(id, before.getProduct(id), snapshot.getProduct(id));
+            if (change != null) {
+                changes.add(change);
+            }
+        }
+        if (!changes.isEmpty()) {
+            synchronized (pending) {
+                changes.forEach(change -> pending.put(change.getId(), change));
+            }
+        }
+    }
+
+    private static ProductChangeDto diff(Long id, ProductDto before, ProductDto after) {
+        if (after == null) {
+            return before != null ? ProductChangeDto.builder().id(id).active(false).build() : null;
+        }
+        if (before != null && Objects.equals(before.getStock(), after.getStock())
+                && before.getPrice().compareTo(after.getPrice()) == 0) {
+            return null;
+        }
+        return ProductChangeDto.builder()
+                .id(id)
+                .price(after.getPrice())
+                .stock(after.getStock())
+                .active(true)
+                .build();
+    }
+
+    private void publish() {
+        try {
+            List<ProductChangeDto> changes;
+            synchronized (pending) {
+                changes = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            if (changes.isEmpty()) {
+                if (System.nanoTime() - lastSendNanos >= TimeUnit.MILLISECONDS.toNanos(heartbeatInterval)) {
+                    broadcast(SseEmitter.event().comment("heartbeat").build());
+                }
+                return;
+            }
+            long sequence = nextSequence++;
+            Set<ResponseBodyEmitter.DataWithMediaType> frames = SseEmitter.event()
+                    .id(epoch + ":" + sequence)
+                    .name(CHANGES_EVENT)
+                    .data(objectMapper.writeValueAsString(changes))
+                    .build();
+            ring[(int) (sequence % ring.length)] = frames;
+            broadcast(frames);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Publishing product changes failed", e);
+        }
+    }
+
+    /**
+     * Queues frames built once for every subscriber; an {@link SseEmitter.SseEventBuilder}
+     * cannot be reused.
+     */
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> frames) {
+        lastSendNanos = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(frames)) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Queues the events a resuming client missed, or {@code reset} when they are no longer
+     * buffered or would fill its send queue, leaving no room for live ones. Returns {@code false} if the client is
+     * already gone.
+     */
+    private boolean replay(Subscriber subscriber, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return true;
+        }
+        long oldest = Math.max(1, nextSequence - ring.length);
+        long last = parseSequence(lastEventId);
+        if (last < oldest - 1 || last >= nextSequence || nextSequence - 1 - last >= sendQueue) {
+            return subscriber.offer(SseEmitter.event()
+                    .id(epoch + ":" + (nextSequence - 1))
+                    .name(RESET_EVENT)
+                    .data("{}")
+                    .build());
+        }
+        for (long sequence = last + 1; sequence < nextSequence; sequence++) {
+            if (!subscriber.offer(ring[(int) (sequence % ring.length)])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sequence part of an event id issued by this process, or -1 for a foreign or malformed id.
+     */
+    private long parseSequence(String lastEventId) {
+        int separator = lastEventId.indexOf(':');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * One connection. Frames wait in a bounded queue and are written by a writer thread, which
+     * keeps the subscriber until its queue is empty, so writes to one client stay in order and
+     * a slow client only holds up itself.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queues frames for writing. Returns {@code false} if the client is gone, or is
+         * dropped here because its queue is full.
+         */
+        boolean offer(Set<ResponseBodyEmitter.DataWithMediaType> frames) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                if (queue.size() >= sendQueue) {
+                    // a write is still in progress; the writer completes the emitter once it returns
+                    closed = true;
+                    queue.clear();
+                    dropped.increment();
+                    return false;
+                }
+                queue.add(frames);
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            writers.execute(this::drain);
+            return true;
+        }
+
+        private void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> frames;
+                boolean drop;
+                synchronized (this) {
+                    frames = queue.poll();
+                    drop = closed;
+                    if (frames == null || drop) {
+                        draining = false;
+                    }
+                }
+                if (drop) {
+                    emitter.complete();
+                    return;
+                }
+                if (frames == null) {
+                    return;
+                }
+                try {
+                    emitter.send(frames);
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        closed = true;
+                        queue.clear();
+                        draining = false;
+                    }
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.dto.ProductImportErrorDto;
+import com.carrefour.carrefourShop.dto.ProductImportReportDto;
+import com.carrefour.carrefourShop.dto.ProductImportRow;
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.repository.ProductImportRepository;
+import com.carrefour.carrefourShop.service.ProductImportService;
+import com.carrefour.carrefourShop.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import. The body is parsed one record at a time and valid rows are upserted in
+ * batches of {@code catalog.import.batch-size}, each batch committing on its own, so memory
+ * stays bounded by one batch plus at most {@code catalog.import.max-errors} reported errors.
+ * The catalog cache is invalidated once, after the last batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Map<String, BiConsumer<ProductImportRow, String>> CSV_COLUMNS = Map.of(
+            "sku", ProductImportRow::setSku,
+            "name", ProductImportRow::setName,
+            "description", ProductImportRow::setDescription,
+            "price", (row, value) -> row.setPrice(value != null ? new BigDecimal(value.trim()) : null),
+            "stock", (row, value) -> row.setStock(value != null ? Integer.valueOf(value.trim()) : null),
+            "category", ProductImportRow::setCategory,
+            "imageurl", ProductImportRow::setImageUrl,
+            "brand", ProductImportRow::setBrand,
+            "active", (row, value) -> row.setActive(value != null ? parseBoolean(value) : null)
+    );
+    private static final Set<String> REQUIRED_CSV_COLUMNS = Set.of("sku", "name", "price");
+
+    private final ProductImportRepository productImportRepository;
+    private final CatalogCache catalogCache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    private Counter importedRows;
+    private Counter unchangedRows;
+    private Counter rejectedRows;
+
+    @PostConstruct
+    void init() {
+        importedRows = Counter.builder("catalog.import.rows")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        unchangedRows = Counter.builder("catalog.import.rows")
+                .tag("result", "unchanged")
+                .register(meterRegistry);
+        rejectedRows = Counter.builder("catalog.import.rows")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ProductImportReportDto importCsv(InputStream body) {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = reader(body)) {
+            CsvReader csv = new CsvReader(reader);
+            List<BiConsumer<ProductImportRow, String>> columns = csvColumns(csv.next());
+            for (List<String> fields = csv.next(); fields != null; fields = csv.next()) {
+                long line = csv.recordLine();
+                ProductImportRow row = new ProductImportRow();
+                try {
+                    for (int i = 0; i < columns.size(); i++) {
+                        columns.get(i).accept(row, i < fields.size() ? fields.get(i) : null);
+                    }
+                } catch (IllegalArgumentException e) {
+                    run.reject(line, row.getSku(), "Invalid number or boolean: " + e.getMessage());
+                    continue;
+                }
+                run.accept(line, row);
+            }
+            return run.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            run.close();
+        }
+    }
+
+    @Override
+    public ProductImportReportDto importNdjson(InputStream body) {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = reader(body)) {
+            long line = 0;
+            for (String json = reader.readLine(); json != null; json = reader.readLine()) {
+                line++;
+                if (json.isBlank()) {
+                    continue;
+                }
+                ProductImportRow row;
+                try {
+                    row = objectMapper.readValue(json, ProductImportRow.class);
+                } catch (JsonProcessingException e) {
+                    run.reject(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                run.accept(line, row);
+            }
+            return run.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            run.close();
+        }
+    }
+
+    private static BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    private static List<BiConsumer<ProductImportRow, String>> csvColumns(List<String> header) {
+        if (header == null) {
+            throw new BusinessException(ExceptionConstants.INVALID_IMPORT_HEADER,
+                    ExceptionConstants.getMessage(ExceptionConstants.INVALID_IMPORT_HEADER, "missing"));
+        }
+        List<BiConsumer<ProductImportRow, String>> columns = new ArrayList<>(header.size());
+        List<String> names = new ArrayList<>(header.size());
+        for (String column : header) {
+            String name = column == null ? "" : column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+            BiConsumer<ProductImportRow, String> setter = CSV_COLUMNS.get(name);
+            if (setter == null || names.contains(name)) {
+                throw new BusinessException(ExceptionConstants.INVALID_IMPORT_HEADER,
+                        ExceptionConstants.getMessage(ExceptionConstants.INVALID_IMPORT_HEADER, "unknown or repeated column '" + column + "'"));
+            }
+            names.add(name);
+            columns.add(setter);
+        }
+        if (!names.containsAll(REQUIRED_CSV_COLUMNS)) {
+            throw new BusinessException(ExceptionConstants.INVALID_IMPORT_HEADER,
+                    ExceptionConstants.getMessage(ExceptionConstants.INVALID_IMPORT_HEADER, "sku, name and price are required"));
+        }
+        return columns;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException(value);
+        };
+    }
+
+    /**
+     * Counters, the pending batch and the capped error list of one import.
+     */
+    private final class ImportRun {
+        private final Map<String, ProductImportRow> batch = new LinkedHashMap<>();
+        private final List<ProductImportErrorDto> errors = new ArrayList<>();
+        private long batchStartLine;
+        private long rowsRead;
+        private long rowsImported;
+        private long rowsUnchanged;
+        private long rowsRejected;
+        private int batches;
+        private boolean errorsTruncated;
+
+        void accept(long line, ProductImportRow row) {
+            rowsRead++;
+            Set<ConstraintViolation<ProductImportRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                rejected(line, row.getSku(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")), 1);
+                return;
+            }
+            if (batch.isEmpty()) {
+                batchStartLine = line;
+            }
+            // a SKU repeated within one batch would hit the same row twice in ON CONFLICT; last one wins
+            batch.remove(row.getSku());
+            batch.put(row.getSku(), row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String sku, String message) {
+            rowsRead++;
+            rejected(line, sku, message, 1);
+        }
+
+        ProductImportReportDto finish() {
+            flush();
+            return ProductImportReportDto.builder()
+                    .rowsRead(rowsRead)
+                    .rowsImported(rowsImported)
+                    .rowsUnchanged(rowsUnchanged)
+                    .rowsRejected(rowsRejected)
+                    .batches(batches)
+                    .errors(errors)
+                    .errorsTruncated(errorsTruncated)
+                    .build();
+        }
+
+        /**
+         * Invalidates the catalog once if any batch was committed, including when the import
+         * stopped half way.
+         */
+        void close() {
+            if (rowsImported > 0) {
+                catalogCache.invalidateAll();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            int size = batch.size();
+            batches++;
+            try {
+                int changed = productImportRepository.upsert(batch.values());
+                rowsImported += changed;
+                rowsUnchanged += size - changed;
+                importedRows.increment(changed);
+                unchangedRows.increment(size - changed);
+            } catch (DataAccessException e) {
+                log.warn("Product import batch starting at line {} failed", batchStartLine, e);
+                rejected(batchStartLine, null, "Batch of " + size + " rows rejected: "
+                        + NestedExceptionUtils.getMostSpecificCause(e).getMessage(), size);
+            }
+            batch.clear();
+            log.info("Product import progress: {} rows read, {} imported, {} unchanged, {} rejected",
+                    rowsRead, rowsImported, rowsUnchanged, rowsRejected);
+        }
+
+        private void rejected(long line, String sku, String message, int rows) {
+            rowsRejected += rows;
+            rejectedRows.increment(rows);
+            if (errors.size() < maxErrors) {
+                errors.add(ProductImportErrorDto.builder()
+                        .line(line)
+                        .sku(sku)
+                        .message(message)
+                        .build());
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
@@ -1,47 +1,168 @@
 package com.carrefour.carrefourShop.service.impl;
 
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.cache.CatalogColumns;
+import com.carrefour.carrefourShop.cache.CatalogSnapshot;
+import com.carrefour.carrefourShop.cache.RenderedPage;
+import com.carrefour.carrefourShop.dto.FacetsDto;
 import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductFilter;
+import com.carrefour.carrefourShop.dto.ProductLookupDto;
+import com.carrefour.carrefourShop.dto.ProductPageDto;
+import com.carrefour.carrefourShop.dto.ProductQuery;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
 import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.exception.BusinessException;
 import com.carrefour.carrefourShop.exception.ExceptionConstants;
 import com.carrefour.carrefourShop.exception.ResourceNotFoundException;
 import com.carrefour.carrefourShop.mapper.ProductMapper;
+import com.carrefour.carrefourShop.repository.ProductLookupRepository;
 import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.ProductSearchRepository;
+import com.carrefour.carrefourShop.repository.ProductSearchRepository.SearchHit;
+import com.carrefour.carrefourShop.repository.ProductStreamRepository;
+import com.carrefour.carrefourShop.repository.ProductSpecifications;
 import com.carrefour.carrefourShop.service.ProductService;
+import com.carrefour.carrefourShop.util.ProductCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    private static final int STREAM_FLUSH_INTERVAL = 100;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final CatalogCache catalogCache;
+    private final ProductStreamRepository productStreamRepository;
+    private final ProductSearchRepository productSearchRepository;
+    private final ProductLookupRepository productLookupRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${catalog.page.default-size:24}")
+    private int defaultPageSize;
+
+    @Value("${catalog.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${catalog.lookup.max-ids:500}")
+    private int maxLookupIds;
 
     @Override
-    public Flux<ProductDto> getAllProducts() {
-        return Flux.fromIterable(productRepository.findByActiveTrue())
-                .map(productMapper::toDto)
-                .subscribeOn(Schedulers.boundedElastic());
+    public ProductPageDto getAllProducts(ProductQuery query) {
+        ProductSort sort = ProductSort.forListing(query.getSort());
+        ProductCursor cursor = ProductCursor.decode(query.getCursor(), sort);
+        int limit = pageSize(query.getLimit());
+        ProductFilter filter = ProductFilter.from(query);
+        if (catalogCache.isEnabled()) {
+            CatalogSnapshot snapshot = catalogCache.snapshot();
+            return snapshotPage(snapshot, snapshot.getProducts(sort), filter, !filter.isEmpty(), query.isFacets(), sort, cursor, limit);
+        }
+        return queryPage(ProductSpecifications.active().and(ProductSpecifications.matching(filter)), sort, cursor, limit);
     }
 
     @Override
-    public Flux<ProductDto> getProductsByCategory(String category) {
-        return Flux.fromIterable(productRepository.findByActiveTrueAndCategory(category))
-                .map(productMapper::toDto)
-                .subscribeOn(Schedulers.boundedElastic());
+    public ProductPageDto getProductsByCategory(String category, ProductQuery query) {
+        ProductSort sort = ProductSort.forListing(query.getSort());
+        ProductCursor cursor = ProductCursor.decode(query.getCursor(), sort);
+        int limit = pageSize(query.getLimit());
+        ProductFilter filter = ProductFilter.from(query).withCategory(category);
+        if (catalogCache.isEnabled()) {
+            CatalogSnapshot snapshot = catalogCache.snapshot();
+            return snapshotPage(snapshot, snapshot.getProductsByCategory(category, sort), filter, filter.hasNonCategoryFilters(), query.isFacets(), sort, cursor, limit);
+        }
+        return queryPage(ProductSpecifications.active().and(ProductSpecifications.matching(filter)), sort, cursor, limit);
+    }
+
+    /**
+     * Serialized first page of the catalog or of one category, rendered once per snapshot.
+     * Returns {@code null} for anything that has to be built per request: cursors, filters,
+     * facets, unknown categories, or the catalog cache being off. The memo is keyed by sort,
+     * page size and category, all of which are bounded.
+     */
+    @Override
+    public RenderedPage getRenderedPage(String category, ProductQuery query) {
+        if (!catalogCache.isEnabled() || query.getCursor() != null || query.isFacets() || !ProductFilter.from(query).isEmpty()) {
+            return null;
+        }
+        ProductSort sort = ProductSort.forListing(query.getSort());
+        int limit = pageSize(query.getLimit());
+        CatalogSnapshot snapshot = catalogCache.snapshot();
+        if (category == null) {
+            return snapshot.rendered("all|" + sort + "|" + limit,
+                    key -> RenderedPage.of(objectMapper, page(snapshot.getProducts(sort), sort, null, limit, null)));
+        }
+        if (snapshot.getProductsByCategory(category).isEmpty()) {
+            return null;
+        }
+        return snapshot.rendered("category|" + sort + "|" + limit + "|" + category,
+                key -> RenderedPage.of(objectMapper, page(snapshot.getProductsByCategory(category, sort), sort, null, limit, null)));
     }
 
     @Override
-    public Flux<ProductDto> searchProducts(String keyword) {
-        return Flux.fromIterable(productRepository.searchActiveProducts(keyword))
-                .map(productMapper::toDto)
-                .subscribeOn(Schedulers.boundedElastic());
+    public ProductPageDto searchProducts(String keyword, ProductQuery query) {
+        ProductSort sort = ProductSort.forSearch(query.getSort());
+        ProductCursor cursor = ProductCursor.decode(query.getCursor(), sort);
+        int limit = pageSize(query.getLimit());
+        ProductFilter filter = ProductFilter.from(query);
+        List<SearchHit> hits = productSearchRepository.search(keyword, filter, sort, cursor, limit + 1);
+        boolean hasMore = hits.size() > limit;
+        List<SearchHit> page = hasMore ? hits.subList(0, limit) : hits;
+        String nextCursor = null;
+        if (hasMore) {
+            SearchHit last = page.get(page.size() - 1);
+            nextCursor = (sort == ProductSort.RELEVANCE
+                    ? new ProductCursor(sort, last.product().getId(), Float.toString(last.rank()))
+                    : ProductCursor.after(sort, last.product())).encode();
+        }
+
+        FacetsDto facets = null;
+        if (query.isFacets() && catalogCache.isEnabled()) {
+            CatalogColumns columns = catalogCache.snapshot().getColumns();
+            BitSet candidates = new BitSet();
+            for (Long id : productSearchRepository.findMatchingIds(keyword)) {
+                int row = columns.rowOf(id);
+                if (row >= 0) {
+                    candidates.set(row);
+                }
+            }
+            facets = columns.scan(filter, candidates, new BitSet());
+        }
+        return ProductPageDto.builder()
+                .items(page.stream().map(SearchHit::product).toList())
+                .nextCursor(nextCursor)
+                .facets(facets)
+                .build();
     }
 
     @Override
     public ProductDto getProductById(Long id) {
+        if (catalogCache.isEnabled()) {
+            ProductDto product = catalogCache.snapshot().getProduct(id);
+            if (product == null) {
+                throw new ResourceNotFoundException(ExceptionConstants.PRODUCT_NOT_FOUND_BY_ID, ExceptionConstants.getMessage(ExceptionConstants.PRODUCT_NOT_FOUND_BY_ID, id));
+            }
+            return product;
+        }
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(ExceptionConstants.PRODUCT_NOT_FOUND_BY_ID, ExceptionConstants.getMessage(ExceptionConstants.PRODUCT_NOT_FOUND_BY_ID, id)));
         if (!product.getActive()) {
@@ -49,5 +170,158 @@ public class ProductServiceImpl implements ProductService {
         }
         return productMapper.toDto(product);
     }
-}
 
+    /**
+     * Resolves several products at once, from the catalog snapshot or with one query. Items
+     * come back in request order with duplicates dropped; ids that are unknown or inactive are
+     * listed in {@code missingIds} instead.
+     */
+    @Override
+    public ProductLookupDto getProductsByIds(List<Long> ids) {
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > maxLookupIds) {
+            throw new BusinessException(ExceptionConstants.TOO_MANY_PRODUCT_IDS, ExceptionConstants.getMessage(ExceptionConstants.TOO_MANY_PRODUCT_IDS, maxLookupIds));
+        }
+
+        Map<Long, ProductDto> found;
+        if (catalogCache.isEnabled()) {
+            CatalogSnapshot snapshot = catalogCache.snapshot();
+            found = new HashMap<>();
+            for (Long id : requested) {
+                ProductDto product = snapshot.getProduct(id);
+                if (product != null) {
+                    found.put(id, product);
+                }
+            }
+        } else if (requested.isEmpty()) {
+            found = Map.of();
+        } else {
+            found = new HashMap<>();
+            for (ProductDto product : productLookupRepository.findActiveByIds(requested)) {
+                found.put(product.getId(), product);
+            }
+        }
+
+        List<ProductDto> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            ProductDto product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return ProductLookupDto.builder()
+                .items(items)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    /**
+     * Writes active products as newline-delimited JSON one chunk at a time. A slow client
+     * blocks the servlet output stream, which in turn holds back the next chunk, so memory
+     * stays bounded by the chunk size; no connection is held while writing.
+     */
+    @Override
+    public void streamProducts(String category, OutputStream out) {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            int[] written = {0};
+            productStreamRepository.streamActive(category, product -> {
+                try {
+                    generator.writeObject(product);
+                    generator.writeRaw('\n');
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    /**
+     * Page served from the catalog snapshot. Filtering and facet counting share one pass over
+     * the snapshot's columns; the page itself is then read from the pre-sorted list, skipping
+     * products the filter rejected.
+     */
+    private ProductPageDto snapshotPage(CatalogSnapshot snapshot, List<ProductDto> sorted, ProductFilter filter,
+                                        boolean filterRows, boolean withFacets,
+                                        ProductSort sort, ProductCursor cursor, int limit) {
+        if (!filterRows && !withFacets) {
+            return page(sorted, sort, cursor, limit, null);
+        }
+        CatalogColumns columns = snapshot.getColumns();
+        BitSet matches = new BitSet();
+        FacetsDto facets = columns.scan(filter, null, matches);
+        ProductPageDto page = page(sorted, sort, cursor, limit,
+                filterRows ? product -> matches.get(columns.rowOf(product.getId())) : null);
+        page.setFacets(withFacets ? facets : null);
+        return page;
+    }
+
+    /**
+     * Page over a list already sorted in the cursor's order: binary search for the cursor
+     * position and take the next {@code limit} products accepted by {@code include}.
+     */
+    private ProductPageDto page(List<ProductDto> sorted, ProductSort sort, ProductCursor cursor, int limit,
+                                Predicate<ProductDto> include) {
+        int from = 0;
+        if (cursor != null) {
+            int index = Collections.binarySearch(sorted, cursor.key(), sort.comparator());
+            from = index >= 0 ? index + 1 : -(index + 1);
+        }
+
+        List<ProductDto> items;
+        boolean hasMore;
+        if (include == null) {
+            int to = Math.min(from + limit, sorted.size());
+            items = sorted.subList(from, to);
+            hasMore = to < sorted.size();
+        } else {
+            items = new ArrayList<>(limit);
+            hasMore = false;
+            for (int i = from; i < sorted.size(); i++) {
+                ProductDto product = sorted.get(i);
+                if (!include.test(product)) {
+                    continue;
+                }
+                if (items.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                items.add(product);
+            }
+        }
+        return ProductPageDto.builder()
+                .items(items.stream().map(productMapper::toSummary).toList())
+                .nextCursor(hasMore ? ProductCursor.after(sort, items.get(items.size() - 1)).encode() : null)
+                .build();
+    }
+
+    /**
+     * Keyset page from the database, read as summaries. One extra row is fetched to tell whether another page exists.
+     */
+    private ProductPageDto queryPage(Specification<Product> filter, ProductSort sort, ProductCursor cursor, int limit) {
+        List<ProductSummaryDto> rows = productRepository.findSummaries(filter.and(ProductSpecifications.after(cursor)),
+                sort.toSort(), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<ProductSummaryDto> items = hasMore ? rows.subList(0, limit) : rows;
+        return ProductPageDto.builder()
+                .items(items)
+                .nextCursor(hasMore ? ProductCursor.after(sort, items.get(items.size() - 1)).encode() : null)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.repository.StockReservationRepository;
+import com.carrefour.carrefourShop.service.StockReservationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock held for carts from add-to-cart until checkout. The database decides: every hold is
+ * taken with a guarded update of {@code products.reserved}. This node also keeps those totals
+ * in memory so available-stock reads never query; they follow each committed change and are
+ * reloaded after every sweep, which also picks up holds taken on other nodes.
+ *
+ * <p>Holds lapse {@code catalog.reservations.ttl} ms after the cart last touched them. The
+ * sweeper releases expired ones in batches of {@code catalog.reservations.sweep-batch-size},
+ * one transaction each, skipping rows a cart is changing at that moment.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${catalog.reservations.ttl:900000}")
+    private long ttl;
+
+    @Value("${catalog.reservations.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    private final Map<Long, Integer> reserved = new ConcurrentHashMap<>();
+
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+    private Counter expired;
+
+    @PostConstruct
+    void init() {
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+
+        expired = Counter.builder("catalog.reservations.expired")
+                .description("Reservations released by the sweeper after they expired")
+                .register(meterRegistry);
+        Gauge.builder("catalog.reservations.units", this, service -> service.reserved.values().stream().mapToLong(Integer::longValue).sum())
+                .description("Units held by live reservations")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean reserve(Long cartId, Long productId, int quantity) {
+        if (!reservationRepository.reserve(cartId, productId, quantity, ttl)) {
+            return false;
+        }
+        adjustAfterCommit(Map.of(productId, quantity));
+        return true;
+    }
+
+    @Override
+    public boolean replace(Long cartId, Long productId, int quantity) {
+        release(cartId, productId);
+        return quantity <= 0 || reserve(cartId, productId, quantity);
+    }
+
+    @Override
+    public void release(Long cartId, Long productId) {
+        int released = reservationRepository.release(cartId, productId);
+        if (released > 0) {
+            adjustAfterCommit(Map.of(productId, -released));
+        }
+    }
+
+    @Override
+    public void releaseCart(Long cartId) {
+        adjustAfterCommit(negate(reservationRepository.releaseCart(cartId)));
+    }
+
+    @Override
+    public Map<Long, Integer> takeForCheckout(Long cartId) {
+        Map<Long, Integer> held = reservationRepository.takeCart(cartId);
+        adjustAfterCommit(negate(held));
+        return held;
+    }
+
+    @Override
+    public Integer getAvailableStock(Long productId, Integer stock) {
+        if (stock == null) {
+            return null;
+        }
+        return Math.max(0, stock - reserved.getOrDefault(productId, 0));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.reservations.sweep-interval:60000}", initialDelayString = "${catalog.reservations.sweep-interval:60000}")
+    public void sweepExpired() {
+        try {
+            int released;
+            do {
+                StockReservationRepository.ExpiredBatch batch = writeTransaction.execute(status ->
+                        reservationRepository.releaseExpired(sweepBatchSize));
+                released = batch.reservations();
+                expired.increment(released);
+            } while (released == sweepBatchSize);
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Reservation sweep failed, expired holds stay until the next run", e);
+        }
+    }
+
+    private void reload() {
+        Map<Long, Integer> current = readTransaction.execute(status -> reservationRepository.findReserved());
+        reserved.keySet().retainAll(current.keySet());
+        reserved.putAll(current);
+    }
+
+    private void adjustAfterCommit(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Runnable adjust = () -> deltas.forEach((productId, delta) -> reserved.compute(productId, (id, total) -> {
+            int adjusted = (total == null ? 0 : total) + delta;
+            return adjusted > 0 ? adjusted : null;
+        }));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust.run();
+                }
+            });
+        } else {
+            adjust.run();
+        }
+    }
+
+    private static Map<Long, Integer> negate(Map<Long, Integer> quantities) {
+        Map<Long, Integer> negated = new HashMap<>();
+        quantities.forEach((productId, quantity) -> negated.put(productId, -quantity));
+        return negated;
+    }
+}
@@ -0,0 +1,214 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.cache.CatalogChangedEvent;
+import com.carrefour.carrefourShop.cache.CatalogSnapshot;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.SuggestionDto;
+import com.carrefour.carrefourShop.mapper.ProductMapper;
+import com.carrefour.carrefourShop.repository.OrderItemRepository;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.service.SuggestionService;
+import com.carrefour.carrefourShop.util.NgramIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete served from an in-memory {@link NgramIndex}. The index is rebuilt in full at
+ * startup and periodically (which also refreshes sales-based popularity). In between, catalog
+ * changes are applied incrementally: the changed products are masked out of the base index
+ * and re-indexed into a small delta index, which is folded back into the base once it grows
+ * past {@code catalog.suggest.max-delta}. With the catalog cache disabled there are no change
+ * events and the index only follows the periodic rebuilds.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SuggestionServiceImpl implements SuggestionService {
+
+    private static final long NO_SNAPSHOT = -1;
+
+    private final CatalogCache catalogCache;
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductMapper productMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${catalog.suggest.default-limit:8}")
+    private int defaultLimit;
+
+    @Value("${catalog.suggest.max-limit:20}")
+    private int maxLimit;
+
+    @Value("${catalog.suggest.max-delta:1000}")
+    private int maxDelta;
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestion-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile IndexState state = IndexState.EMPTY;
+
+    private TransactionTemplate readTransaction;
+    private Timer lookups;
+
+    @PostConstruct
+    void init() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+
+        lookups = Timer.builder("catalog.suggest.latency")
+                .publishPercentiles(0.5, 0.99)
+                .description("Time to answer an autocomplete lookup")
+                .register(meterRegistry);
+        Gauge.builder("catalog.suggest.delta.size", this, service -> service.state.deltaEntries().size())
+                .description("Products re-indexed since the last full suggestion index build")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String prefix, Integer limit) {
+        long start = System.nanoTime();
+        String query = NgramIndex.normalize(prefix);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        int k = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+
+        IndexState current = state;
+        NgramIndex.TopK top = new NgramIndex.TopK(k);
+        current.base().search(query, top, current.removed());
+        current.delta().search(query, top, null);
+
+        List<SuggestionDto> suggestions = new ArrayList<>(top.size());
+        for (int rank = 0; rank < top.size(); rank++) {
+            suggestions.add(SuggestionDto.builder()
+                    .id(top.id(rank))
+                    .name(top.label(rank))
+                    .build());
+        }
+        lookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return suggestions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        submit(this::rebuild);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.suggest.rebuild-interval:600000}", initialDelayString = "${catalog.suggest.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        submit(this::rebuild);
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        CatalogSnapshot snapshot = event.snapshot();
+        if (event.isFullReload()) {
+            submit(() -> {
+                if (state.snapshotVersion() != snapshot.getVersion()) {
+                    rebuild(snapshot.getVersion(), snapshot.getProducts());
+                }
+            });
+        } else {
+            submit(() -> apply(snapshot, event.changedIds()));
+        }
+    }
+
+    private void submit(Runnable task) {
+        indexer.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Suggestion index update failed, keeping the previous index", e);
+            }
+        });
+    }
+
+    private void rebuild() {
+        if (catalogCache.isEnabled()) {
+            CatalogSnapshot snapshot = catalogCache.snapshot();
+            rebuild(snapshot.getVersion(), snapshot.getProducts());
+        } else {
+            rebuild(NO_SNAPSHOT, readTransaction.execute(status -> productRepository.findByActiveTrue().stream()
+                    .map(productMapper::toDto)
+                    .toList()));
+        }
+    }
+
+    private void rebuild(long snapshotVersion, Collection<ProductDto> products) {
+        Map<Long, Integer> popularity = new HashMap<>();
+        readTransaction.executeWithoutResult(status -> orderItemRepository.sumQuantityByProduct()
+                .forEach(sales -> popularity.put(sales.getProductId(), (int) Math.min(Integer.MAX_VALUE, sales.getQuantity()))));
+
+        List<NgramIndex.Entry> entries = new ArrayList<>(products.size());
+        for (ProductDto product : products) {
+            entries.add(entry(product, popularity));
+        }
+        state = new IndexState(snapshotVersion, NgramIndex.build(entries), new BitSet(), NgramIndex.EMPTY, Map.of(), popularity);
+        log.debug("Suggestion index rebuilt with {} products", entries.size());
+    }
+
+    private void apply(CatalogSnapshot snapshot, Collection<Long> changedIds) {
+        IndexState current = state;
+        BitSet removed = (BitSet) current.removed().clone();
+        Map<Long, NgramIndex.Entry> deltaEntries = new HashMap<>(current.deltaEntries());
+        for (Long id : changedIds) {
+            int ordinal = current.base().ordinalOf(id);
+            if (ordinal >= 0) {
+                removed.set(ordinal);
+            }
+            deltaEntries.remove(id);
+            ProductDto product = snapshot.getProduct(id);
+            if (product != null) {
+                deltaEntries.put(id, entry(product, current.popularity()));
+            }
+        }
+
+        if (deltaEntries.size() > maxDelta) {
+            rebuild(snapshot.getVersion(), snapshot.getProducts());
+            return;
+        }
+        state = new IndexState(snapshot.getVersion(), current.base(), removed, NgramIndex.build(new ArrayList<>(deltaEntries.values())),
+                Map.copyOf(deltaEntries), current.popularity());
+    }
+
+    private static NgramIndex.Entry entry(ProductDto product, Map<Long, Integer> popularity) {
+        return new NgramIndex.Entry(product.getId(), product.getName(), popularity.getOrDefault(product.getId(), 0));
+    }
+
+    private record IndexState(long snapshotVersion, NgramIndex base, BitSet removed, NgramIndex delta,
+                              Map<Long, NgramIndex.Entry> deltaEntries, Map<Long, Integer> popularity) {
+        static final IndexState EMPTY = new IndexState(NO_SNAPSHOT, NgramIndex.EMPTY, new BitSet(), NgramIndex.EMPTY, Map.of(), Map.of());
+    }
+}
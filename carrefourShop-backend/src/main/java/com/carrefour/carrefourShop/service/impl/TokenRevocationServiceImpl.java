@@ -0,0 +1,106 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.entity.RevokedToken;
+import com.carrefour.carrefourShop.repository.RevokedTokenRepository;
+import com.carrefour.carrefourShop.service.TokenRevocationService;
+import com.carrefour.carrefourShop.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revoked token ids held in memory: a bloom filter answers the common "not revoked" case
+ * without touching the exact set, which is only consulted on a possible hit. Entries live
+ * until their token expires. The set is rebuilt from {@code revoked_tokens} at startup and
+ * revocations made by other nodes are pulled in the background. {@code revoked_at} is only
+ * ever stamped and compared by the database clock; this node only measures how long it has
+ * been since the last pull, which does not depend on its wall clock.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final long SYNC_OVERLAP_MILLIS = 5_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile long lastSyncNanos;
+
+    @PostConstruct
+    void rebuild() {
+        long startedAt = System.nanoTime();
+        filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now()).forEach(this::add);
+        lastSyncNanos = startedAt;
+    }
+
+    @Override
+    @Transactional
+    public boolean revoke(String jti, Date expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return false;
+        }
+        int inserted = revokedTokenRepository.insertIfAbsent(jti, LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()));
+        revoked.put(jti, expiresAt.getTime());
+        filter.put(jti);
+        return inserted > 0;
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:5000}")
+    public void sync() {
+        long startedAt = System.nanoTime();
+        long windowMillis = TimeUnit.NANOSECONDS.toMillis(startedAt - lastSyncNanos) + SYNC_OVERLAP_MILLIS;
+        revokedTokenRepository.findRevokedWithin(windowMillis, LocalDateTime.now()).forEach(this::add);
+        lastSyncNanos = startedAt;
+    }
+
+    /**
+     * Drops expired ids from memory and from the table, then swaps in a fresh bloom filter
+     * so that bits of expired ids stop producing false positives.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:600000}")
+    @Transactional
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedTokenRepository.deleteExpired(LocalDateTime.now());
+
+        BloomFilter fresh = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(fresh::put);
+        filter = fresh;
+        // ids revoked while the fresh filter was being filled may have gone to the old one
+        revoked.keySet().forEach(fresh::put);
+    }
+
+    private void add(RevokedToken token) {
+        revoked.put(token.getJti(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        filter.put(token.getJti());
+    }
+}
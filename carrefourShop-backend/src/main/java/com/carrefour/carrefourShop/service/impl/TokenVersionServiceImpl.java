@@ -0,0 +1,89 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.TokenVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory table of the current token version of every user, so that the JWT filter can
+ * reject tokens issued before a role change or account removal without querying the database.
+ * Changed rows are pulled incrementally in the background and the whole table is reloaded
+ * periodically to drop deleted accounts. {@code updated_at} is stamped and compared by the
+ * database clock only; this node just measures how long it has been since the last pull.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenVersionServiceImpl implements TokenVersionService {
+
+    private static final int UNKNOWN_USER = -1;
+    private static final long REFRESH_OVERLAP_MILLIS = 5_000;
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @Value("${jwt.token-version.full-refresh-interval:600000}")
+    private long fullRefreshInterval;
+
+    private volatile long lastRefreshNanos;
+    private volatile long lastFullRefreshNanos;
+    private volatile boolean loaded;
+
+    @Override
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer current = versions.get(userId);
+        if (current == null) {
+            current = load(userId);
+        }
+        return current != UNKNOWN_USER && current == tokenVersion;
+    }
+
+    @Override
+    public void remember(Long userId, int tokenVersion) {
+        versions.merge(userId, tokenVersion, Math::max);
+    }
+
+    @Override
+    @Transactional
+    public int revokeAllTokens(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        int current = userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+        versions.put(userId, current);
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.token-version.refresh-interval:30000}")
+    public void refresh() {
+        long startedAt = System.nanoTime();
+
+        if (!loaded || TimeUnit.NANOSECONDS.toMillis(startedAt - lastFullRefreshNanos) >= fullRefreshInterval) {
+            Map<Long, Integer> fresh = new HashMap<>();
+            userRepository.findAllTokenVersions()
+                    .forEach(view -> fresh.put(view.getId(), view.getTokenVersion()));
+            versions.keySet().retainAll(fresh.keySet());
+            versions.putAll(fresh);
+            lastFullRefreshNanos = startedAt;
+            loaded = true;
+        } else {
+            long windowMillis = TimeUnit.NANOSECONDS.toMillis(startedAt - lastRefreshNanos) + REFRESH_OVERLAP_MILLIS;
+            userRepository.findTokenVersionsUpdatedWithin(windowMillis)
+                    .forEach(view -> versions.put(view.getId(), view.getTokenVersion()));
+        }
+        lastRefreshNanos = startedAt;
+    }
+
+    private int load(Long userId) {
+        int current = userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+        versions.merge(userId, current, Math::max);
+        return current;
+    }
+}
@@ -11,14 +11,19 @@ import com.carrefour.carrefourShop.exception.ResourceNotFoundException;
 import com.carrefour.carrefourShop.exception.UnauthorizedException;
 import com.carrefour.carrefourShop.mapper.UserMapper;
 import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.PasswordHashingService;
+import com.carrefour.carrefourShop.service.TokenRevocationService;
+import com.carrefour.carrefourShop.service.TokenVersionService;
 import com.carrefour.carrefourShop.service.UserService;
 import com.carrefour.carrefourShop.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
 @Service
@@ -26,57 +31,121 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final TokenVersionService tokenVersionService;
+    private final TokenRevocationService tokenRevocationService;
     private final UserMapper userMapper;
+    private final PlatformTransactionManager transactionManager;
 
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    void init() {
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * The password is hashed on the password hashing pool before the transaction starts, so no
+     * database connection is held while it waits; the email check and the insert then run in
+     * one short transaction. The unique email constraint still guards against concurrent
+     * registrations.
+     */
     @Override
-    @Transactional
     public UserDto register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
-            throw new BusinessException(ExceptionConstants.EMAIL_ALREADY_EXISTS, ExceptionConstants.getMessage(ExceptionConstants.EMAIL_ALREADY_EXISTS));
+            throw emailAlreadyExists();
         }
 
-        User user = User.builder()
-                .password(passwordEncoder.encode(request.getPassword()))
-                .email(request.getEmail())
-                .firstName(request.getFirstName())
-                .lastName(request.getLastName())
-                .phone(request.getPhone())
-                .role(User.Role.USER)
-                .build();
+        String password = passwordHashingService.encode(request.getPassword());
 
-        user = userRepository.save(user);
+        return writeTransaction.execute(status -> {
+            if (userRepository.existsByEmail(request.getEmail())) {
+                throw emailAlreadyExists();
+            }
 
-        UserDto userDto = userMapper.toDto(user);
+            User user = User.builder()
+                    .password(password)
+                    .email(request.getEmail())
+                    .firstName(request.getFirstName())
+                    .lastName(request.getLastName())
+                    .phone(request.getPhone())
+                    .role(User.Role.USER)
+                    .build();
 
-        return userDto;
+            return userMapper.toDto(userRepository.save(user));
+        });
+    }
+
+    private BusinessException emailAlreadyExists() {
+        return new BusinessException(ExceptionConstants.EMAIL_ALREADY_EXISTS, ExceptionConstants.getMessage(ExceptionConstants.EMAIL_ALREADY_EXISTS));
     }
 
     @Override
     public AuthResponse authenticate(AuthRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new UnauthorizedException(ExceptionConstants.INVALID_EMAIL_OR_PASSWORD, ExceptionConstants.getMessage(ExceptionConstants.INVALID_EMAIL_OR_PASSWORD)));
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new UnauthorizedException(ExceptionConstants.INVALID_EMAIL_OR_PASSWORD, ExceptionConstants.getMessage(ExceptionConstants.INVALID_EMAIL_OR_PASSWORD));
         }
 
-        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .roles(user.getRole().name())
-                .build();
-        String token = jwtUtil.generateToken(userDetails, user.getRole().name());
+        tokenVersionService.remember(user.getId(), user.getTokenVersion());
+        AuthResponse response = issueTokens(user.getEmail(), user.getId(), user.getRole().name(), user.getTokenVersion());
+        response.setFirstName(user.getFirstName());
+        response.setLastName(user.getLastName());
+        return response;
+    }
 
+    @Override
+    public AuthResponse refresh(String refreshToken) {
+        Claims claims = jwtUtil.parseToken(refreshToken)
+                .filter(jwtUtil::isRefreshToken)
+                .orElseThrow(this::invalidRefreshToken);
+
+        Long userId = jwtUtil.getUserId(claims);
+        String role = jwtUtil.getRole(claims);
+        Integer tokenVersion = jwtUtil.getTokenVersion(claims);
+        if (userId == null || role == null || tokenVersion == null
+                || !tokenVersionService.isCurrent(userId, tokenVersion)) {
+            throw invalidRefreshToken();
+        }
+
+        if (!tokenRevocationService.revoke(claims.getId(), claims.getExpiration())) {
+            // a refresh token is single use: presenting it twice means it leaked
+            tokenVersionService.revokeAllTokens(userId);
+            throw invalidRefreshToken();
+        }
+
+        return issueTokens(claims.getSubject(), userId, role, tokenVersion);
+    }
+
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            jwtUtil.parseToken(accessToken)
+                    .ifPresent(claims -> tokenRevocationService.revoke(claims.getId(), claims.getExpiration()));
+        }
+        if (refreshToken != null) {
+            jwtUtil.parseToken(refreshToken)
+                    .filter(jwtUtil::isRefreshToken)
+                    .ifPresent(claims -> tokenRevocationService.revoke(claims.getId(), claims.getExpiration()));
+        }
+    }
+
+    private AuthResponse issueTokens(String email, Long userId, String role, int tokenVersion) {
         return AuthResponse.builder()
-                .token(token)
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .role(user.getRole().name())
+                .token(jwtUtil.generateToken(email, userId, role, tokenVersion))
+                .refreshToken(jwtUtil.generateRefreshToken(email, userId, role, tokenVersion))
+                .expiresIn(jwtUtil.getExpirationSeconds())
+                .email(email)
+                .role(role)
                 .build();
     }
 
+    private UnauthorizedException invalidRefreshToken() {
+        return new UnauthorizedException(ExceptionConstants.INVALID_REFRESH_TOKEN, ExceptionConstants.getMessage(ExceptionConstants.INVALID_REFRESH_TOKEN));
+    }
+
 
     @Override
     public UserDto getCurrentUser(String email) {
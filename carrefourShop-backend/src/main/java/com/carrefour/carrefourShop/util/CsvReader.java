@@ -0,0 +1,95 @@
+package com.carrefour.carrefourShop.util;
+
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 reader: one record at a time, so memory is bounded by the longest
+ * record rather than the input. Quoted fields may contain commas, doubled quotes and line
+ * breaks. An unquoted empty field reads as {@code null}, a quoted one as {@code ""}. Blank
+ * lines are skipped.
+ */
+public final class CsvReader {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Fields of the next record, or {@code null} once the input is exhausted.
+     */
+    public List<String> next() throws IOException {
+        int c = reader.read();
+        while (c == '\n' || c == '\r') {
+            if (c == '\n') {
+                line++;
+            }
+            c = reader.read();
+        }
+        if (c == EOF) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == EOF) {
+                    throw new BusinessException(ExceptionConstants.MALFORMED_IMPORT_FILE,
+                            ExceptionConstants.getMessage(ExceptionConstants.MALFORMED_IMPORT_FILE, recordLine, "unterminated quoted field"));
+                }
+                if (c == '"') {
+                    c = reader.read();
+                    if (c == '"') {
+                        field.append('"');
+                        c = reader.read();
+                    } else {
+                        inQuotes = false;
+                    }
+                    continue;
+                }
+                if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            } else if (c == ',') {
+                fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == EOF) {
+                if (c == '\n') {
+                    line++;
+                }
+                fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                return fields;
+            } else if (c == '"' && field.length() == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * Line on which the record last returned by {@link #next()} starts, 1-based.
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+}
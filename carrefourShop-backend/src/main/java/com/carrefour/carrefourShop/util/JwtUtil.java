@@ -2,28 +2,157 @@ package com.carrefour.carrefourShop.util;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String TOKEN_TYPE_ACCESS = "access";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret:mySecretKeyForJWTTokenGenerationAndValidationMinimum32CharactersLong}")
     private String secret;
 
-    @Value("${jwt.expiration:86400000}")
+    @Value("${jwt.expiration:900000}")
     private Long expiration;
 
+    @Value("${jwt.refresh-expiration:604800000}")
+    private Long refreshExpiration;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    /**
+     * Verified claims keyed by a SHA-256 digest of the compact token, so the raw
+     * bearer string is never retained. Entries are dropped once the token expires.
+     */
+    private final Map<String, CachedClaims> verifiedTokens = new ConcurrentHashMap<>();
+
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+
+        cacheHits = Counter.builder("jwt.cache.requests")
+                .tag("result", "hit")
+                .description("Bearer tokens resolved from the verified-token cache")
+                .register(meterRegistry);
+        cacheMisses = Counter.builder("jwt.cache.requests")
+                .tag("result", "miss")
+                .description("Bearer tokens that required a full signature verification")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", verifiedTokens, Map::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies the token once and returns its claims. Subsequent calls with the same
+     * token are served from the cache until the token's {@code exp} passes.
+     */
+    public Optional<Claims> parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        long now = System.currentTimeMillis();
+        String key = digest(token);
+        CachedClaims cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                cacheHits.increment();
+                return Optional.of(cached.claims());
+            }
+            verifiedTokens.remove(key, cached);
+        }
+
+        cacheMisses.increment();
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        Date exp = claims.getExpiration();
+        if (exp != null) {
+            cache(key, new CachedClaims(claims, exp.getTime()), now);
+        }
+        return Optional.of(claims);
+    }
+
+    public Long getUserId(Claims claims) {
+        Object value = claims.get(CLAIM_USER_ID);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    public String getRole(Claims claims) {
+        return claims.get(CLAIM_ROLE, String.class);
+    }
+
+    public Integer getTokenVersion(Claims claims) {
+        Object value = claims.get(CLAIM_TOKEN_VERSION);
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    public boolean isAccessToken(Claims claims) {
+        return TOKEN_TYPE_ACCESS.equals(claims.get(CLAIM_TOKEN_TYPE, String.class));
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return TOKEN_TYPE_REFRESH.equals(claims.get(CLAIM_TOKEN_TYPE, String.class));
+    }
+
+    public long getExpirationSeconds() {
+        return expiration / 1000;
+    }
+
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -38,11 +167,8 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseToken(token)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
     }
 
     private Boolean isTokenExpired(String token) {
@@ -56,17 +182,40 @@ public class JwtUtil {
 
     public String generateToken(UserDetails userDetails, String role) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("role", role);
+        claims.put(CLAIM_ROLE, role);
         return createToken(claims, userDetails.getUsername());
     }
 
+    public String generateToken(String email, Long userId, String role, int tokenVersion) {
+        return createToken(userClaims(userId, role, tokenVersion, TOKEN_TYPE_ACCESS), email, expiration);
+    }
+
+    public String generateRefreshToken(String email, Long userId, String role, int tokenVersion) {
+        return createToken(userClaims(userId, role, tokenVersion, TOKEN_TYPE_REFRESH), email, refreshExpiration);
+    }
+
+    private Map<String, Object> userClaims(Long userId, String role, int tokenVersion, String tokenType) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, userId);
+        claims.put(CLAIM_ROLE, role);
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
+        claims.put(CLAIM_TOKEN_TYPE, tokenType);
+        return claims;
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
+        return createToken(claims, subject, expiration);
+    }
+
+    private String createToken(Map<String, Object> claims, String subject, long ttl) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ttl))
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -76,24 +225,28 @@ public class JwtUtil {
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            Jwts.parser()
-                .verifyWith((SecretKey) getSignKey())
-                .build()
-                .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseToken(token).isPresent();
     }
 
     public SecretKey getSignKey() {
-        return getSigningKey();
+        return signingKey;
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private void cache(String key, CachedClaims entry, long now) {
+        if (verifiedTokens.size() >= cacheMaxSize) {
+            verifiedTokens.values().removeIf(c -> c.expiresAt() <= now);
+            if (verifiedTokens.size() >= cacheMaxSize) {
+                return;
+            }
+        }
+        verifiedTokens.put(key, entry);
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
     }
-}
 
+    private record CachedClaims(Claims claims, long expiresAt) {
+    }
+}
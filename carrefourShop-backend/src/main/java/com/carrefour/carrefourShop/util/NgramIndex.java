@@ -0,0 +1,292 @@
+package com.carrefour.carrefourShop.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable n-gram index for type-ahead lookups. Texts are accent-folded and lowercased,
+ * then every word contributes its trigrams plus its first one and two characters as edge
+ * grams, so short prefixes resolve without a scan.
+ *
+ * <p>Everything the search touches lives in flat primitive arrays: sorted gram keys, an offset
+ * table and one concatenated {@code int[]} of postings (document ordinals, ascending per gram).
+ * Documents are ordered by id so callers can map an id back to its ordinal with a binary
+ * search.
+ */
+public final class NgramIndex {
+
+    public static final NgramIndex EMPTY = build(List.of());
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int GRAM = 3;
+    private static final long EDGE_FLAG = 1L << 50;
+
+    public record Entry(long id, String label, int popularity) {
+    }
+
+    private final long[] ids;
+    private final String[] labels;
+    private final String[] texts;
+    private final int[] popularity;
+    private final long[] gramKeys;
+    private final int[] offsets;
+    private final int[] postings;
+
+    private NgramIndex(long[] ids, String[] labels, String[] texts, int[] popularity,
+                       long[] gramKeys, int[] offsets, int[] postings) {
+        this.ids = ids;
+        this.labels = labels;
+        this.texts = texts;
+        this.popularity = popularity;
+        this.gramKeys = gramKeys;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    public static NgramIndex build(List<Entry> entries) {
+        Entry[] sorted = entries.toArray(Entry[]::new);
+        Arrays.sort(sorted, Comparator.comparingLong(Entry::id));
+
+        int docs = sorted.length;
+        long[] ids = new long[docs];
+        String[] labels = new String[docs];
+        String[] texts = new String[docs];
+        int[] popularity = new int[docs];
+        long[][] docGrams = new long[docs][];
+        Map<Long, int[]> counts = new HashMap<>();
+        for (int doc = 0; doc < docs; doc++) {
+            ids[doc] = sorted[doc].id();
+            labels[doc] = sorted[doc].label();
+            texts[doc] = normalize(sorted[doc].label());
+            popularity[doc] = Math.max(0, sorted[doc].popularity());
+            docGrams[doc] = grams(texts[doc]);
+            for (long gram : docGrams[doc]) {
+                counts.computeIfAbsent(gram, g -> new int[1])[0]++;
+            }
+        }
+
+        long[] gramKeys = counts.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] offsets = new int[gramKeys.length + 1];
+        for (int term = 0; term < gramKeys.length; term++) {
+            offsets[term + 1] = offsets[term] + counts.get(gramKeys[term])[0];
+        }
+        int[] postings = new int[offsets[gramKeys.length]];
+        int[] fill = Arrays.copyOf(offsets, gramKeys.length);
+        for (int doc = 0; doc < docs; doc++) {
+            for (long gram : docGrams[doc]) {
+                postings[fill[Arrays.binarySearch(gramKeys, gram)]++] = doc;
+            }
+        }
+        return new NgramIndex(ids, labels, texts, popularity, gramKeys, offsets, postings);
+    }
+
+    /**
+     * Accent-folds, lowercases and collapses everything that is not a letter or digit to a
+     * single space.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Ordinal of the document with the given id, or -1 if it is not indexed.
+     */
+    public int ordinalOf(long id) {
+        int ordinal = Arrays.binarySearch(ids, id);
+        return ordinal >= 0 ? ordinal : -1;
+    }
+
+    /**
+     * Offers every document matching all words of the normalized query to {@code top},
+     * skipping ordinals set in {@code excluded}.
+     */
+    public void search(String normalizedQuery, TopK top, BitSet excluded) {
+        if (normalizedQuery.isEmpty() || ids.length == 0) {
+            return;
+        }
+        String[] words = normalizedQuery.split(" ");
+        long[] queryGrams = queryGrams(words);
+
+        int[] starts = new int[queryGrams.length];
+        int[] ends = new int[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; i++) {
+            int term = Arrays.binarySearch(gramKeys, queryGrams[i]);
+            if (term < 0) {
+                return;
+            }
+            starts[i] = offsets[term];
+            ends[i] = offsets[term + 1];
+        }
+        int shortest = 0;
+        for (int i = 1; i < queryGrams.length; i++) {
+            if (ends[i] - starts[i] < ends[shortest] - starts[shortest]) {
+                shortest = i;
+            }
+        }
+
+        candidates:
+        for (int p = starts[shortest]; p < ends[shortest]; p++) {
+            int doc = postings[p];
+            if (excluded != null && excluded.get(doc)) {
+                continue;
+            }
+            for (int i = 0; i < queryGrams.length; i++) {
+                if (i != shortest && Arrays.binarySearch(postings, starts[i], ends[i], doc) < 0) {
+                    continue candidates;
+                }
+            }
+            int quality = matchQuality(texts[doc], normalizedQuery, words);
+            if (quality > 0) {
+                top.offer(ids[doc], labels[doc], score(quality, popularity[doc], texts[doc].length()));
+            }
+        }
+    }
+
+    /**
+     * 3 when the text starts with the whole query, 2 when every query word starts a word of
+     * the text, 1 when the words only occur inside other words, 0 when a gram co-occurrence
+     * turned out not to be a real match.
+     */
+    private static int matchQuality(String text, String query, String[] words) {
+        if (text.startsWith(query)) {
+            return 3;
+        }
+        int quality = 2;
+        for (String word : words) {
+            if (!text.startsWith(word) && !text.contains(" " + word)) {
+                if (!text.contains(word)) {
+                    return 0;
+                }
+                quality = 1;
+            }
+        }
+        return quality;
+    }
+
+    private static long score(int quality, int popularity, int length) {
+        return ((long) quality << 40) | ((long) popularity << 8) | (255 - Math.min(length, 255));
+    }
+
+    private static long[] grams(String text) {
+        if (text.isEmpty()) {
+            return new long[0];
+        }
+        String[] words = text.split(" ");
+        long[] grams = new long[0];
+        int count = 0;
+        for (String word : words) {
+            int needed = count + 2 + Math.max(0, word.length() - GRAM + 1);
+            if (needed > grams.length) {
+                grams = Arrays.copyOf(grams, Math.max(needed, grams.length * 2));
+            }
+            for (int length = 1; length < GRAM && length <= word.length(); length++) {
+                grams[count++] = edgeKey(word, length);
+            }
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                grams[count++] = key(word, i, GRAM);
+            }
+        }
+        long[] unique = Arrays.copyOf(grams, count);
+        Arrays.sort(unique);
+        int distinct = 0;
+        for (int i = 0; i < unique.length; i++) {
+            if (i == 0 || unique[i] != unique[i - 1]) {
+                unique[distinct++] = unique[i];
+            }
+        }
+        return Arrays.copyOf(unique, distinct);
+    }
+
+    private static long[] queryGrams(String[] words) {
+        long[] grams = new long[0];
+        int count = 0;
+        for (String word : words) {
+            int needed = count + Math.max(1, word.length() - GRAM + 1);
+            if (needed > grams.length) {
+                grams = Arrays.copyOf(grams, Math.max(needed, grams.length * 2));
+            }
+            if (word.length() < GRAM) {
+                grams[count++] = edgeKey(word, word.length());
+            } else {
+                for (int i = 0; i + GRAM <= word.length(); i++) {
+                    grams[count++] = key(word, i, GRAM);
+                }
+            }
+        }
+        return Arrays.copyOf(grams, count);
+    }
+
+    private static long edgeKey(String word, int length) {
+        return EDGE_FLAG | key(word, 0, length);
+    }
+
+    private static long key(String word, int start, int length) {
+        long key = (long) length << 48;
+        for (int i = 0; i < length; i++) {
+            key |= (long) word.charAt(start + i) << (16 * i);
+        }
+        return key;
+    }
+
+    /**
+     * Bounded collector of the best-scoring matches, kept sorted by descending score. Sized
+     * for type-ahead result counts, where an insertion into a short array beats a heap.
+     */
+    public static final class TopK {
+
+        private final long[] ids;
+        private final String[] labels;
+        private final long[] scores;
+        private int size;
+
+        public TopK(int k) {
+            this.ids = new long[k];
+            this.labels = new String[k];
+            this.scores = new long[k];
+        }
+
+        void offer(long id, String label, long score) {
+            if (size == scores.length && score <= scores[size - 1]) {
+                return;
+            }
+            int position = size == scores.length ? size - 1 : size++;
+            while (position > 0 && scores[position - 1] < score) {
+                ids[position] = ids[position - 1];
+                labels[position] = labels[position - 1];
+                scores[position] = scores[position - 1];
+                position--;
+            }
+            ids[position] = id;
+            labels[position] = label;
+            scores[position] = score;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long id(int rank) {
+            return ids[rank];
+        }
+
+        public String label(int rank) {
+            return labels[rank];
+        }
+    }
+}
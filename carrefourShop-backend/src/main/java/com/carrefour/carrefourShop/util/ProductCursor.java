@@ -0,0 +1,55 @@
+package com.carrefour.carrefourShop.util;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import com.carrefour.carrefourShop.dto.ProductSortKey;
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort order plus the sort value and id of the last row returned,
+ * base64url encoded so clients treat it as a token.
+ */
+public record ProductCursor(ProductSort sort, Long id, String value) {
+
+    public static ProductCursor after(ProductSort sort, ProductSortKey last) {
+        return new ProductCursor(sort, last.getId(), sort.cursorValue(last));
+    }
+
+    public ProductDto key() {
+        return sort.cursorKey(id, value);
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}. The cursor must have been issued for the
+     * same sort order as the current request.
+     */
+    public static ProductCursor decode(String cursor, ProductSort expectedSort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            ProductSort sort = ProductSort.valueOf(parts[0]);
+            if (parts.length != 3 || sort != expectedSort) {
+                throw invalid();
+            }
+            return new ProductCursor(sort, Long.parseLong(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw invalid();
+        }
+    }
+
+    private static BusinessException invalid() {
+        return new BusinessException(ExceptionConstants.INVALID_CURSOR, ExceptionConstants.getMessage(ExceptionConstants.INVALID_CURSOR));
+    }
+}
@@ -0,0 +1,71 @@
+package com.carrefour.carrefourShop.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-key sliding-window counter. Each key keeps the count of the current and the previous
+ * fixed window; the previous one is weighted by how much of it still overlaps the sliding
+ * window. State is an immutable snapshot swapped with CAS, so no locks are taken.
+ */
+public class SlidingWindowRateLimiter {
+
+    private final int maxAttempts;
+    private final long windowMillis;
+    private final Map<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+
+    public SlidingWindowRateLimiter(int maxAttempts, long windowMillis) {
+        this.maxAttempts = maxAttempts;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Records an attempt for the key and returns {@code false} without recording it when the
+     * key already reached its limit within the sliding window.
+     */
+    public boolean tryAcquire(String key, long now) {
+        AtomicReference<Window> ref = windows.computeIfAbsent(key,
+                k -> new AtomicReference<>(new Window(windowStart(now), 0, 0)));
+        while (true) {
+            Window current = ref.get();
+            Window rolled = current.roll(windowStart(now), windowMillis);
+            double elapsed = (double) (now - rolled.start()) / windowMillis;
+            double estimated = rolled.previous() * (1 - elapsed) + rolled.current();
+            if (estimated >= maxAttempts) {
+                return false;
+            }
+            Window next = new Window(rolled.start(), rolled.current() + 1, rolled.previous());
+            if (ref.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drops keys that saw no attempt during the last two windows.
+     */
+    public void evictIdle(long now) {
+        long threshold = windowStart(now) - windowMillis;
+        windows.values().removeIf(ref -> ref.get().start() < threshold);
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    private long windowStart(long now) {
+        return now - (now % windowMillis);
+    }
+
+    private record Window(long start, int current, int previous) {
+
+        Window roll(long currentStart, long windowMillis) {
+            if (currentStart == start) {
+                return this;
+            }
+            int carried = currentStart - start == windowMillis ? current : 0;
+            return new Window(currentStart, 0, carried);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.carrefour.carrefourShop.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Non-negative count split over several stripes so that concurrent takers rarely touch the
+ * same memory. A take starts on a stripe picked per call and moves on to the others only when
+ * that one runs short; each stripe is updated with CAS, so no locks are taken. Stripes sit a
+ * cache line apart to avoid false sharing.
+ *
+ * <p>A take that no single stripe covers gathers units from several, and puts them back if
+ * the stripes together still fall short. While gathered units are in hand they are on no
+ * stripe, so a concurrent take can see less than the total and fail; in the worst case,
+ * with takes near the last units, both fail where one of them would have succeeded.
+ */
+public class StripedCounter {
+
+    private static final int PADDING = 8;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    public StripedCounter(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+    }
+
+    /**
+     * Takes {@code units}, from one stripe when one holds that many, otherwise from several.
+     * Returns {@code false}, taking nothing, when the stripes together hold fewer.
+     */
+    public boolean tryTake(long units) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PADDING;
+            long current = cells.get(cell);
+            while (current >= units) {
+                if (cells.compareAndSet(cell, current, current - units)) {
+                    return true;
+                }
+                current = cells.get(cell);
+            }
+        }
+        return gather(units, start);
+    }
+
+    private boolean gather(long units, int start) {
+        long[] taken = new long[stripes];
+        long remaining = units;
+        for (int i = 0; i < stripes && remaining > 0; i++) {
+            int stripe = (start + i) % stripes;
+            int cell = stripe * PADDING;
+            long current = cells.get(cell);
+            while (current > 0) {
+                long part = Math.min(current, remaining);
+                if (cells.compareAndSet(cell, current, current - part)) {
+                    taken[stripe] = part;
+                    remaining -= part;
+                    break;
+                }
+                current = cells.get(cell);
+            }
+        }
+        if (remaining == 0) {
+            return true;
+        }
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (taken[stripe] > 0) {
+                cells.addAndGet(stripe * PADDING, taken[stripe]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds {@code units}, spread evenly over the stripes.
+     */
+    public void add(long units) {
+        long share = units / stripes;
+        long remainder = units % stripes;
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            long stripeUnits = share + (i < remainder ? 1 : 0);
+            if (stripeUnits > 0) {
+                cells.addAndGet(((start + i) % stripes) * PADDING, stripeUnits);
+            }
+        }
+    }
+
+    /**
+     * Empties every stripe and returns what they held.
+     */
+    public long drain() {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    /**
+     * Current total. Not atomic across stripes, so only an estimate while takers are active.
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+}
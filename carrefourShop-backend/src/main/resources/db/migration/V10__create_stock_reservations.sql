@@ -0,0 +1,24 @@
+-- Stock held for carts. Each cart holds at most one reservation per product, which lapses at
+-- expires_at unless the cart touches it again or checks out. products.reserved is the running
+-- total of live reservations, kept in step by the statements that change them, so available
+-- stock (stock - reserved) can be checked and taken in one guarded UPDATE without a SUM.
+
+ALTER TABLE public.products ADD COLUMN IF NOT EXISTS reserved int4 DEFAULT 0 NOT NULL;
+
+CREATE SEQUENCE IF NOT EXISTS public.stock_reservations_seq INCREMENT BY 50 MINVALUE 1 START WITH 1;
+
+CREATE TABLE IF NOT EXISTS public.stock_reservations (
+                                   id int8 DEFAULT nextval('public.stock_reservations_seq') NOT NULL,
+                                   cart_id int8 NOT NULL,
+                                   product_id int8 NOT NULL,
+                                   quantity int4 NOT NULL,
+                                   expires_at timestamp(6) NOT NULL,
+                                   CONSTRAINT stock_reservations_pkey PRIMARY KEY (id),
+                                   CONSTRAINT stock_reservations_cart_id_product_id_key UNIQUE (cart_id, product_id),
+                                   CONSTRAINT fk_stock_reservations_cart FOREIGN KEY (cart_id) REFERENCES public.carts(id),
+                                   CONSTRAINT fk_stock_reservations_product FOREIGN KEY (product_id) REFERENCES public.products(id)
+);
+
+ALTER SEQUENCE public.stock_reservations_seq OWNED BY public.stock_reservations.id;
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_expires_at ON public.stock_reservations (expires_at);
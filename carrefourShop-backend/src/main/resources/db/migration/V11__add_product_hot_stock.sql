@@ -0,0 +1,9 @@
+-- Opt-in hot mode for flash-sale products. A hot product's stock is handed to application
+-- nodes in blocks, which sell from memory instead of updating the row per checkout.
+-- products.leased is the total handed out and not yet settled; it is set aside like
+-- products.reserved, so available stock is stock - reserved - leased.
+
+ALTER TABLE public.products ADD COLUMN IF NOT EXISTS hot bool DEFAULT false NOT NULL;
+ALTER TABLE public.products ADD COLUMN IF NOT EXISTS leased int4 DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_products_hot ON public.products (id) WHERE hot;
@@ -0,0 +1,20 @@
+-- Asynchronous order intake. An accepted order keeps the cart as its lines, with the units
+-- the cart held (order_items.held) still counted in products.reserved, and gets a row in
+-- order_jobs. Workers on any node claim due jobs with FOR UPDATE SKIP LOCKED, take the stock
+-- and move the order on to PENDING, or to REJECTED with the reason in status_reason.
+
+ALTER TABLE public.orders DROP CONSTRAINT IF EXISTS orders_status_check;
+ALTER TABLE public.orders ADD CONSTRAINT orders_status_check CHECK (((status)::text = ANY ((ARRAY['ACCEPTED'::character varying, 'PENDING'::character varying, 'CONFIRMED'::character varying, 'PROCESSING'::character varying, 'SHIPPED'::character varying, 'DELIVERED'::character varying, 'CANCELLED'::character varying, 'REJECTED'::character varying])::text[])));
+ALTER TABLE public.orders ADD COLUMN IF NOT EXISTS status_reason varchar(255) NULL;
+
+ALTER TABLE public.order_items ADD COLUMN IF NOT EXISTS held int4 DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS public.order_jobs (
+                                   order_id int8 NOT NULL,
+                                   attempts int4 DEFAULT 0 NOT NULL,
+                                   available_at timestamp(6) NOT NULL,
+                                   CONSTRAINT order_jobs_pkey PRIMARY KEY (order_id),
+                                   CONSTRAINT fk_order_jobs_order FOREIGN KEY (order_id) REFERENCES public.orders(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_jobs_available_at ON public.order_jobs (available_at, order_id);
@@ -0,0 +1,16 @@
+-- Transactional outbox. Events are written in the transaction that caused them and
+-- dispatched afterwards by a poller that claims pending rows with FOR UPDATE SKIP LOCKED.
+-- Dispatched rows are kept for a while, then removed by id range below the oldest row that
+-- is still pending or recent.
+
+CREATE TABLE IF NOT EXISTS public.outbox (
+                               id int8 GENERATED BY DEFAULT AS IDENTITY( INCREMENT BY 1 MINVALUE 1 MAXVALUE 9223372036854775807 START 1 CACHE 1 NO CYCLE) NOT NULL,
+                               event_type varchar(100) NOT NULL,
+                               aggregate_id int8 NULL,
+                               payload jsonb NOT NULL,
+                               created_at timestamp(6) DEFAULT LOCALTIMESTAMP NOT NULL,
+                               dispatched_at timestamp(6) NULL,
+                               CONSTRAINT outbox_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON public.outbox (id) WHERE dispatched_at IS NULL;
@@ -0,0 +1,25 @@
+-- The JWT filter builds the principal from the role claim, so a token must stop working as
+-- soon as the role, email or password it was issued for changes. Bumping token_version in a
+-- trigger covers every writer, including admin SQL; nodes pick the new version up on their
+-- next incremental token version refresh. The version never goes backwards, so an entity
+-- saved with a stale token_version cannot revive tokens that were already revoked.
+
+CREATE OR REPLACE FUNCTION public.users_token_version_bump() RETURNS trigger AS $$
+BEGIN
+    NEW.token_version := GREATEST(NEW.token_version, OLD.token_version);
+    IF NEW."role" IS DISTINCT FROM OLD."role"
+        OR NEW.email IS DISTINCT FROM OLD.email
+        OR NEW."password" IS DISTINCT FROM OLD."password" THEN
+        NEW.token_version := NEW.token_version + 1;
+        NEW.updated_at := GREATEST(NEW.updated_at, LOCALTIMESTAMP);
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_users_token_version_bump ON public.users;
+CREATE TRIGGER trg_users_token_version_bump
+    BEFORE UPDATE
+    ON public.users
+    FOR EACH ROW
+EXECUTE FUNCTION public.users_token_version_bump();
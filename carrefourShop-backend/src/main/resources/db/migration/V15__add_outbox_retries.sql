@@ -0,0 +1,14 @@
+-- Per-event outbox retries. A poller leases due rows by pushing available_at forward, delivers
+-- each event on its own and marks it dispatched; an event whose delivery fails counts the
+-- attempt, keeps the error in last_error and is held back for a while, so it no longer
+-- blocks the rows behind it. After too many attempts it is parked: it stays in the table for
+-- inspection, is never claimed again and is left alone by the cleanup.
+
+ALTER TABLE public.outbox ADD COLUMN IF NOT EXISTS attempts int4 DEFAULT 0 NOT NULL;
+ALTER TABLE public.outbox ADD COLUMN IF NOT EXISTS last_error varchar(1000) NULL;
+ALTER TABLE public.outbox ADD COLUMN IF NOT EXISTS available_at timestamp(6) DEFAULT LOCALTIMESTAMP NOT NULL;
+ALTER TABLE public.outbox ADD COLUMN IF NOT EXISTS parked_at timestamp(6) NULL;
+
+DROP INDEX IF EXISTS public.idx_outbox_pending;
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON public.outbox (id) WHERE dispatched_at IS NULL AND parked_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_outbox_parked ON public.outbox (id) WHERE parked_at IS NOT NULL;
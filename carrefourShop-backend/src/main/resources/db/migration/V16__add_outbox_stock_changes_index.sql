@@ -0,0 +1,4 @@
+-- Every node's catalog cache reads the stock.changed rows written in the last few seconds to
+-- reload the products that orders on other nodes sold from.
+
+CREATE INDEX IF NOT EXISTS idx_outbox_stock_changed ON public.outbox (created_at) WHERE event_type = 'stock.changed';
@@ -0,0 +1,6 @@
+-- Per-user token version embedded in every JWT. Bumping it invalidates all
+-- tokens issued before a role change or account removal.
+
+ALTER TABLE public.users ADD COLUMN IF NOT EXISTS token_version int4 NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON public.users (updated_at);
@@ -0,0 +1,12 @@
+-- Revoked JWT ids (jti). Rows only live until the token itself expires, so the
+-- table stays small and is loaded into memory at startup.
+
+CREATE TABLE IF NOT EXISTS public.revoked_tokens (
+                                       jti varchar(36) NOT NULL,
+                                       expires_at timestamp(6) NOT NULL,
+                                       revoked_at timestamp(6) NOT NULL DEFAULT now(),
+                                       CONSTRAINT revoked_tokens_pkey PRIMARY KEY (jti)
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON public.revoked_tokens (expires_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON public.revoked_tokens (revoked_at);
@@ -0,0 +1,10 @@
+-- Keyset pagination indexes: one per sort order, each ending with id as the tie-breaker.
+-- Partial on active so inactive products never take up index space.
+
+CREATE INDEX IF NOT EXISTS idx_products_active_name_id ON public.products ("name", id) WHERE active;
+CREATE INDEX IF NOT EXISTS idx_products_active_price_id ON public.products (price, id) WHERE active;
+CREATE INDEX IF NOT EXISTS idx_products_active_created_id ON public.products (created_at DESC, id DESC) WHERE active;
+
+CREATE INDEX IF NOT EXISTS idx_products_active_category_name_id ON public.products (category, "name", id) WHERE active;
+CREATE INDEX IF NOT EXISTS idx_products_active_category_price_id ON public.products (category, price, id) WHERE active;
+CREATE INDEX IF NOT EXISTS idx_products_active_category_created_id ON public.products (category, created_at DESC, id DESC) WHERE active;
@@ -0,0 +1,31 @@
+-- Weighted full-text document for product search: name (A) > brand and category (B) > description (C).
+-- French stemming matches the catalog language. Maintained by trigger so every writer keeps it current.
+
+ALTER TABLE public.products ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION public.products_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+            setweight(to_tsvector('french', coalesce(NEW."name", '')), 'A') ||
+            setweight(to_tsvector('french', coalesce(NEW.brand, '')), 'B') ||
+            setweight(to_tsvector('french', coalesce(NEW.category, '')), 'B') ||
+            setweight(to_tsvector('french', coalesce(NEW.description, '')), 'C');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_products_search_vector ON public.products;
+CREATE TRIGGER trg_products_search_vector
+    BEFORE INSERT OR UPDATE OF "name", brand, category, description
+    ON public.products
+    FOR EACH ROW
+EXECUTE FUNCTION public.products_search_vector_update();
+
+UPDATE public.products
+SET search_vector =
+        setweight(to_tsvector('french', coalesce("name", '')), 'A') ||
+        setweight(to_tsvector('french', coalesce(brand, '')), 'B') ||
+        setweight(to_tsvector('french', coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('french', coalesce(description, '')), 'C');
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON public.products USING GIN (search_vector);
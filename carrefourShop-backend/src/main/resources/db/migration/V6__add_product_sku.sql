@@ -0,0 +1,6 @@
+-- Merchant SKU: the natural key bulk imports upsert on. Products created before imports
+-- existed keep a NULL sku, which the unique index allows any number of.
+
+ALTER TABLE public.products ADD COLUMN IF NOT EXISTS sku varchar(64) NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS products_sku_key ON public.products (sku);
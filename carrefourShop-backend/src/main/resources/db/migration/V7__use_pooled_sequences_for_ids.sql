@@ -0,0 +1,35 @@
+-- Replace identity columns with sequences that hand out blocks of 50 ids. Hibernate's
+-- pooled-lo optimizer reserves a block with one nextval and numbers rows from it locally,
+-- which lets inserts be JDBC batched. The column default keeps plain SQL inserts (bulk
+-- import) working: each one takes a fresh block start, so it never collides with a block
+-- Hibernate is using.
+
+ALTER TABLE public.products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.products_seq INCREMENT BY 50 MINVALUE 1 START WITH 1 OWNED BY public.products.id;
+SELECT setval('public.products_seq', COALESCE((SELECT MAX(id) FROM public.products), 0) + 1, false);
+ALTER TABLE public.products ALTER COLUMN id SET DEFAULT nextval('public.products_seq');
+
+ALTER TABLE public.users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.users_seq INCREMENT BY 50 MINVALUE 1 START WITH 1 OWNED BY public.users.id;
+SELECT setval('public.users_seq', COALESCE((SELECT MAX(id) FROM public.users), 0) + 1, false);
+ALTER TABLE public.users ALTER COLUMN id SET DEFAULT nextval('public.users_seq');
+
+ALTER TABLE public.carts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.carts_seq INCREMENT BY 50 MINVALUE 1 START WITH 1 OWNED BY public.carts.id;
+SELECT setval('public.carts_seq', COALESCE((SELECT MAX(id) FROM public.carts), 0) + 1, false);
+ALTER TABLE public.carts ALTER COLUMN id SET DEFAULT nextval('public.carts_seq');
+
+ALTER TABLE public.cart_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.cart_items_seq INCREMENT BY 50 MINVALUE 1 START WITH 1 OWNED BY public.cart_items.id;
+SELECT setval('public.cart_items_seq', COALESCE((SELECT MAX(id) FROM public.cart_items), 0) + 1, false);
+ALTER TABLE public.cart_items ALTER COLUMN id SET DEFAULT nextval('public.cart_items_seq');
+
+ALTER TABLE public.orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.orders_seq INCREMENT BY 50 MINVALUE 1 START WITH 1 OWNED BY public.orders.id;
+SELECT setval('public.orders_seq', COALESCE((SELECT MAX(id) FROM public.orders), 0) + 1, false);
+ALTER TABLE public.orders ALTER COLUMN id SET DEFAULT nextval('public.orders_seq');
+
+ALTER TABLE public.order_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS public.order_items_seq INCREMENT BY 50 MINVALUE 1 START WITH 1 OWNED BY public.order_items.id;
+SELECT setval('public.order_items_seq', COALESCE((SELECT MAX(id) FROM public.order_items), 0) + 1, false);
+ALTER TABLE public.order_items ALTER COLUMN id SET DEFAULT nextval('public.order_items_seq');
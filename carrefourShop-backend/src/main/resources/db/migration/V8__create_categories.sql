@@ -0,0 +1,65 @@
+-- Category hierarchy as a materialized path: "Fresh > Dairy > Milk" has the parents "Fresh"
+-- and "Fresh > Dairy". products.category keeps the path text; category_id points at the
+-- node and, like every missing ancestor, is created by trigger so all writers stay in sync.
+
+CREATE SEQUENCE IF NOT EXISTS public.categories_seq INCREMENT BY 50 MINVALUE 1 START WITH 1;
+
+CREATE TABLE IF NOT EXISTS public.categories (
+                                   id int8 DEFAULT nextval('public.categories_seq') NOT NULL,
+                                   parent_id int8 NULL,
+                                   "name" varchar(255) NOT NULL,
+                                   "path" varchar(1000) NOT NULL,
+                                   "depth" int4 NOT NULL,
+                                   CONSTRAINT categories_pkey PRIMARY KEY (id),
+                                   CONSTRAINT categories_path_key UNIQUE ("path"),
+                                   CONSTRAINT fk_categories_parent FOREIGN KEY (parent_id) REFERENCES public.categories(id)
+);
+
+ALTER SEQUENCE public.categories_seq OWNED BY public.categories.id;
+
+CREATE INDEX IF NOT EXISTS idx_categories_parent ON public.categories (parent_id);
+
+ALTER TABLE public.products ADD COLUMN IF NOT EXISTS category_id int8 NULL REFERENCES public.categories(id);
+
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON public.products (category_id);
+
+-- Returns the id of the node for a category path, creating it and its ancestors if needed.
+-- Segments are trimmed, so "Fresh>Dairy" and "Fresh > Dairy" are the same node.
+CREATE OR REPLACE FUNCTION public.ensure_category(category_path varchar) RETURNS int8 AS $$
+DECLARE
+    segments text[];
+    node_path text;
+    node_id int8;
+BEGIN
+    IF category_path IS NULL OR btrim(category_path) = '' THEN
+        RETURN NULL;
+    END IF;
+    segments := regexp_split_to_array(btrim(category_path), '\s*>\s*');
+    FOR i IN 1 .. array_length(segments, 1) LOOP
+        node_path := CASE WHEN i = 1 THEN segments[i] ELSE node_path || ' > ' || segments[i] END;
+        INSERT INTO public.categories (parent_id, "name", "path", "depth")
+        VALUES (node_id, segments[i], node_path, i - 1)
+        ON CONFLICT ("path") DO NOTHING;
+        SELECT id INTO node_id FROM public.categories WHERE "path" = node_path;
+    END LOOP;
+    RETURN node_id;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION public.products_category_sync() RETURNS trigger AS $$
+BEGIN
+    NEW.category_id := public.ensure_category(NEW.category);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_products_category_sync ON public.products;
+CREATE TRIGGER trg_products_category_sync
+    BEFORE INSERT OR UPDATE OF category
+    ON public.products
+    FOR EACH ROW
+EXECUTE FUNCTION public.products_category_sync();
+
+UPDATE public.products
+SET category_id = public.ensure_category(category)
+WHERE category IS NOT NULL;
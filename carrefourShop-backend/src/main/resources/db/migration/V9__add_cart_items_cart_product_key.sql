@@ -0,0 +1,16 @@
+-- One cart line per product: adds to the cart upsert on (cart_id, product_id). Lines that
+-- concurrent adds duplicated are merged into the oldest one first, quantities summed.
+
+UPDATE public.cart_items ci
+SET quantity = dup.quantity, updated_at = LOCALTIMESTAMP
+FROM (SELECT min(id) AS id, sum(quantity) AS quantity
+      FROM public.cart_items
+      GROUP BY cart_id, product_id
+      HAVING count(*) > 1) dup
+WHERE ci.id = dup.id;
+
+DELETE FROM public.cart_items ci
+USING public.cart_items kept
+WHERE kept.cart_id = ci.cart_id AND kept.product_id = ci.product_id AND kept.id < ci.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS cart_items_cart_id_product_id_key ON public.cart_items (cart_id, product_id);
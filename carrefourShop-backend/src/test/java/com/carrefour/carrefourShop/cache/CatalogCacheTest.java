@@ -0,0 +1,201 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.mapper.ProductMapper;
+import com.carrefour.carrefourShop.repository.OutboxRepository;
+import com.carrefour.carrefourShop.repository.OutboxRepository.StockChange;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Product> rows = new ConcurrentHashMap<>();
+    private final List<Set<Long>> reloads = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<CatalogChangedEvent> events = new LinkedBlockingQueue<>();
+
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 3; id++) {
+            rows.put(id, product(id, 10));
+        }
+        lenient().when(productMapper.toDto(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            return ProductDto.builder()
+                    .id(product.getId())
+                    .name(product.getName())
+                    .price(product.getPrice())
+                    .stock(product.getStock())
+                    .category(product.getCategory())
+                    .active(product.getActive())
+                    .createdAt(product.getCreatedAt())
+                    .build();
+        });
+        lenient().when(productRepository.findByActiveTrue()).thenAnswer(invocation -> new ArrayList<>(rows.values()));
+        lenient().when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Set<Long> ids = Set.copyOf(invocation.<List<Long>>getArgument(0));
+            reloads.add(ids);
+            return ids.stream().map(rows::get).filter(product -> product != null).toList();
+        });
+        lenient().doAnswer(invocation -> events.add(invocation.getArgument(0)))
+                .when(eventPublisher).publishEvent(any(Object.class));
+
+        catalogCache = new CatalogCache(productRepository, outboxRepository, productMapper, transactionManager,
+                new SimpleMeterRegistry(), eventPublisher);
+        ReflectionTestUtils.setField(catalogCache, "enabled", true);
+        catalogCache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogCache.shutdown();
+    }
+
+    @Test
+    void snapshot_ShouldLoadOnceAndServeFromMemory() {
+        CatalogSnapshot first = catalogCache.snapshot();
+        CatalogSnapshot second = catalogCache.snapshot();
+
+        assertSame(first, second);
+        assertEquals(3, first.size());
+        verify(productRepository, times(1)).findByActiveTrue();
+    }
+
+    @Test
+    void invalidate_ShouldSwapInANewSnapshotAndLeaveTheOldOneAlone() throws InterruptedException {
+        CatalogSnapshot before = catalogCache.snapshot();
+        awaitEvent();
+        rows.put(2L, product(2L, 4));
+
+        catalogCache.invalidate(List.of(2L));
+
+        CatalogChangedEvent event = awaitEvent();
+        assertEquals(Set.of(2L), event.changedIds());
+        assertSame(event.snapshot(), catalogCache.snapshot());
+        assertEquals(4, catalogCache.snapshot().getProduct(2L).getStock());
+        assertEquals(10, before.getProduct(2L).getStock());
+        assertTrue(event.snapshot().getVersion() > before.getVersion());
+    }
+
+    @Test
+    void invalidate_WhileARefreshRuns_ShouldCoalesceLaterChangesIntoOneReload() throws InterruptedException {
+        catalogCache.snapshot();
+        awaitEvent();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Set<Long> ids = Set.copyOf(invocation.<List<Long>>getArgument(0));
+            reloads.add(ids);
+            if (reloads.size() == 1) {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return ids.stream().map(rows::get).toList();
+        }).when(productRepository).findAllById(anyIterable());
+
+        catalogCache.invalidate(List.of(1L));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        catalogCache.invalidate(List.of(2L));
+        catalogCache.invalidate(List.of(3L));
+        catalogCache.invalidate(List.of(2L));
+        release.countDown();
+
+        assertEquals(Set.of(1L), awaitEvent().changedIds());
+        assertEquals(Set.of(2L, 3L), awaitEvent().changedIds());
+        assertEquals(List.of(Set.of(1L), Set.of(2L, 3L)), reloads);
+    }
+
+    @Test
+    void syncStockChanges_ShouldReloadEachStockChangeOnce() throws InterruptedException {
+        catalogCache.snapshot();
+        awaitEvent();
+        when(outboxRepository.findRecentStockChanges(anyLong())).thenReturn(List.of(new StockChange(10L, 2L)));
+        rows.put(2L, product(2L, 1));
+
+        catalogCache.syncStockChanges();
+        assertEquals(Set.of(2L), awaitEvent().changedIds());
+        assertEquals(1, catalogCache.snapshot().getProduct(2L).getStock());
+
+        // the same event is still inside the overlapping window
+        catalogCache.syncStockChanges();
+        catalogCache.invalidate(List.of(3L));
+        assertEquals(Set.of(3L), awaitEvent().changedIds());
+
+        assertEquals(List.of(Set.of(2L), Set.of(3L)), reloads);
+        verify(outboxRepository, times(2)).findRecentStockChanges(longThat(window -> window >= 5_000));
+    }
+
+    @Test
+    void syncStockChanges_BeforeFirstLoad_ShouldNotLoadTheCatalog() {
+        when(outboxRepository.findRecentStockChanges(anyLong())).thenReturn(List.of(new StockChange(10L, 2L)));
+
+        catalogCache.syncStockChanges();
+
+        verifyNoInteractions(productRepository);
+    }
+
+    private CatalogChangedEvent awaitEvent() throws InterruptedException {
+        CatalogChangedEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        return event;
+    }
+
+    private static Product product(Long id, int stock) {
+        return Product.builder()
+                .id(id)
+                .name("Produit " + id)
+                .price(new BigDecimal("1.00"))
+                .stock(stock)
+                .category("Épicerie")
+                .active(true)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(id))
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.FacetCountDto;
+import com.carrefour.carrefourShop.dto.FacetsDto;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductFilter;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogColumnsTest {
+
+    private final CatalogColumns columns = CatalogColumns.of(List.of(
+            product(1L, "Épicerie", "Lu", "1.50", 10),
+            product(2L, "Épicerie", "Carrefour", "3.20", 0),
+            product(3L, "Boissons", "Carrefour", "1.99", 5),
+            product(4L, "Boissons", "Evian", "6.00", 3),
+            product(5L, "Épicerie", null, "25.00", 1)));
+
+    @Test
+    void unfilteredScanCountsEveryFacet() {
+        BitSet matches = new BitSet();
+        FacetsDto facets = columns.scan(ProductFilter.NONE, null, matches);
+
+        assertEquals(5, facets.getTotal());
+        assertEquals(5, matches.cardinality());
+        assertEquals(List.of(new FacetCountDto("Épicerie", 3), new FacetCountDto("Boissons", 2)), facets.getCategories());
+        assertEquals(List.of(new FacetCountDto("Carrefour", 2), new FacetCountDto("Evian", 1), new FacetCountDto("Lu", 1)), facets.getBrands());
+        assertEquals(List.of(2L, 1L, 1L, 1L), facets.getPriceRanges().stream().map(range -> range.getCount()).toList());
+        assertEquals(4, facets.getInStock());
+        assertEquals(1, facets.getOutOfStock());
+    }
+
+    @Test
+    void facetsIgnoreTheirOwnFilter() {
+        ProductFilter filter = new ProductFilter(Set.of("Boissons"), Set.of("Carrefour"), null, null, false);
+        BitSet matches = new BitSet();
+        FacetsDto facets = columns.scan(filter, null, matches);
+
+        assertEquals(1, facets.getTotal());
+        assertEquals(Set.of(2), Set.copyOf(matches.stream().boxed().toList()));
+        assertEquals(List.of(new FacetCountDto("Boissons", 1), new FacetCountDto("Épicerie", 1)), facets.getCategories());
+        assertEquals(List.of(new FacetCountDto("Carrefour", 1), new FacetCountDto("Evian", 1)), facets.getBrands());
+    }
+
+    @Test
+    void scanHonoursCandidatesPriceAndStock() {
+        BitSet candidates = new BitSet();
+        candidates.set(columns.rowOf(1L));
+        candidates.set(columns.rowOf(2L));
+        candidates.set(columns.rowOf(4L));
+        ProductFilter filter = new ProductFilter(Set.of(), Set.of(), new BigDecimal("1.00"), new BigDecimal("5.00"), true);
+
+        FacetsDto facets = columns.scan(filter, candidates, new BitSet());
+
+        assertEquals(1, facets.getTotal());
+        assertEquals(1, facets.getInStock());
+        assertEquals(1, facets.getOutOfStock());
+    }
+
+    @Test
+    void untrackedStockCountsAsInStockAndHeldUnitsDoNot() {
+        ProductDto untracked = product(1L, "Épicerie", "Lu", "1.50", 0);
+        untracked.setStock(null);
+        ProductDto allReserved = product(2L, "Épicerie", "Lu", "1.50", 4);
+        allReserved.setAvailable(0);
+        ProductDto partlyLeased = product(3L, "Épicerie", "Lu", "1.50", 4);
+        partlyLeased.setAvailable(1);
+        CatalogColumns stockColumns = CatalogColumns.of(List.of(untracked, allReserved, partlyLeased));
+        ProductFilter inStock = new ProductFilter(Set.of(), Set.of(), null, null, true);
+
+        BitSet matches = new BitSet();
+        FacetsDto facets = stockColumns.scan(inStock, null, matches);
+
+        assertEquals(Set.of(0, 2), Set.copyOf(matches.stream().boxed().toList()));
+        assertEquals(2, facets.getInStock());
+        assertEquals(1, facets.getOutOfStock());
+    }
+
+    @Test
+    void priceBoundsBeyondTheIntRangeDoNotWrapAround() {
+        ProductFilter filter = new ProductFilter(Set.of(), Set.of(), new BigDecimal("-99999999999"), new BigDecimal("99999999999"), false);
+
+        FacetsDto facets = columns.scan(filter, null, new BitSet());
+
+        assertEquals(5, facets.getTotal());
+    }
+
+    private static ProductDto product(Long id, String category, String brand, String price, int stock) {
+        return ProductDto.builder()
+                .id(id)
+                .category(category)
+                .brand(brand)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .build();
+    }
+}
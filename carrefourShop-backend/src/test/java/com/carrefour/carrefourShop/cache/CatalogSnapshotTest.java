@@ -0,0 +1,116 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.FacetsDto;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductFilter;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final List<ProductDto> catalog = List.of(
+            product(1L, "Lait", "Crèmerie", "1.10", 10, 1),
+            product(2L, "Beurre", "Crèmerie", "2.40", 0, 2),
+            product(3L, "Eau", "Boissons", "0.60", 30, 3),
+            product(4L, "Jus", "Boissons", "2.10", 4, 4),
+            product(5L, "Pâtes", "Épicerie", "0.95", 12, 5));
+    private final CatalogSnapshot base = CatalogSnapshot.of(1, catalog);
+
+    @Test
+    void withChanges_WhenPriceAndStockChange_ShouldMatchAFullRebuild() {
+        ProductDto cheaperJuice = product(4L, "Jus", "Boissons", "0.50", 0, 6);
+
+        CatalogSnapshot patched = base.withChanges(2, List.of(4L), List.of(cheaperJuice));
+
+        assertMatchesRebuild(patched, replace(catalog, cheaperJuice));
+        assertEquals(List.of(4L, 3L, 5L, 1L, 2L), patched.getProducts(ProductSort.PRICE).stream().map(ProductDto::getId).toList());
+        assertEquals(0, patched.getProduct(4L).getStock());
+    }
+
+    @Test
+    void withChanges_ShouldShareCategoriesNoChangedProductBelongsTo() {
+        CatalogSnapshot patched = base.withChanges(2, List.of(4L), List.of(product(4L, "Jus", "Boissons", "0.50", 0, 6)));
+
+        assertSame(base.getProductsByCategory("Crèmerie"), patched.getProductsByCategory("Crèmerie"));
+        assertSame(base.getProductsByCategory("Crèmerie", ProductSort.PRICE), patched.getProductsByCategory("Crèmerie", ProductSort.PRICE));
+    }
+
+    @Test
+    void withChanges_WhenProductsAppearMoveOrGo_ShouldMatchAFullRebuild() {
+        ProductDto movedWater = product(3L, "Eau", "Épicerie", "0.60", 30, 7);
+        ProductDto inactiveButter = product(2L, "Beurre", "Crèmerie", "2.40", 0, 8);
+        inactiveButter.setActive(false);
+        ProductDto newTea = product(6L, "Thé", "Infusions", "3.00", 2, 9);
+
+        // product 1 is gone from the database: listed as changed but not reloaded
+        CatalogSnapshot patched = base.withChanges(2, List.of(1L, 2L, 3L, 6L), List.of(movedWater, inactiveButter, newTea));
+
+        List<ProductDto> expected = new ArrayList<>(replace(catalog, movedWater));
+        expected.removeIf(product -> product.getId() == 1L || product.getId() == 2L);
+        expected.add(newTea);
+        assertMatchesRebuild(patched, expected);
+        assertNull(patched.getProduct(1L));
+        assertTrue(patched.getProductsByCategory("Crèmerie").isEmpty());
+        assertEquals(List.of(6L), patched.getProductsByCategory("Infusions").stream().map(ProductDto::getId).toList());
+    }
+
+    @Test
+    void withChanges_ShouldMoveTheFingerprint() {
+        CatalogSnapshot patched = base.withChanges(2, List.of(5L), List.of(product(5L, "Pâtes", "Épicerie", "0.95", 11, 10)));
+
+        assertTrue(patched.getFingerprint() != base.getFingerprint());
+        assertEquals(2, patched.getVersion());
+    }
+
+    private static void assertMatchesRebuild(CatalogSnapshot patched, List<ProductDto> products) {
+        CatalogSnapshot rebuilt = CatalogSnapshot.of(patched.getVersion(), products);
+
+        assertEquals(rebuilt.getProducts(), patched.getProducts());
+        assertEquals(rebuilt.getProductsById(), patched.getProductsById());
+        assertEquals(rebuilt.getProductsByCategory(), patched.getProductsByCategory());
+        assertEquals(rebuilt.getSortedProducts(), patched.getSortedProducts());
+        assertEquals(rebuilt.getSortedProductsByCategory(), patched.getSortedProductsByCategory());
+        assertEquals(rebuilt.getFingerprint(), patched.getFingerprint());
+
+        ProductFilter inStock = new ProductFilter(Set.of(), Set.of(), null, null, true);
+        assertEquals(scan(rebuilt, ProductFilter.NONE), scan(patched, ProductFilter.NONE));
+        assertEquals(scan(rebuilt, inStock), scan(patched, inStock));
+    }
+
+    private static FacetsDto scan(CatalogSnapshot snapshot, ProductFilter filter) {
+        return snapshot.getColumns().scan(filter, null, new BitSet());
+    }
+
+    private static List<ProductDto> replace(List<ProductDto> products, ProductDto changed) {
+        return products.stream()
+                .map(product -> product.getId().equals(changed.getId()) ? changed : product)
+                .toList();
+    }
+
+    private static ProductDto product(Long id, String name, String category, String price, int stock, int revision) {
+        return ProductDto.builder()
+                .id(id)
+                .name(name)
+                .category(category)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .active(true)
+                .createdAt(CREATED.plusDays(id))
+                .updatedAt(CREATED.plusHours(revision))
+                .build();
+    }
+}
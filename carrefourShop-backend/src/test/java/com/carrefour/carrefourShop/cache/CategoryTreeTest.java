@@ -0,0 +1,69 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.CategoryDto;
+import com.carrefour.carrefourShop.entity.Category;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTreeTest {
+
+    private static final List<Category> NODES = List.of(
+            node(1L, null, "Fresh", "Fresh", 0),
+            node(2L, 1L, "Dairy", "Fresh > Dairy", 1),
+            node(3L, 2L, "Milk", "Fresh > Dairy > Milk", 2),
+            node(4L, 2L, "Cheese", "Fresh > Dairy > Cheese", 2),
+            node(5L, null, "Bakery", "Bakery", 0));
+
+    @Test
+    void build_ShouldRollCountsUpToAncestors() {
+        CategoryTree tree = CategoryTree.build(1, NODES, Map.of(
+                "Fresh > Dairy > Milk", 3L,
+                "Fresh>Dairy>Cheese", 2L,
+                "Fresh > Dairy", 1L,
+                "Bakery", 4L));
+
+        List<CategoryDto> roots = tree.getRoots();
+        assertEquals(List.of("Bakery", "Fresh"), roots.stream().map(CategoryDto::getName).toList());
+        CategoryDto fresh = roots.get(1);
+        assertEquals(6, fresh.getProductCount());
+        CategoryDto dairy = fresh.getChildren().get(0);
+        assertEquals(6, dairy.getProductCount());
+        assertEquals(List.of("Cheese", "Milk"), dairy.getChildren().stream().map(CategoryDto::getName).toList());
+        assertEquals(2, dairy.getChildren().get(0).getProductCount());
+        assertEquals(3, dairy.getChildren().get(1).getProductCount());
+        assertEquals(4, roots.get(0).getProductCount());
+    }
+
+    @Test
+    void withCounts_ShouldKeepNodesWithNoProducts() {
+        CategoryTree tree = CategoryTree.build(1, NODES, Map.of("Bakery", 4L))
+                .withCounts(2, Map.of("Fresh > Dairy > Milk", 1L));
+
+        assertEquals(2, tree.getSnapshotVersion());
+        assertEquals(0, tree.getRoots().get(0).getProductCount());
+        assertEquals(1, tree.getRoots().get(1).getProductCount());
+    }
+
+    @Test
+    void containsAll_ShouldCompareNormalizedPaths() {
+        CategoryTree tree = CategoryTree.build(1, NODES, Map.of());
+
+        assertTrue(tree.containsAll(List.of(" Fresh >Dairy> Milk ", "Bakery")));
+        assertFalse(tree.containsAll(List.of("Fresh > Frozen")));
+    }
+
+    @Test
+    void normalize_ShouldTrimSegmentsAndIgnoreBlank() {
+        assertEquals("Fresh > Dairy > Milk", CategoryTree.normalize("  Fresh>Dairy  >Milk "));
+        assertNull(CategoryTree.normalize("   "));
+        assertNull(CategoryTree.normalize(null));
+    }
+
+    private static Category node(Long id, Long parentId, String name, String path, int depth) {
+        return Category.builder().id(id).parentId(parentId).name(name).path(path).depth(depth).build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.carrefour.carrefourShop.cache;
+
+import com.carrefour.carrefourShop.dto.ProductPageDto;
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderedPageTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void jsonMatchesRegularSerialization() throws Exception {
+        ProductPageDto page = page(24);
+
+        RenderedPage rendered = RenderedPage.of(objectMapper, page);
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(page), rendered.json());
+    }
+
+    @Test
+    void gzipInflatesToTheJsonBody() throws Exception {
+        RenderedPage rendered = RenderedPage.of(objectMapper, page(100));
+
+        byte[] inflated;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(rendered.gzip()))) {
+            inflated = in.readAllBytes();
+        }
+
+        assertArrayEquals(rendered.json(), inflated);
+        assertTrue(rendered.gzip().length < rendered.json().length);
+    }
+
+    private static ProductPageDto page(int size) {
+        List<ProductSummaryDto> items = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            items.add(ProductSummaryDto.builder()
+                    .id(id)
+                    .name("Product " + id)
+                    .price(BigDecimal.valueOf(id * 37 % 5000, 2))
+                    .imageUrl("https://cdn.example.com/products/" + id + ".jpg")
+                    .brand("Brand " + id % 7)
+                    .stock((int) (id % 13))
+                    .build());
+        }
+        return ProductPageDto.builder()
+                .items(items)
+                .nextCursor("TkFNRXwyNHxQcm9kdWN0IDI0")
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.carrefour.carrefourShop.controller;
+
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Product list requests per second served from the pre-rendered page, as identity and gzip
+ * bodies, against revalidations answered with 304 and against pages serialized per request.
+ * Every gzip body must inflate to the identity body and carry its own ETag. The figures are
+ * logged rather than asserted so the build does not depend on the machine.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+class CatalogHttpCacheBenchmarkIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogHttpCacheBenchmarkIntegrationTest.class);
+
+    private static final int PRODUCTS = 2_000;
+    private static final int REQUESTS = 2_000;
+    private static final String URL = "/api/products?limit=100";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void getAllProducts_RenderedGzipIdentityAndRevalidated() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(Product.builder()
+                    .name("Produit " + i)
+                    .brand("Marque " + i % 20)
+                    .description("Description du produit " + i)
+                    .price(new BigDecimal("1.99"))
+                    .stock(10)
+                    .category("Épicerie")
+                    .active(true)
+                    .build());
+        }
+        productRepository.saveAll(products);
+
+        MvcResult identity = mockMvc.perform(get(URL)).andReturn();
+        MvcResult gzip = mockMvc.perform(get(URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn();
+        String identityETag = identity.getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipETag = gzip.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(identityETag, gzipETag);
+        assertArrayEquals(identity.getResponse().getContentAsByteArray(), inflate(gzip.getResponse().getContentAsByteArray()));
+
+        long identityRate = requestsPerSecond(get(URL), 200);
+        long gzipRate = requestsPerSecond(get(URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip"), 200);
+        long revalidatedRate = requestsPerSecond(get(URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, gzipETag), 304);
+        // a filter that matches everything still forces a per-request page and serialization
+        long serializedRate = requestsPerSecond(get(URL + "&minPrice=0"), 200);
+
+        log.info("{} list requests over {} products: {}/s rendered identity ({} bytes), {}/s rendered gzip ({} bytes), "
+                        + "{}/s revalidated, {}/s serialized per request",
+                REQUESTS, PRODUCTS, identityRate, identity.getResponse().getContentAsByteArray().length,
+                gzipRate, gzip.getResponse().getContentAsByteArray().length, revalidatedRate, serializedRate);
+    }
+
+    private long requestsPerSecond(MockHttpServletRequestBuilder request, int expectedStatus) throws Exception {
+        long begin = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals(expectedStatus, mockMvc.perform(request).andReturn().getResponse().getStatus());
+        }
+        return REQUESTS * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - begin);
+    }
+
+    private static byte[] inflate(byte[] gzip) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.carrefour.carrefourShop.controller;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.cache.CatalogSnapshot;
+import com.carrefour.carrefourShop.cache.RenderedPage;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogHttpCacheTest {
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @InjectMocks
+    private CatalogHttpCache httpCache;
+
+    private static final RenderedPage RENDERED = new RenderedPage("[]".getBytes(), new byte[]{31, -117, 8});
+
+    private final AtomicInteger serviceCalls = new AtomicInteger();
+    private final ProductDto product = ProductDto.builder()
+            .id(7L)
+            .name("Lait")
+            .price(new BigDecimal("1.10"))
+            .active(true)
+            .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+            .updatedAt(LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(httpCache, "productPolicy", "public, max-age=60");
+        ReflectionTestUtils.setField(httpCache, "listPolicy", "public, max-age=30");
+        lenient().when(catalogCache.isEnabled()).thenReturn(true);
+        lenient().when(catalogCache.snapshot()).thenReturn(CatalogSnapshot.of(1, List.of(product)));
+    }
+
+    @Test
+    void product_WhenIfNoneMatchMatches_ShouldAnswer304WithoutCallingTheService() {
+        String etag = httpCache.product(7L, request(null), service()).getHeaders().getETag();
+        serviceCalls.set(0);
+
+        ResponseEntity<ProductDto> response = httpCache.product(7L, request(etag), service());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertEquals(0, serviceCalls.get());
+    }
+
+    @Test
+    void product_ShouldSendTheETagAsTheOnlyValidator() {
+        ResponseEntity<ProductDto> response = httpCache.product(7L, request(null), service());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getHeaders().getETag());
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.LAST_MODIFIED));
+        assertEquals(1, serviceCalls.get());
+    }
+
+    @Test
+    void product_WhenUpdatedWithinTheSameSecond_ShouldNotMatchTheOldETag() {
+        String etag = httpCache.product(7L, request(null), service()).getHeaders().getETag();
+        ProductDto changed = ProductDto.builder()
+                .id(7L)
+                .name("Lait")
+                .price(new BigDecimal("0.99"))
+                .active(true)
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt().plusNanos(1_000))
+                .build();
+        when(catalogCache.snapshot()).thenReturn(CatalogSnapshot.of(2, List.of(changed)));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 Jan 2100 00:00:00 GMT");
+        ResponseEntity<ProductDto> response = httpCache.product(7L, new ServletWebRequest(request, new MockHttpServletResponse()), service());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    void lookup_WhenIfNoneMatchMatches_ShouldAnswer304WithoutCallingTheService() {
+        String etag = httpCache.lookup(request(null), service()).getHeaders().getETag();
+        serviceCalls.set(0);
+
+        ResponseEntity<ProductDto> response = httpCache.lookup(request(etag), service());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(0, serviceCalls.get());
+    }
+
+    @Test
+    void list_ShouldTagGzipAndIdentityBodiesDifferently() {
+        ResponseEntity<Object> identity = httpCache.list(request(null), this::rendered, service());
+        ResponseEntity<Object> gzip = httpCache.list(gzipRequest(null), this::rendered, service());
+
+        String identityETag = identity.getHeaders().getETag();
+        assertEquals(identityETag.substring(0, identityETag.length() - 1) + "-gz\"", gzip.getHeaders().getETag());
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNull(identity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(RENDERED.json(), (byte[]) identity.getBody());
+        assertArrayEquals(RENDERED.gzip(), (byte[]) gzip.getBody());
+    }
+
+    @Test
+    void list_WhenIfNoneMatchNamesEitherForm_ShouldAnswer304WithTheTagTheClientHolds() {
+        String identityETag = httpCache.list(request(null), this::rendered, service()).getHeaders().getETag();
+        String gzipETag = httpCache.list(gzipRequest(null), this::rendered, service()).getHeaders().getETag();
+        serviceCalls.set(0);
+
+        ResponseEntity<Object> fromGzip = httpCache.list(request(gzipETag), this::rendered, service());
+        ResponseEntity<Object> fromIdentity = httpCache.list(gzipRequest("\"other\", W/" + identityETag), this::rendered, service());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, fromGzip.getStatusCode());
+        assertEquals(gzipETag, fromGzip.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, fromIdentity.getStatusCode());
+        assertEquals(identityETag, fromIdentity.getHeaders().getETag());
+        assertEquals(0, serviceCalls.get());
+    }
+
+    @Test
+    void list_WhenIfNoneMatchIsStale_ShouldServeTheBody() {
+        ResponseEntity<Object> response = httpCache.list(gzipRequest("\"c0-gz\""), this::rendered, service());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, serviceCalls.get());
+    }
+
+    private RenderedPage rendered() {
+        serviceCalls.incrementAndGet();
+        return RENDERED;
+    }
+
+    private static ServletWebRequest gzipRequest(String ifNoneMatch) {
+        ServletWebRequest request = request(ifNoneMatch);
+        ((MockHttpServletRequest) request.getRequest()).addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        return request;
+    }
+
+    private Supplier<ProductDto> service() {
+        return () -> {
+            serviceCalls.incrementAndGet();
+            return product;
+        };
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
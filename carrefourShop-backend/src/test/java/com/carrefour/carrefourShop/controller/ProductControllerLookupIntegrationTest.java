@@ -0,0 +1,149 @@
+package com.carrefour.carrefourShop.controller;
+
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Product lookup by ids over GET and POST, on the database path with the catalog cache off.
+ * The cache path is covered by {@code ProductServiceImplTest}. The id limit is lowered so the
+ * 400 is reached with a short list.
+ */
+@SpringBootTest(properties = {
+        "catalog.cache.enabled=false",
+        "catalog.lookup.max-ids=" + ProductControllerLookupIntegrationTest.MAX_IDS
+})
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+class ProductControllerLookupIntegrationTest {
+
+    static final int MAX_IDS = 3;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<Long> createdIds = new ArrayList<>();
+    private Long first;
+    private Long second;
+    private Long inactive;
+
+    @BeforeEach
+    void setUp() {
+        first = save("Lait", true);
+        second = save("Beurre", true);
+        inactive = save("Crème", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void getProductsByIds_ShouldReturnProductsInRequestOrderOnce() throws Exception {
+        mockMvc.perform(get("/api/products").param("ids", second + "," + first + "," + second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(second.intValue(), first.intValue())))
+                .andExpect(jsonPath("$.missingIds", empty()));
+    }
+
+    @Test
+    void getProductsByIds_WhenIdsAreUnknownOrInactive_ShouldListThemAsMissing() throws Exception {
+        long unknown = second + 1_000;
+
+        mockMvc.perform(get("/api/products").param("ids", inactive + "," + first + "," + unknown))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(first.intValue())))
+                .andExpect(jsonPath("$.missingIds", contains(inactive.intValue(), (int) unknown)));
+    }
+
+    @Test
+    void getProductsByIds_WhenMoreIdsThanAllowed_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/products").param("ids", "1,2,3,4"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ExceptionConstants.TOO_MANY_PRODUCT_IDS));
+    }
+
+    @Test
+    void lookupProducts_ShouldMatchTheGetLookup() throws Exception {
+        mockMvc.perform(post("/api/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + inactive + "," + second + ",null," + first + "," + second + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(second.intValue(), first.intValue())))
+                .andExpect(jsonPath("$.missingIds", contains(inactive.intValue())));
+    }
+
+    @Test
+    void lookupProducts_WhenMoreIdsThanAllowed_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2,3,4]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ExceptionConstants.TOO_MANY_PRODUCT_IDS));
+    }
+
+    @Test
+    void lookupProducts_WhenNoIds_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/products/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long save(String name, boolean active) {
+        Long id = productRepository.save(Product.builder()
+                .name(name)
+                .price(new BigDecimal("1.20"))
+                .stock(10)
+                .category("Crèmerie")
+                .active(active)
+                .build()).getId();
+        createdIds.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,143 @@
+package com.carrefour.carrefourShop.controller;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.ProductStreamRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * NDJSON product stream: rows come in keyset chunks smaller than the result here, so every
+ * test crosses chunk boundaries, and no connection is held while rows are being written.
+ */
+@SpringBootTest(properties = "catalog.stream.chunk-size=" + ProductControllerStreamIntegrationTest.CHUNK_SIZE)
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+class ProductControllerStreamIntegrationTest {
+
+    static final int CHUNK_SIZE = 2;
+    private static final String CATEGORY = "Flux";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStreamRepository productStreamRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<Long> activeIds = new ArrayList<>();
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            Product product = productRepository.save(product("Produit " + i, i != 3));
+            createdIds.add(product.getId());
+            if (product.getActive()) {
+                activeIds.add(product.getId());
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void streamProducts_ShouldWriteEveryActiveProductOfTheCategoryAsOneJsonLine() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/products")
+                        .param("category", CATEGORY)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        List<Long> ids = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n")) {
+            ids.add(objectMapper.readValue(line, ProductDto.class).getId());
+        }
+        assertEquals(activeIds, ids);
+    }
+
+    @Test
+    void streamActive_ShouldNotHoldAConnectionWhileTheConsumerRuns() throws SQLException {
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        List<Integer> activeConnections = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+
+        productStreamRepository.streamActive(CATEGORY, product -> {
+            ids.add(product.getId());
+            activeConnections.add(pool.getHikariPoolMXBean().getActiveConnections());
+        });
+
+        assertEquals(activeIds, ids);
+        assertEquals(List.of(0, 0, 0, 0), activeConnections);
+    }
+
+    private static Product product(String name, boolean active) {
+        return Product.builder()
+                .name(name)
+                .price(new BigDecimal("2.50"))
+                .stock(10)
+                .category(CATEGORY)
+                .active(active)
+                .build();
+    }
+}
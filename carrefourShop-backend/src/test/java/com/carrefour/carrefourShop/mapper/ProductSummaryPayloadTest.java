@@ -0,0 +1,93 @@
+package com.carrefour.carrefourShop.mapper;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Response size and allocation of a 1k-product page, full view against summary view.
+ */
+class ProductSummaryPayloadTest {
+
+    private static final int PRODUCTS = 1000;
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void summaryPageIsAFractionOfTheFullPage() throws Exception {
+        List<ProductDto> products = products();
+
+        byte[] full = objectMapper.writeValueAsBytes(products);
+        byte[] summary = objectMapper.writeValueAsBytes(products.stream().map(productMapper::toSummary).toList());
+
+        assertTrue(summary.length * 4 < full.length, "summary " + summary.length + " bytes, full " + full.length + " bytes");
+        assertFalse(new String(summary).contains("createdAt"));
+    }
+
+    @Test
+    void summaryPageAllocatesLessToSerialize() throws Exception {
+        List<ProductDto> products = products();
+        List<ProductSummaryDto> summaries = products.stream().map(productMapper::toSummary).toList();
+        for (int i = 0; i < 5; i++) {
+            objectMapper.writeValueAsBytes(products);
+            objectMapper.writeValueAsBytes(summaries);
+        }
+
+        long fullBytes = allocatedBy(() -> serialize(products));
+        long summaryBytes = allocatedBy(() -> serialize(summaries));
+
+        assertTrue(summaryBytes < fullBytes, "summary allocated " + summaryBytes + " bytes, full " + fullBytes + " bytes");
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long allocatedBy(Supplier<byte[]> work) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        work.get();
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static List<ProductDto> products() {
+        List<ProductDto> products = new ArrayList<>(PRODUCTS);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            products.add(ProductDto.builder()
+                    .id(id)
+                    .name("Produit " + id)
+                    .description("d".repeat(1000))
+                    .price(new BigDecimal("3.99"))
+                    .stock(42)
+                    .category("Épicerie")
+                    .imageUrl("https://images.example.com/products/" + id + ".jpg")
+                    .brand("Carrefour")
+                    .active(true)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return products;
+    }
+}
@@ -0,0 +1,105 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductImportRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Each upsert commits on its own, as in a real import: the staging table is only emptied on
+ * commit.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class ProductImportRepositoryIntegrationTest {
+
+    private static final String SKU = "IMP-001";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private ProductImportRepository productImportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productImportRepository.upsert(List.of(row(20)));
+        // 3 units in carts and 2 leased by a node for hot-stock sales
+        jdbcTemplate.update("UPDATE products SET reserved = 3, leased = 2 WHERE sku = ?", SKU);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM products WHERE sku = ?", SKU);
+    }
+
+    @Test
+    void upsert_WhenStockIsAboveHeldUnits_ShouldTakeIt() {
+        assertEquals(1, productImportRepository.upsert(List.of(row(8))));
+
+        assertEquals(8, stock());
+    }
+
+    @Test
+    void upsert_WhenStockIsBelowHeldUnits_ShouldKeepThemCovered() {
+        assertEquals(1, productImportRepository.upsert(List.of(row(1))));
+
+        assertEquals(5, stock());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT stock - reserved - leased FROM products WHERE sku = ?", Integer.class, SKU));
+    }
+
+    @Test
+    void upsert_WhenSameFileIsImportedAgain_ShouldNotRewriteRaisedStock() {
+        productImportRepository.upsert(List.of(row(1)));
+
+        assertEquals(0, productImportRepository.upsert(List.of(row(1))));
+        assertEquals(5, stock());
+    }
+
+    @Test
+    void upsert_WhenStockIsEmpty_ShouldKeepItUnlimited() {
+        assertEquals(1, productImportRepository.upsert(List.of(row(null))));
+
+        assertNull(stock());
+    }
+
+    private Integer stock() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE sku = ?", Integer.class, SKU);
+    }
+
+    private static ProductImportRow row(Integer stock) {
+        return new ProductImportRow(SKU, "Café moulu", "Paquet de 250 g", new BigDecimal("3.20"), stock,
+                "Épicerie", null, "Carte Noire", true);
+    }
+}
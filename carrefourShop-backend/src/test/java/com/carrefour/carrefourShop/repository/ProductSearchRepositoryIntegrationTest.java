@@ -0,0 +1,124 @@
+package com.carrefour.carrefourShop.repository;
+
+import com.carrefour.carrefourShop.dto.ProductFilter;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
+import com.carrefour.carrefourShop.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Testcontainers
+@Transactional
+@ActiveProfiles("test")
+class ProductSearchRepositoryIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchRepository productSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.saveAndFlush(product("Chocolat noir 70%", "Côte d'Or", "Épicerie sucrée", "Tablette de chocolat noir"));
+        productRepository.saveAndFlush(product("Biscuits", "Lu", "Épicerie sucrée", "Biscuits nappés de chocolat au lait"));
+        productRepository.saveAndFlush(product("Lait demi-écrémé", "Lactel", "Produits laitiers", "Bouteille d'un litre"));
+    }
+
+    @Test
+    void searchUsesGinIndex() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + ProductSearchRepository.SELECT + " ORDER BY rank DESC, id DESC LIMIT 25",
+                String.class, "chocolat:*");
+
+        assertTrue(plan.stream().anyMatch(line -> line.contains("idx_products_search_vector")), String.join("\n", plan));
+    }
+
+    @Test
+    void searchMatchesPrefixesAndRanksNameAboveDescription() {
+        List<ProductSummaryDto> results = productSearchRepository.search("choc", ProductFilter.NONE, ProductSort.RELEVANCE, null, 10).stream()
+                .map(ProductSearchRepository.SearchHit::product)
+                .toList();
+
+        assertEquals(2, results.size());
+        assertEquals("Chocolat noir 70%", results.get(0).getName());
+    }
+
+    @Test
+    void searchStemsFrenchWords() {
+        assertEquals(1, productSearchRepository.search("laitiers", ProductFilter.NONE, ProductSort.RELEVANCE, null, 10).size());
+    }
+
+    @Test
+    void inStockFilterSetsHeldUnitsAsideAndKeepsUntrackedStock() {
+        jdbcTemplate.update("UPDATE products SET stock = NULL WHERE name = 'Biscuits'");
+        jdbcTemplate.update("UPDATE products SET reserved = 6, leased = 4 WHERE name = 'Chocolat noir 70%'");
+        ProductFilter inStock = new ProductFilter(Set.of(), Set.of(), null, null, true);
+
+        List<String> names = productSearchRepository.search("choc", inStock, ProductSort.NAME, null, 10).stream()
+                .map(hit -> hit.product().getName())
+                .toList();
+        List<String> specificationNames = productRepository.findAll(ProductSpecifications.matching(inStock)).stream()
+                .map(Product::getName)
+                .filter(name -> name.equals("Biscuits") || name.equals("Chocolat noir 70%"))
+                .toList();
+
+        assertEquals(List.of("Biscuits"), names);
+        assertEquals(List.of("Biscuits"), specificationNames);
+    }
+
+    @Test
+    void prefixQueryDropsOperatorCharacters() {
+        assertEquals("lait:* & choc:*", ProductSearchRepository.toPrefixQuery("  Lait & (choc)!:* "));
+        assertEquals("", ProductSearchRepository.toPrefixQuery("&|!"));
+    }
+
+    private static Product product(String name, String brand, String category, String description) {
+        return Product.builder()
+                .name(name)
+                .brand(brand)
+                .category(category)
+                .description(description)
+                .price(new BigDecimal("2.50"))
+                .stock(10)
+                .active(true)
+                .build();
+    }
+}
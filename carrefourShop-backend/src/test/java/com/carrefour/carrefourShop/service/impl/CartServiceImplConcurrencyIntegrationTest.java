@@ -0,0 +1,158 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.dto.AddToCartRequest;
+import com.carrefour.carrefourShop.dto.CartDto;
+import com.carrefour.carrefourShop.dto.CartItemDto;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.entity.User;
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.CartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Parallel adds of the same product to one cart. The upsert on {@code (cart_id, product_id)}
+ * must leave a single line holding every accepted quantity and never more than the stock.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class CartServiceImplConcurrencyIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build());
+        Product other = productRepository.save(product("Bread", null));
+        cartService.addItemToCart(user.getId(), new AddToCartRequest(other.getId(), 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void addItemToCart_InParallel_ShouldKeepOneLineWithEveryQuantity() throws Exception {
+        Product milk = productRepository.save(product("Milk", null));
+
+        List<Throwable> failures = addInParallel(milk.getId());
+
+        assertEquals(List.of(), failures);
+        assertEquals(THREADS, quantityOf(milk.getId()));
+    }
+
+    @Test
+    void addItemToCart_InParallel_ShouldNotExceedStock() throws Exception {
+        int stock = THREADS / 2;
+        Product milk = productRepository.save(product("Milk", stock));
+
+        List<Throwable> failures = addInParallel(milk.getId());
+
+        assertEquals(THREADS - stock, failures.size());
+        for (Throwable failure : failures) {
+            BusinessException exception = assertInstanceOf(BusinessException.class, failure);
+            assertEquals(ExceptionConstants.INSUFFICIENT_STOCK, exception.getCode());
+        }
+        assertEquals(stock, quantityOf(milk.getId()));
+    }
+
+    private List<Throwable> addInParallel(Long productId) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CartDto>> adds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            adds.add(executor.submit(() -> {
+                start.await();
+                return cartService.addItemToCart(user.getId(), new AddToCartRequest(productId, 1));
+            }));
+        }
+        start.countDown();
+
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<CartDto> add : adds) {
+            try {
+                add.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        return failures;
+    }
+
+    private int quantityOf(Long productId) {
+        List<Integer> quantities = cartService.getCart(user.getId()).getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(productId))
+                .map(CartItemDto::getQuantity)
+                .toList();
+        assertEquals(1, quantities.size());
+        return quantities.get(0);
+    }
+
+    private static Product product(String name, Integer stock) {
+        return Product.builder()
+                .name(name)
+                .price(new BigDecimal("1.99"))
+                .stock(stock)
+                .category("Grocery")
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,190 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.dto.AddToCartRequest;
+import com.carrefour.carrefourShop.dto.CartDto;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.entity.User;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL statement budgets for the cart mutations. Each call reads the cart once (items and
+ * products in the same query, plus the owning user), moves the stock reservation and writes
+ * the changed line; the response is built from that aggregate, so a reload or a per-item
+ * lookup pushes the count over budget. Statements are counted on the connection, so JDBC
+ * template statements count as well as Hibernate's.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class CartServiceImplStatementBudgetIntegrationTest {
+
+    private static final int ADD_NEW_ITEM_BUDGET = 5;
+    private static final int ADD_EXISTING_ITEM_BUDGET = 4;
+    private static final int UPDATE_ITEM_BUDGET = 5;
+    private static final int REMOVE_ITEM_BUDGET = 4;
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? recording(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private User user;
+    private Product milk;
+    private Product bread;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build());
+        milk = productRepository.save(product("Milk"));
+        bread = productRepository.save(product("Bread"));
+        cartService.addItemToCart(user.getId(), new AddToCartRequest(milk.getId(), 1));
+    }
+
+    @Test
+    void addItemToCart_WithNewProduct_ShouldStayWithinBudget() {
+        CartDto cart = withinBudget(ADD_NEW_ITEM_BUDGET,
+                () -> cartService.addItemToCart(user.getId(), new AddToCartRequest(bread.getId(), 2)));
+
+        assertEquals(2, cart.getItems().size());
+        assertEquals(new BigDecimal("5.97"), cart.getTotalPrice());
+    }
+
+    @Test
+    void addItemToCart_WithProductAlreadyInCart_ShouldStayWithinBudget() {
+        CartDto cart = withinBudget(ADD_EXISTING_ITEM_BUDGET,
+                () -> cartService.addItemToCart(user.getId(), new AddToCartRequest(milk.getId(), 2)));
+
+        assertEquals(1, cart.getItems().size());
+        assertEquals(3, cart.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void updateCartItem_ShouldStayWithinBudget() {
+        Long itemId = cartService.getCart(user.getId()).getItems().get(0).getId();
+
+        CartDto cart = withinBudget(UPDATE_ITEM_BUDGET, () -> cartService.updateCartItem(user.getId(), itemId, 4));
+
+        assertEquals(4, cart.getItems().get(0).getQuantity());
+        assertEquals(4, cartService.getCart(user.getId()).getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void removeItemFromCart_ShouldStayWithinBudget() {
+        Long itemId = cartService.getCart(user.getId()).getItems().get(0).getId();
+
+        CartDto cart = withinBudget(REMOVE_ITEM_BUDGET, () -> cartService.removeItemFromCart(user.getId(), itemId));
+
+        assertTrue(cart.getItems().isEmpty());
+        assertTrue(cartService.getCart(user.getId()).getItems().isEmpty());
+    }
+
+    private static <T> T withinBudget(int budget, Supplier<T> call) {
+        STATEMENTS.clear();
+        T result = call.get();
+        List<String> statements = List.copyOf(STATEMENTS);
+        assertTrue(statements.size() <= budget,
+                "Expected at most " + budget + " statements but ran " + statements.size() + ":\n" + String.join("\n", statements));
+        return result;
+    }
+
+    private static Product product(String name) {
+        return Product.builder()
+                .name(name)
+                .price(new BigDecimal("1.99"))
+                .stock(100)
+                .category("Grocery")
+                .active(true)
+                .build();
+    }
+
+    /**
+     * Wraps a data source, or a connection it hands out, recording the SQL of every statement
+     * prepared through it.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T recording(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+                STATEMENTS.add(((String) args[0]).replaceAll("\\s+", " "));
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection && name.equals("getConnection")) {
+                return recording(Connection.class, connection);
+            }
+            return result;
+        });
+    }
+}
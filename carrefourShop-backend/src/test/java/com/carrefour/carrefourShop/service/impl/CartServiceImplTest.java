@@ -13,9 +13,13 @@ import com.carrefour.carrefourShop.exception.ExceptionConstants;
 import com.carrefour.carrefourShop.exception.ResourceNotFoundException;
 import com.carrefour.carrefourShop.mapper.CartMapper;
 import com.carrefour.carrefourShop.repository.CartItemRepository;
+import com.carrefour.carrefourShop.repository.CartLineRepository;
 import com.carrefour.carrefourShop.repository.CartRepository;
 import com.carrefour.carrefourShop.repository.ProductRepository;
 import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.HotStockService;
+import com.carrefour.carrefourShop.service.StockReservationService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -31,6 +35,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -43,15 +48,27 @@ class CartServiceImplTest {
     @Mock
     private CartItemRepository cartItemRepository;
 
+    @Mock
+    private CartLineRepository cartLineRepository;
+
     @Mock
     private ProductRepository productRepository;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private HotStockService hotStockService;
+
     @Mock
     private CartMapper cartMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private CartServiceImpl cartService;
 
@@ -94,6 +111,8 @@ class CartServiceImplTest {
                 .build();
 
         addToCartRequest = new AddToCartRequest(1L, 3);
+        lenient().when(stockReservationService.getAvailableStock(anyLong(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
     }
 
     @Test
@@ -131,14 +150,12 @@ class CartServiceImplTest {
 
     @Test
     void addItemToCart_WhenCartDoesNotExist_ShouldCreateCartAndAddItem() {
-        when(cartRepository.findByUserId(1L))
-                .thenReturn(Optional.empty())
-                .thenReturn(Optional.of(cart));
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.empty());
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        when(cartRepository.saveAndFlush(any(Cart.class))).thenReturn(cart);
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartIdAndProductId(anyLong(), anyLong())).thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
+        when(stockReservationService.reserve(1L, 1L, 3)).thenReturn(true);
+        when(cartLineRepository.add(1L, 1L, 3)).thenReturn(Optional.of(new CartLineRepository.CartLine(7L, 3)));
 
         CartDto expectedDto = CartDto.builder()
                 .id(1L)
@@ -150,12 +167,15 @@ class CartServiceImplTest {
         CartDto result = cartService.addItemToCart(1L, addToCartRequest);
 
         assertNotNull(result);
-        verify(cartRepository, times(2)).findByUserId(1L);
+        verify(cartRepository).findByUserId(1L);
         verify(userRepository).findById(1L);
-        verify(cartRepository).save(any(Cart.class));
+        verify(cartRepository).saveAndFlush(any(Cart.class));
         verify(productRepository).findById(1L);
-        verify(cartItemRepository).save(any(CartItem.class));
-        verify(cartRepository).flush();
+        verify(cartLineRepository).add(1L, 1L, 3);
+        verify(entityManager).detach(cart);
+        assertEquals(1, cart.getItems().size());
+        assertEquals(7L, cart.getItems().get(0).getId());
+        assertEquals(3, cart.getItems().get(0).getQuantity());
     }
 
     @Test
@@ -168,7 +188,7 @@ class CartServiceImplTest {
 
         assertEquals(ExceptionConstants.PRODUCT_NOT_FOUND, exception.getCode());
         verify(productRepository).findById(1L);
-        verify(cartItemRepository, never()).save(any());
+        verify(cartLineRepository, never()).add(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -182,7 +202,7 @@ class CartServiceImplTest {
 
         assertEquals(ExceptionConstants.PRODUCT_NOT_AVAILABLE, exception.getCode());
         verify(productRepository).findById(1L);
-        verify(cartItemRepository, never()).save(any());
+        verify(cartLineRepository, never()).add(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -196,17 +216,16 @@ class CartServiceImplTest {
 
         assertEquals(ExceptionConstants.INSUFFICIENT_STOCK, exception.getCode());
         verify(productRepository).findById(1L);
-        verify(cartItemRepository, never()).save(any());
+        verify(cartLineRepository, never()).add(anyLong(), anyLong(), anyInt());
     }
 
     @Test
     void addItemToCart_WhenItemExists_ShouldUpdateQuantity() {
-        when(cartRepository.findByUserId(1L))
-                .thenReturn(Optional.of(cart))
-                .thenReturn(Optional.of(cart));
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.of(cartItem));
-        when(cartItemRepository.save(cartItem)).thenReturn(cartItem);
+        when(stockReservationService.reserve(1L, 1L, 3)).thenReturn(true);
+        when(cartLineRepository.add(1L, 1L, 3)).thenReturn(Optional.of(new CartLineRepository.CartLine(1L, 5)));
+        cart.getItems().add(cartItem);
 
         CartDto expectedDto = CartDto.builder()
                 .id(1L)
@@ -219,9 +238,36 @@ class CartServiceImplTest {
 
         assertNotNull(result);
         assertEquals(5, cartItem.getQuantity());
-        verify(cartItemRepository).save(cartItem);
-        verify(cartRepository, times(2)).findByUserId(1L);
-        verify(cartRepository).flush();
+        assertEquals(1, cart.getItems().size());
+        verify(entityManager).detach(cart);
+        verify(cartRepository).findByUserId(1L);
+    }
+
+    @Test
+    void addItemToCart_WhenReservationRefused_ShouldThrowBusinessException() {
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(stockReservationService.reserve(1L, 1L, 3)).thenReturn(false);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> cartService.addItemToCart(1L, addToCartRequest));
+
+        assertEquals(ExceptionConstants.INSUFFICIENT_STOCK, exception.getCode());
+        verify(cartLineRepository, never()).add(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void addItemToCart_WhenProductIsHot_ShouldNotReserveStock() {
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(hotStockService.isHot(1L)).thenReturn(true);
+        when(cartLineRepository.add(1L, 1L, 3)).thenReturn(Optional.of(new CartLineRepository.CartLine(1L, 3)));
+        when(cartMapper.toDto(cart)).thenReturn(CartDto.builder().build());
+
+        cartService.addItemToCart(1L, addToCartRequest);
+
+        assertEquals(1, cart.getItems().size());
+        verify(stockReservationService, never()).reserve(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -230,24 +276,25 @@ class CartServiceImplTest {
         cartItem.setQuantity(2);
         when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.of(cartItem));
+        when(stockReservationService.reserve(1L, 1L, 3)).thenReturn(true);
+        when(cartLineRepository.add(1L, 1L, 3)).thenReturn(Optional.empty());
+        cart.getItems().add(cartItem);
 
         BusinessException exception = assertThrows(BusinessException.class,
                 () -> cartService.addItemToCart(1L, addToCartRequest));
 
         assertEquals(ExceptionConstants.INSUFFICIENT_STOCK, exception.getCode());
-        verify(cartItemRepository, never()).save(any());
+        assertEquals(2, cartItem.getQuantity());
+        verify(entityManager, never()).detach(any());
     }
 
     @Test
     void addItemToCart_WhenStockIsNull_ShouldAllowAddingItem() {
         product.setStock(null);
-        when(cartRepository.findByUserId(1L))
-                .thenReturn(Optional.of(cart))
-                .thenReturn(Optional.of(cart));
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartItemRepository.findByCartIdAndProductId(anyLong(), anyLong())).thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
+        when(stockReservationService.reserve(1L, 1L, 3)).thenReturn(true);
+        when(cartLineRepository.add(1L, 1L, 3)).thenReturn(Optional.of(new CartLineRepository.CartLine(7L, 3)));
 
         CartDto expectedDto = CartDto.builder()
                 .id(1L)
@@ -259,9 +306,8 @@ class CartServiceImplTest {
         CartDto result = cartService.addItemToCart(1L, addToCartRequest);
 
         assertNotNull(result);
-        verify(cartItemRepository).save(any(CartItem.class));
-        verify(cartRepository, times(2)).findByUserId(1L);
-        verify(cartRepository).flush();
+        verify(cartLineRepository).add(1L, 1L, 3);
+        verify(cartRepository).findByUserId(1L);
     }
 
     @Test
@@ -279,22 +325,19 @@ class CartServiceImplTest {
     @Test
     void updateCartItem_WhenItemNotFound_ShouldThrowResourceNotFoundException() {
         when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cartItemRepository.existsById(1L)).thenReturn(false);
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
                 () -> cartService.updateCartItem(1L, 1L, 5));
 
         assertEquals(ExceptionConstants.CART_ITEM_NOT_FOUND, exception.getCode());
-        verify(cartItemRepository).findById(1L);
+        verify(cartItemRepository).existsById(1L);
     }
 
     @Test
     void updateCartItem_WhenItemDoesNotBelongToCart_ShouldThrowBusinessException() {
-        Cart otherCart = Cart.builder().id(2L).user(user).items(new ArrayList<>()).build();
-        CartItem otherItem = CartItem.builder().id(1L).cart(otherCart).product(product).quantity(2).build();
-
         when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(otherItem));
+        when(cartItemRepository.existsById(1L)).thenReturn(true);
 
         BusinessException exception = assertThrows(BusinessException.class,
                 () -> cartService.updateCartItem(1L, 1L, 5));
@@ -305,10 +348,8 @@ class CartServiceImplTest {
 
     @Test
     void updateCartItem_WhenQuantityIsZero_ShouldDeleteItem() {
-        when(cartRepository.findByUserId(1L))
-                .thenReturn(Optional.of(cart))
-                .thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
+        cart.getItems().add(cartItem);
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
 
         CartDto expectedDto = CartDto.builder()
                 .id(1L)
@@ -320,18 +361,18 @@ class CartServiceImplTest {
         CartDto result = cartService.updateCartItem(1L, 1L, 0);
 
         assertNotNull(result);
-        verify(cartItemRepository).delete(cartItem);
+        assertFalse(cart.getItems().contains(cartItem));
+        verify(stockReservationService).release(1L, 1L);
+        verify(cartItemRepository, never()).delete(any());
         verify(cartItemRepository, never()).save(any());
-        verify(cartRepository, times(2)).findByUserId(1L);
-        verify(cartRepository).flush();
+        verify(cartRepository).findByUserId(1L);
+        verify(cartRepository, never()).flush();
     }
 
     @Test
     void updateCartItem_WhenQuantityIsNegative_ShouldDeleteItem() {
-        when(cartRepository.findByUserId(1L))
-                .thenReturn(Optional.of(cart))
-                .thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
+        cart.getItems().add(cartItem);
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
 
         CartDto expectedDto = CartDto.builder()
                 .id(1L)
@@ -343,19 +384,19 @@ class CartServiceImplTest {
         CartDto result = cartService.updateCartItem(1L, 1L, -1);
 
         assertNotNull(result);
-        verify(cartItemRepository).delete(cartItem);
+        assertFalse(cart.getItems().contains(cartItem));
+        verify(stockReservationService).release(1L, 1L);
+        verify(cartItemRepository, never()).delete(any());
         verify(cartItemRepository, never()).save(any());
-        verify(cartRepository, times(2)).findByUserId(1L);
-        verify(cartRepository).flush();
+        verify(cartRepository).findByUserId(1L);
+        verify(cartRepository, never()).flush();
     }
 
     @Test
     void updateCartItem_WhenValidQuantity_ShouldUpdateItem() {
-        when(cartRepository.findByUserId(1L))
-                .thenReturn(Optional.of(cart))
-                .thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
-        when(cartItemRepository.save(cartItem)).thenReturn(cartItem);
+        cart.getItems().add(cartItem);
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+        when(stockReservationService.replace(1L, 1L, 5)).thenReturn(true);
 
         CartDto expectedDto = CartDto.builder()
                 .id(1L)
@@ -368,23 +409,37 @@ class CartServiceImplTest {
 
         assertNotNull(result);
         assertEquals(5, cartItem.getQuantity());
-        verify(cartItemRepository).save(cartItem);
+        assertTrue(cart.getItems().contains(cartItem));
+        verify(stockReservationService).replace(1L, 1L, 5);
         verify(cartItemRepository, never()).delete(any());
-        verify(cartRepository, times(2)).findByUserId(1L);
-        verify(cartRepository).flush();
+        verify(cartRepository).findByUserId(1L);
+        verify(cartRepository, never()).flush();
     }
 
     @Test
     void updateCartItem_WhenInsufficientStock_ShouldThrowBusinessException() {
         product.setStock(3);
+        cart.getItems().add(cartItem);
         when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
-        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
 
         BusinessException exception = assertThrows(BusinessException.class,
                 () -> cartService.updateCartItem(1L, 1L, 5));
 
         assertEquals(ExceptionConstants.INSUFFICIENT_STOCK, exception.getCode());
-        verify(cartItemRepository, never()).save(any());
+        verify(stockReservationService, never()).replace(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void updateCartItem_WhenReservationRefused_ShouldThrowBusinessException() {
+        cart.getItems().add(cartItem);
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
+        when(stockReservationService.replace(1L, 1L, 5)).thenReturn(false);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> cartService.updateCartItem(1L, 1L, 5));
+
+        assertEquals(ExceptionConstants.INSUFFICIENT_STOCK, exception.getCode());
+        assertEquals(2, cartItem.getQuantity());
     }
 
     @Test
@@ -424,30 +479,23 @@ class CartServiceImplTest {
     @Test
     void removeItemFromCart_WhenValid_ShouldDeleteItem() {
         cart.getItems().add(cartItem);
-        Cart cartAfterRemoval = Cart.builder()
-                .id(1L)
-                .user(user)
-                .items(new ArrayList<>())
-                .build();
-
-        when(cartRepository.findByUserId(1L))
-                .thenReturn(Optional.of(cart))
-                .thenReturn(Optional.of(cartAfterRemoval));
-        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        when(cartRepository.findByUserId(1L)).thenReturn(Optional.of(cart));
 
         CartDto expectedDto = CartDto.builder()
                 .id(1L)
                 .items(Collections.emptyList())
                 .totalPrice(BigDecimal.ZERO)
                 .build();
-        when(cartMapper.toDto(cartAfterRemoval)).thenReturn(expectedDto);
+        when(cartMapper.toDto(cart)).thenReturn(expectedDto);
 
         CartDto result = cartService.removeItemFromCart(1L, 1L);
 
         assertNotNull(result);
-        verify(cartRepository).save(cart);
+        assertTrue(cart.getItems().isEmpty());
+        verify(stockReservationService).release(1L, 1L);
+        verify(cartRepository, never()).save(any());
         verify(cartItemRepository, never()).delete(any());
-        verify(cartRepository, times(2)).findByUserId(1L);
+        verify(cartRepository).findByUserId(1L);
     }
 
     @Test
@@ -469,6 +517,7 @@ class CartServiceImplTest {
         cartService.clearCart(1L);
 
         verify(cartRepository).findByUserId(1L);
+        verify(stockReservationService).releaseCart(1L);
         verify(cartItemRepository).deleteByCartId(1L);
     }
 
@@ -482,6 +531,6 @@ class CartServiceImplTest {
 
         assertEquals(ExceptionConstants.USER_NOT_FOUND, exception.getCode());
         verify(userRepository).findById(1L);
-        verify(cartRepository, never()).save(any());
+        verify(cartRepository, never()).saveAndFlush(any());
     }
 }
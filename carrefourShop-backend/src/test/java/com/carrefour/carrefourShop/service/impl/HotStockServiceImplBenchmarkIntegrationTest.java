@@ -0,0 +1,157 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.dto.CreateOrderRequest;
+import com.carrefour.carrefourShop.entity.Cart;
+import com.carrefour.carrefourShop.entity.CartItem;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.entity.User;
+import com.carrefour.carrefourShop.repository.CartRepository;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checkouts per second on a single product, with and without hot mode. Both runs must place
+ * every order and, once the leases are settled, leave the row with exactly the stock that was
+ * not sold and nothing leased. The figures are logged rather than asserted so the build does
+ * not depend on the machine.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class HotStockServiceImplBenchmarkIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockServiceImplBenchmarkIntegrationTest.class);
+
+    private static final int SHOPPERS = 400;
+    private static final int THREADS = 8;
+    private static final int STOCK = 1_000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private HotStockServiceImpl hotStockService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createOrder_OnOneProduct_WithAndWithoutHotMode() throws Exception {
+        Product regular = product("Regular");
+        long regularRate = checkoutsPerSecond(regular);
+
+        Product hot = product("Hot");
+        hotStockService.setHot(hot.getId(), true);
+        long hotRate = checkoutsPerSecond(hot);
+
+        // The first run writes off what was sold, the second hands back the idle remainder.
+        hotStockService.settle();
+        hotStockService.settle();
+
+        log.info("{} checkouts of one product on {} threads: {} per second by row, {} per second in hot mode",
+                SHOPPERS, THREADS, regularRate, hotRate);
+
+        assertEquals(STOCK - SHOPPERS, stockOf(regular));
+        assertEquals(STOCK - SHOPPERS, stockOf(hot));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT leased FROM products WHERE id = ?", Integer.class, hot.getId()));
+    }
+
+    private long checkoutsPerSecond(Product product) throws Exception {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < SHOPPERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .email(UUID.randomUUID() + "@example.com")
+                    .password("secret")
+                    .role(User.Role.USER)
+                    .build());
+            Cart cart = Cart.builder().user(user).build();
+            cart.getItems().add(CartItem.builder().cart(cart).product(product).quantity(1).build());
+            cartRepository.save(cart);
+            userIds.add(user.getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> checkouts = new ArrayList<>();
+        for (Long userId : userIds) {
+            checkouts.add(executor.submit(() -> {
+                start.await();
+                return orderService.createOrder(userId, new CreateOrderRequest("1 rue de la Paix", null, "0600000000", null));
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> checkout : checkouts) {
+                checkout.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return SHOPPERS * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - begin);
+    }
+
+    private Product product(String name) {
+        return productRepository.save(Product.builder()
+                .name(name)
+                .price(new BigDecimal("2.49"))
+                .stock(STOCK)
+                .category("Grocery")
+                .active(true)
+                .build());
+    }
+
+    private int stockOf(Product product) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, product.getId());
+    }
+}
@@ -0,0 +1,295 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.dto.AddToCartRequest;
+import com.carrefour.carrefourShop.dto.CreateOrderRequest;
+import com.carrefour.carrefourShop.dto.OrderDto;
+import com.carrefour.carrefourShop.entity.Cart;
+import com.carrefour.carrefourShop.entity.CartItem;
+import com.carrefour.carrefourShop.entity.Order;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.entity.User;
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.repository.CartRepository;
+import com.carrefour.carrefourShop.repository.OrderRepository;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.CartService;
+import com.carrefour.carrefourShop.service.OrderProcessingService;
+import com.carrefour.carrefourShop.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Asynchronous intake end to end: accepting leaves stock alone and queues the order, and a
+ * worker batch places or rejects the queued orders oldest first. The worker threads stay off
+ * so each test drives the batches itself.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class OrderProcessingServiceImplIntegrationTest {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final CreateOrderRequest REQUEST = new CreateOrderRequest("1 rue de la Paix", null, "0600000000", null);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product promo;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_jobs");
+        promo = productRepository.save(Product.builder()
+                .name("Promo")
+                .price(new BigDecimal("3.50"))
+                .stock(3)
+                .category("Grocery")
+                .active(true)
+                .build());
+    }
+
+    @Test
+    void acceptOrder_ShouldQueueOrderAndKeepHold() {
+        Long alice = user();
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+
+        OrderDto order = orderService.acceptOrder(alice, REQUEST);
+
+        assertEquals(Order.OrderStatus.ACCEPTED, order.getStatus());
+        assertEquals(new BigDecimal("7.00"), order.getTotalPrice());
+        assertEquals(3, stock());
+        assertEquals(2, reserved());
+        assertFalse(cartRepository.findByUserId(alice).isPresent());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM order_jobs WHERE order_id = ?", Integer.class, order.getId()));
+    }
+
+    @Test
+    void processBatch_ShouldPlaceHeldOrderAndSettleHold() {
+        Long alice = user();
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+        Long orderId = orderService.acceptOrder(alice, REQUEST).getId();
+
+        assertEquals(1, orderProcessingService.processBatch());
+
+        assertEquals(Order.OrderStatus.PENDING, status(orderId));
+        assertEquals(1, stock());
+        assertEquals(0, reserved());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM order_jobs", Integer.class));
+    }
+
+    @Test
+    void processBatch_ShouldAdmitOrdersOldestFirst() {
+        Long first = orderService.acceptOrder(cartOf(2), REQUEST).getId();
+        Long second = orderService.acceptOrder(cartOf(2), REQUEST).getId();
+        Long third = orderService.acceptOrder(cartOf(1), REQUEST).getId();
+
+        assertEquals(3, orderProcessingService.processBatch());
+
+        assertEquals(Order.OrderStatus.PENDING, status(first));
+        assertEquals(Order.OrderStatus.REJECTED, status(second));
+        assertEquals(ExceptionConstants.getMessage(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, "Promo"),
+                orderRepository.findById(second).orElseThrow().getStatusReason());
+        assertEquals(Order.OrderStatus.PENDING, status(third));
+        assertEquals(0, stock());
+    }
+
+    @Test
+    void processBatch_WhenProductWasWithdrawn_ShouldRejectOrderAndReleaseHold() {
+        Long alice = user();
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+        Long orderId = orderService.acceptOrder(alice, REQUEST).getId();
+        jdbcTemplate.update("UPDATE products SET active = false WHERE id = ?", promo.getId());
+
+        orderProcessingService.processBatch();
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertEquals(Order.OrderStatus.REJECTED, order.getStatus());
+        assertEquals(ExceptionConstants.getMessage(ExceptionConstants.PRODUCT_NO_LONGER_AVAILABLE, "Promo"), order.getStatusReason());
+        assertEquals(3, stock());
+        assertEquals(0, reserved());
+    }
+
+    @Test
+    void processBatch_WhenOrderKeepsFailing_ShouldRejectItAfterMaxAttempts() {
+        Long alice = user();
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+        Long orderId = orderService.acceptOrder(alice, REQUEST).getId();
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION test_fail_stock_update() RETURNS trigger AS $$ "
+                + "BEGIN RAISE EXCEPTION 'stock row unavailable'; END $$ LANGUAGE plpgsql");
+        jdbcTemplate.execute("CREATE TRIGGER trg_test_fail_stock_update BEFORE UPDATE OF stock ON products "
+                + "FOR EACH ROW EXECUTE FUNCTION test_fail_stock_update()");
+        try {
+            for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+                orderProcessingService.processBatch();
+                assertEquals(Order.OrderStatus.ACCEPTED, status(orderId));
+                jdbcTemplate.update("UPDATE order_jobs SET available_at = LOCALTIMESTAMP");
+            }
+            orderProcessingService.processBatch();
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER trg_test_fail_stock_update ON products");
+        }
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertEquals(Order.OrderStatus.REJECTED, order.getStatus());
+        assertEquals(ExceptionConstants.getMessage(ExceptionConstants.ORDER_PROCESSING_FAILED), order.getStatusReason());
+        assertEquals(3, stock());
+        assertEquals(0, reserved());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM order_jobs", Integer.class));
+    }
+
+    @Test
+    void updateOrderStatus_WhenAcceptedOrderIsCancelled_ShouldReleaseHoldAndDequeueIt() {
+        Long alice = user();
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+        Long orderId = orderService.acceptOrder(alice, REQUEST).getId();
+
+        orderService.updateOrderStatus(orderId, "cancelled");
+
+        assertEquals(Order.OrderStatus.CANCELLED, status(orderId));
+        assertEquals(3, stock());
+        assertEquals(0, reserved());
+        assertEquals(0, orderProcessingService.processBatch());
+    }
+
+    @Test
+    void updateOrderStatus_WhenAcceptedOrderIsMovedElsewhere_ShouldRefuseAndKeepHold() {
+        Long alice = user();
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+        Long orderId = orderService.acceptOrder(alice, REQUEST).getId();
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> orderService.updateOrderStatus(orderId, "SHIPPED"));
+
+        assertEquals(ExceptionConstants.ORDER_STATUS_CHANGE_NOT_ALLOWED, exception.getCode());
+        assertEquals(Order.OrderStatus.ACCEPTED, status(orderId));
+        assertEquals(2, reserved());
+        assertEquals(1, orderProcessingService.processBatch());
+        assertEquals(Order.OrderStatus.PENDING, status(orderId));
+    }
+
+    @Test
+    void updateOrderStatus_WhenSettingAnOrderBackToAccepted_ShouldRefuse() {
+        Long orderId = orderService.acceptOrder(cartOf(2), REQUEST).getId();
+        orderProcessingService.processBatch();
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> orderService.updateOrderStatus(orderId, "ACCEPTED"));
+
+        assertEquals(ExceptionConstants.ORDER_STATUS_CHANGE_NOT_ALLOWED, exception.getCode());
+        assertEquals(Order.OrderStatus.PENDING, status(orderId));
+    }
+
+    @Test
+    void updateOrderStatus_WhenWorkerHoldsTheAcceptedOrder_ShouldRefuseToCancelIt() {
+        Long alice = user();
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+        Long orderId = orderService.acceptOrder(alice, REQUEST).getId();
+
+        // the job row is locked as a worker's claim would lock it
+        ExecutionException failure = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.queryForList("SELECT order_id FROM order_jobs WHERE order_id = ? FOR UPDATE", Long.class, orderId);
+            return assertThrows(ExecutionException.class, () -> CompletableFuture
+                    .runAsync(() -> orderService.updateOrderStatus(orderId, "CANCELLED"))
+                    .get(10, TimeUnit.SECONDS));
+        });
+
+        BusinessException exception = assertInstanceOf(BusinessException.class, failure.getCause());
+        assertEquals(ExceptionConstants.ORDER_BEING_PROCESSED, exception.getCode());
+        assertEquals(Order.OrderStatus.ACCEPTED, status(orderId));
+        assertEquals(2, reserved());
+    }
+
+    @Test
+    void processBatch_WhenQueueIsEmpty_ShouldClaimNothing() {
+        assertEquals(0, orderProcessingService.processBatch());
+    }
+
+    private Long cartOf(int quantity) {
+        User user = userRepository.findById(user()).orElseThrow();
+        Cart cart = Cart.builder().user(user).build();
+        cart.getItems().add(CartItem.builder().cart(cart).product(promo).quantity(quantity).build());
+        cartRepository.save(cart);
+        return user.getId();
+    }
+
+    private Order.OrderStatus status(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getStatus();
+    }
+
+    private int stock() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, promo.getId());
+    }
+
+    private int reserved() {
+        return jdbcTemplate.queryForObject("SELECT reserved FROM products WHERE id = ?", Integer.class, promo.getId());
+    }
+
+    private Long user() {
+        return userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build()).getId();
+    }
+}
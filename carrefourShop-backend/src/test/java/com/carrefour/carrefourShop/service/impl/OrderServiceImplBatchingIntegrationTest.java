@@ -0,0 +1,119 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.dto.CreateOrderRequest;
+import com.carrefour.carrefourShop.entity.Cart;
+import com.carrefour.carrefourShop.entity.CartItem;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.entity.User;
+import com.carrefour.carrefourShop.repository.CartRepository;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.OrderService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checkout statement count with sequence ids and JDBC batching. Hibernate prepares a
+ * statement once per batch, so the recorded SQL is one entry per round trip. Stock is taken
+ * by {@code ProductStockRepository} outside Hibernate, so no product update shows up here.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class OrderServiceImplBatchingIntegrationTest {
+
+    private static final int LINES = 40;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector", RecordingStatementInspector.class::getName);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Test
+    void createOrder_With40Lines_ShouldBatchInserts() {
+        User user = userRepository.save(User.builder()
+                .email("batching@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build());
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            products.add(Product.builder()
+                    .name("Product " + i)
+                    .price(new BigDecimal("1.99"))
+                    .stock(100)
+                    .category("Grocery")
+                    .active(true)
+                    .build());
+        }
+        products = productRepository.saveAll(products);
+        Cart cart = Cart.builder().user(user).build();
+        for (Product product : products) {
+            cart.getItems().add(CartItem.builder().cart(cart).product(product).quantity(2).build());
+        }
+        cartRepository.save(cart);
+
+        RecordingStatementInspector.STATEMENTS.clear();
+        orderService.createOrder(user.getId(), new CreateOrderRequest("1 rue de la Paix", null, "0600000000", null));
+
+        assertEquals(1, count("insert into orders"), String.join("\n", RecordingStatementInspector.STATEMENTS));
+        assertEquals(1, count("insert into order_items"), String.join("\n", RecordingStatementInspector.STATEMENTS));
+        assertEquals(0, count("update products"), String.join("\n", RecordingStatementInspector.STATEMENTS));
+        assertEquals(98, productRepository.findById(products.get(0).getId()).orElseThrow().getStock());
+    }
+
+    private static long count(String prefix) {
+        return RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).stripLeading().startsWith(prefix))
+                .count();
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.replaceAll("\\s+", " "));
+            return sql;
+        }
+    }
+}
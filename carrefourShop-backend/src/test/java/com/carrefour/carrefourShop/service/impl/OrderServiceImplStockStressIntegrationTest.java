@@ -0,0 +1,140 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.dto.CreateOrderRequest;
+import com.carrefour.carrefourShop.entity.Cart;
+import com.carrefour.carrefourShop.entity.CartItem;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.entity.User;
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.repository.CartRepository;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Hundreds of shoppers checking out the last units of one product at once. Exactly as many
+ * orders as there is stock must go through, the rest must fail on stock, and the product must
+ * end at zero. Throughput is logged so regressions in the checkout path show up in the build.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class OrderServiceImplStockStressIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderServiceImplStockStressIntegrationTest.class);
+
+    private static final int SHOPPERS = 300;
+    private static final int THREADS = 32;
+    private static final int STOCK = 25;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Test
+    void createOrder_WithParallelCheckoutsOfLowStockProduct_ShouldNeverOversell() throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .name("Last units")
+                .price(new BigDecimal("9.99"))
+                .stock(STOCK)
+                .category("Grocery")
+                .active(true)
+                .build());
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < SHOPPERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .email("shopper" + i + "@example.com")
+                    .password("secret")
+                    .role(User.Role.USER)
+                    .build());
+            Cart cart = Cart.builder().user(user).build();
+            cart.getItems().add(CartItem.builder().cart(cart).product(product).quantity(1).build());
+            cartRepository.save(cart);
+            userIds.add(user.getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> checkouts = new ArrayList<>();
+        for (Long userId : userIds) {
+            checkouts.add(executor.submit(() -> {
+                start.await();
+                return orderService.createOrder(userId, new CreateOrderRequest("1 rue de la Paix", null, "0600000000", null));
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        int placed = 0;
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<?> checkout : checkouts) {
+            try {
+                checkout.get();
+                placed++;
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdownNow();
+
+        log.info("{} checkouts on {} threads in {} ms ({} per second), {} placed",
+                SHOPPERS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                SHOPPERS * TimeUnit.SECONDS.toNanos(1) / elapsedNanos, placed);
+
+        assertEquals(STOCK, placed);
+        for (Throwable failure : failures) {
+            BusinessException exception = assertInstanceOf(BusinessException.class, failure);
+            assertEquals(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, exception.getCode());
+        }
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+}
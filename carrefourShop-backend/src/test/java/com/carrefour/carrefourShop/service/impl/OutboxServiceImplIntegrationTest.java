@@ -0,0 +1,267 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.cache.CatalogChangedEvent;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.outbox.OutboxEvent;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Outbox end to end: events are written by the publishing transaction only, and a dispatch
+ * delivers each to listeners and marks it done, or counts a failed attempt and parks the
+ * event once it has failed too often, while every node's catalog cache follows the
+ * {@code stock.changed} rows on its own. The scheduled pollers are pushed out and retries are
+ * due at once so each test drives them itself.
+ */
+@SpringBootTest(properties = {
+        "catalog.outbox.poll-interval=3600000",
+        "catalog.outbox.cleanup-interval=3600000",
+        "catalog.outbox.retry-delay=0",
+        "catalog.cache.sync-interval=3600000",
+        "catalog.outbox.max-attempts=" + OutboxServiceImplIntegrationTest.MAX_ATTEMPTS
+})
+@Testcontainers
+@ActiveProfiles("test")
+class OutboxServiceImplIntegrationTest {
+
+    static final int MAX_ATTEMPTS = 3;
+    private static final String TEST_EVENT = "test.event";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @TestConfiguration
+    static class Listeners {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener {
+
+        final List<OutboxEvent> received = new CopyOnWriteArrayList<>();
+        final AtomicBoolean failNext = new AtomicBoolean();
+        final Set<Long> failing = ConcurrentHashMap.newKeySet();
+        final BlockingQueue<CatalogChangedEvent> catalogChanges = new LinkedBlockingQueue<>();
+
+        @EventListener
+        public void onCatalogChanged(CatalogChangedEvent event) {
+            catalogChanges.add(event);
+        }
+
+        @EventListener
+        public void onOutboxEvent(OutboxEvent event) {
+            if (!TEST_EVENT.equals(event.type())) {
+                return;
+            }
+            if (failing.contains(event.aggregateId()) || failNext.getAndSet(false)) {
+                throw new IllegalStateException("Listener down");
+            }
+            received.add(event);
+        }
+    }
+
+    @Autowired
+    private OutboxServiceImpl outboxService;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("DELETE FROM outbox");
+        listener.received.clear();
+        listener.failNext.set(false);
+        listener.failing.clear();
+    }
+
+    @Test
+    void dispatch_ShouldDeliverCommittedEventAndMarkItDispatched() {
+        transaction.executeWithoutResult(status -> outboxService.publish(TEST_EVENT, 42L, Map.of("productIds", List.of(1, 2))));
+
+        outboxService.dispatch();
+
+        assertEquals(1, listener.received.size());
+        OutboxEvent event = listener.received.get(0);
+        assertEquals(42L, event.aggregateId());
+        assertEquals(2, event.payload().path("productIds").size());
+        assertEquals(0, pending());
+    }
+
+    @Test
+    void publish_WhenTransactionRollsBack_ShouldWriteNothing() {
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            outboxService.publish(TEST_EVENT, 42L, Map.of());
+            throw new IllegalStateException("Checkout failed");
+        }));
+
+        outboxService.dispatch();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox", Integer.class));
+        assertTrue(listener.received.isEmpty());
+    }
+
+    @Test
+    void dispatch_WhenListenerFails_ShouldDeliverEventAgainLater() {
+        transaction.executeWithoutResult(status -> outboxService.publish(TEST_EVENT, 42L, Map.of()));
+        listener.failNext.set(true);
+
+        outboxService.dispatch();
+
+        assertTrue(listener.received.isEmpty());
+        assertEquals(1, pending());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT attempts FROM outbox", Integer.class));
+        assertTrue(jdbcTemplate.queryForObject("SELECT last_error FROM outbox", String.class).contains("Listener down"));
+
+        outboxService.dispatch();
+
+        assertEquals(1, listener.received.size());
+        assertEquals(0, pending());
+    }
+
+    @Test
+    void dispatch_WhenOneEventFails_ShouldDeliverTheOthers() {
+        transaction.executeWithoutResult(status -> {
+            outboxService.publish(TEST_EVENT, 1L, Map.of());
+            outboxService.publish(TEST_EVENT, 2L, Map.of());
+            outboxService.publish(TEST_EVENT, 3L, Map.of());
+        });
+        listener.failing.add(2L);
+
+        outboxService.dispatch();
+
+        assertEquals(List.of(1L, 3L), listener.received.stream().map(OutboxEvent::aggregateId).toList());
+        assertEquals(1, pending());
+    }
+
+    @Test
+    void dispatch_WhenEventKeepsFailing_ShouldParkIt() {
+        transaction.executeWithoutResult(status -> outboxService.publish(TEST_EVENT, 1L, Map.of()));
+        listener.failing.add(1L);
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            outboxService.dispatch();
+        }
+        listener.failing.clear();
+        outboxService.dispatch();
+
+        assertTrue(listener.received.isEmpty());
+        assertEquals(MAX_ATTEMPTS, jdbcTemplate.queryForObject("SELECT attempts FROM outbox", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox WHERE parked_at IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    void cleanUp_ShouldRemoveOnlyEventsDispatchedBeforeRetention() {
+        transaction.executeWithoutResult(status -> {
+            outboxService.publish(TEST_EVENT, 1L, Map.of());
+            outboxService.publish(TEST_EVENT, 2L, Map.of());
+            outboxService.publish(TEST_EVENT, 3L, Map.of());
+        });
+        outboxService.dispatch();
+        jdbcTemplate.update("UPDATE outbox SET dispatched_at = LOCALTIMESTAMP - INTERVAL '2 days' WHERE aggregate_id = 1");
+        jdbcTemplate.update("UPDATE outbox SET dispatched_at = NULL, parked_at = LOCALTIMESTAMP - INTERVAL '2 days' WHERE aggregate_id = 2");
+        transaction.executeWithoutResult(status -> outboxService.publish(TEST_EVENT, 4L, Map.of()));
+
+        outboxService.cleanUp();
+
+        assertEquals(List.of(2L, 3L, 4L), jdbcTemplate.queryForList("SELECT aggregate_id FROM outbox ORDER BY id", Long.class));
+    }
+
+    @Test
+    void syncStockChanges_ShouldReloadProductsWhoseStockChangedOnAnyNode() throws InterruptedException {
+        Long productId = productRepository.save(Product.builder()
+                .name("Promo")
+                .price(new BigDecimal("3.50"))
+                .stock(5)
+                .category("Grocery")
+                .active(true)
+                .build()).getId();
+        catalogCache.snapshot();
+        listener.catalogChanges.clear();
+
+        // an order taken on another node: the row and the outbox change, this node's cache is not told
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET stock = 2 WHERE id = ?", productId);
+            outboxService.publish(OutboxEvent.STOCK_CHANGED, null, Map.of("productIds", List.of(productId)));
+        });
+        catalogCache.syncStockChanges();
+
+        assertTrue(awaitCatalogChange(productId));
+        assertEquals(2, catalogCache.snapshot().getProduct(productId).getStock());
+    }
+
+    private boolean awaitCatalogChange(Long productId) throws InterruptedException {
+        CatalogChangedEvent event;
+        while ((event = listener.catalogChanges.poll(5, TimeUnit.SECONDS)) != null) {
+            if (event.isFullReload() || event.changedIds().contains(productId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int pending() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM outbox WHERE dispatched_at IS NULL", Integer.class);
+    }
+}
@@ -0,0 +1,250 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogChangedEvent;
+import com.carrefour.carrefourShop.cache.CatalogSnapshot;
+import com.carrefour.carrefourShop.dto.ProductChangeDto;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeServiceImplTest {
+
+    private static final int BUFFER_SIZE = 4;
+    private static final int SEND_QUEUE = 3;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Queue<RecordingEmitter> emitters = new ArrayDeque<>();
+
+    private ProductChangeServiceImpl productChangeService;
+    private long version;
+
+    @BeforeEach
+    void setUp() {
+        productChangeService = new ProductChangeServiceImpl(objectMapper, meterRegistry) {
+            @Override
+            SseEmitter createEmitter() {
+                return emitters.remove();
+            }
+        };
+        // windows and heartbeats never elapse on their own; each test publishes itself
+        ReflectionTestUtils.setField(productChangeService, "window", 3_600_000L);
+        ReflectionTestUtils.setField(productChangeService, "heartbeatInterval", 3_600_000L);
+        ReflectionTestUtils.setField(productChangeService, "bufferSize", BUFFER_SIZE);
+        ReflectionTestUtils.setField(productChangeService, "sendQueue", SEND_QUEUE);
+        ReflectionTestUtils.setField(productChangeService, "writerThreads", 2);
+        productChangeService.init();
+        change(product(1L, "2.00", 10), product(2L, "3.00", 5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productChangeService.shutdown();
+    }
+
+    @Test
+    void onCatalogChanged_WhenProductChangesTwiceInOneWindow_ShouldSendOneEventWithTheLatestValues() throws Exception {
+        RecordingEmitter client = subscribe(null);
+
+        change(product(1L, "1.50", 10), product(2L, "3.00", 5));
+        change(product(1L, "1.50", 7), product(2L, "2.50", 5));
+        publish();
+
+        String event = client.next();
+        assertTrue(event.contains("event:" + ProductChangeServiceImpl.CHANGES_EVENT));
+        List<ProductChangeDto> changes = changes(event);
+        assertEquals(List.of(1L, 2L), changes.stream().map(ProductChangeDto::getId).toList());
+        assertEquals(0, new BigDecimal("1.50").compareTo(changes.get(0).getPrice()));
+        assertEquals(7, changes.get(0).getStock());
+        assertEquals(0, new BigDecimal("2.50").compareTo(changes.get(1).getPrice()));
+        assertNull(client.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void onCatalogChanged_WhenProductIsGone_ShouldSendItAsInactive() throws Exception {
+        RecordingEmitter client = subscribe(null);
+
+        change(product(2L, "3.00", 5));
+        publish();
+
+        List<ProductChangeDto> changes = changes(client.next());
+        assertEquals(1, changes.size());
+        assertEquals(1L, changes.get(0).getId());
+        assertFalse(changes.get(0).isActive());
+    }
+
+    @Test
+    void subscribe_WhenResumingWithLastEventId_ShouldReplayMissedEventsThenFollowLiveOnes() throws Exception {
+        RecordingEmitter live = subscribe(null);
+        List<String> sent = new ArrayList<>();
+        for (int stock = 1; stock <= 3; stock++) {
+            change(product(1L, "2.00", stock), product(2L, "3.00", 5));
+            publish();
+            sent.add(live.next());
+        }
+
+        RecordingEmitter resumed = subscribe(id(sent.get(0)));
+        change(product(1L, "2.00", 4), product(2L, "3.00", 5));
+        publish();
+
+        assertEquals(sent.get(1), resumed.next());
+        assertEquals(sent.get(2), resumed.next());
+        assertEquals(live.next(), resumed.next());
+    }
+
+    @Test
+    void subscribe_WhenMissedEventsAreGoneOrTooMany_ShouldSendReset() throws Exception {
+        RecordingEmitter live = subscribe(null);
+        List<String> sent = new ArrayList<>();
+        for (int stock = 1; stock <= BUFFER_SIZE + 2; stock++) {
+            change(product(1L, "2.00", stock), product(2L, "3.00", 5));
+            publish();
+            sent.add(live.next());
+        }
+        String epoch = (String) ReflectionTestUtils.getField(productChangeService, "epoch");
+
+        // out of the ring buffer, from another process, and enough to fill the send queue
+        for (String lastEventId : List.of(id(sent.get(0)), "other:" + sent.size(), id(sent.get(1)))) {
+            String event = subscribe(lastEventId).next();
+
+            assertTrue(event.contains("event:" + ProductChangeServiceImpl.RESET_EVENT), lastEventId);
+            assertEquals(epoch + ":" + sent.size(), id(event));
+        }
+        assertEquals(sent.get(sent.size() - 1), subscribe(id(sent.get(sent.size() - 2))).next());
+    }
+
+    @Test
+    void publish_WhenSubscriberStopsReading_ShouldDropItWithoutHoldingUpOthers() throws Exception {
+        CountDownLatch released = new CountDownLatch(1);
+        RecordingEmitter stalled = subscribe(null, released);
+        RecordingEmitter client = subscribe(null);
+
+        for (int stock = 1; stock <= SEND_QUEUE + 3; stock++) {
+            change(product(1L, "2.00", stock), product(2L, "3.00", 5));
+            publish();
+            assertNotNull(client.next());
+        }
+
+        assertEquals(1.0, meterRegistry.get("catalog.changes.dropped").counter().count());
+        assertEquals(1.0, meterRegistry.get("catalog.changes.subscribers").gauge().value());
+        released.countDown();
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(stalled.events.size() <= 1);
+    }
+
+    private RecordingEmitter subscribe(String lastEventId) throws Exception {
+        return subscribe(lastEventId, null);
+    }
+
+    private RecordingEmitter subscribe(String lastEventId, CountDownLatch released) throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(released);
+        emitters.add(emitter);
+        assertSame(emitter, productChangeService.subscribe(lastEventId));
+        onPublisher(() -> {
+        });
+        return emitter;
+    }
+
+    private void publish() throws Exception {
+        onPublisher(() -> ReflectionTestUtils.invokeMethod(productChangeService, "publish"));
+    }
+
+    // the ring buffer and sequence belong to the publisher thread
+    private void onPublisher(Runnable task) throws Exception {
+        ScheduledExecutorService publisher = (ScheduledExecutorService) ReflectionTestUtils.getField(productChangeService, "publisher");
+        publisher.submit(task).get(5, TimeUnit.SECONDS);
+    }
+
+    private void change(ProductDto... products) {
+        productChangeService.onCatalogChanged(new CatalogChangedEvent(CatalogSnapshot.of(++version, List.of(products)), null));
+    }
+
+    private List<ProductChangeDto> changes(String event) throws IOException {
+        String data = event.substring(event.indexOf("data:") + "data:".length()).trim();
+        return objectMapper.readValue(data, new TypeReference<>() {
+        });
+    }
+
+    private static String id(String event) {
+        return event.lines()
+                .filter(line -> line.startsWith("id:"))
+                .map(line -> line.substring("id:".length()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static ProductDto product(Long id, String price, int stock) {
+        return ProductDto.builder()
+                .id(id)
+                .name("Produit " + id)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .category("Épicerie")
+                .active(true)
+                .createdAt(CREATED)
+                .build();
+    }
+
+    /**
+     * Keeps what would have been written to the client. A latch, when given, holds every
+     * write until released, like a client that stopped reading.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch released;
+
+        RecordingEmitter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (released != null) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            events.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event sent");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductPageDto;
+import com.carrefour.carrefourShop.dto.ProductQuery;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset paging on the database path, with the catalog cache off: following nextCursor must
+ * visit every matching product exactly once, in the same order as the sort, even when pages
+ * split between products with equal sort values.
+ */
+@SpringBootTest(properties = "catalog.cache.enabled=false")
+@Testcontainers
+@Transactional
+@ActiveProfiles("test")
+class ProductServiceImplPagingIntegrationTest {
+
+    private static final String CATEGORY = "Pagination";
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<ProductDto> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 23; i++) {
+            Product product = productRepository.saveAndFlush(Product.builder()
+                    .name("Produit " + (i % 4))
+                    .price(new BigDecimal(1 + i % 3))
+                    .stock(i % 2 * 5)
+                    .category(CATEGORY)
+                    .active(true)
+                    .build());
+            // creation dates are stamped on insert; give several products the same one
+            LocalDateTime createdAt = CREATED.plusDays(i % 5);
+            jdbcTemplate.update("UPDATE products SET created_at = ? WHERE id = ?", createdAt, product.getId());
+            products.add(ProductDto.builder()
+                    .id(product.getId())
+                    .name(product.getName())
+                    .price(product.getPrice())
+                    .createdAt(createdAt)
+                    .build());
+        }
+    }
+
+    @Test
+    void getAllProducts_WhenFollowingCursors_ShouldReturnEveryProductOnceInOrder() {
+        for (ProductSort sort : ProductSort.LISTING_SORTS) {
+            List<Long> expected = products.stream()
+                    .sorted(sort.comparator())
+                    .map(ProductDto::getId)
+                    .toList();
+
+            assertEquals(expected, pageThrough(sort), sort.name());
+        }
+    }
+
+    private List<Long> pageThrough(ProductSort sort) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductQuery query = new ProductQuery();
+            query.setSort(sort.name());
+            query.setCategory(List.of(CATEGORY));
+            query.setLimit(5);
+            query.setCursor(cursor);
+            ProductPageDto page = productService.getAllProducts(query);
+            page.getItems().forEach(item -> ids.add(item.getId()));
+            cursor = page.getNextCursor();
+            assertTrue(++pages <= 5, "cursor did not advance");
+        } while (cursor != null);
+        return ids;
+    }
+}
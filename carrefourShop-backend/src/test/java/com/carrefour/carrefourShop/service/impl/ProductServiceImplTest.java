@@ -0,0 +1,218 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.cache.CatalogCache;
+import com.carrefour.carrefourShop.cache.CatalogSnapshot;
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductLookupDto;
+import com.carrefour.carrefourShop.dto.ProductPageDto;
+import com.carrefour.carrefourShop.dto.ProductQuery;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import com.carrefour.carrefourShop.dto.ProductSummaryDto;
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.mapper.ProductMapper;
+import com.carrefour.carrefourShop.mapper.ProductMapperImpl;
+import com.carrefour.carrefourShop.repository.ProductLookupRepository;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.ProductSearchRepository;
+import com.carrefour.carrefourShop.repository.ProductStreamRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceImplTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapperImpl();
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private ProductStreamRepository productStreamRepository;
+
+    @Mock
+    private ProductSearchRepository productSearchRepository;
+
+    @Mock
+    private ProductLookupRepository productLookupRepository;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @InjectMocks
+    private ProductServiceImpl productService;
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productService, "defaultPageSize", 24);
+        ReflectionTestUtils.setField(productService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(productService, "maxLookupIds", 500);
+
+        // few distinct names, prices and dates, so pages split between equal sort values
+        snapshot = CatalogSnapshot.of(1, LongStream.rangeClosed(1, 23)
+                .mapToObj(id -> product(id, "Produit " + (id % 4), String.valueOf(1 + id % 3), CREATED.plusDays(id % 5), (int) (id % 2) * 5))
+                .toList());
+        lenient().when(catalogCache.isEnabled()).thenReturn(true);
+        lenient().when(catalogCache.snapshot()).thenAnswer(invocation -> snapshot);
+    }
+
+    @Test
+    void getAllProducts_WhenFollowingCursors_ShouldReturnEveryProductOnceInOrder() {
+        for (ProductSort sort : ProductSort.LISTING_SORTS) {
+            List<Long> paged = pageThrough(sort.name(), null);
+
+            assertEquals(ids(snapshot.getProducts(sort)), paged, sort.name());
+        }
+    }
+
+    @Test
+    void getAllProducts_WhenFollowingCursorsWithAFilter_ShouldPageOverMatchesOnly() {
+        List<Long> paged = pageThrough("PRICE", true);
+
+        List<Long> expected = snapshot.getProducts(ProductSort.PRICE).stream()
+                .filter(product -> product.getStock() > 0)
+                .map(ProductDto::getId)
+                .toList();
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void getAllProducts_WhenCursorProductIsGoneFromTheNextSnapshot_ShouldContinueAfterIt() {
+        ProductPageDto first = productService.getAllProducts(query("NAME", null, null, 5));
+        Long last = first.getItems().get(first.getItems().size() - 1).getId();
+        snapshot = snapshot.withChanges(2, List.of(last), List.of());
+
+        ProductPageDto second = productService.getAllProducts(query("NAME", first.getNextCursor(), null, 5));
+
+        List<Long> expected = ids(snapshot.getProducts(ProductSort.NAME)).subList(4, 9);
+        assertEquals(expected, second.getItems().stream().map(ProductSummaryDto::getId).toList());
+    }
+
+    @Test
+    void getProductsByIds_WhenCached_ShouldReturnProductsInRequestOrder() {
+        ProductLookupDto lookup = productService.getProductsByIds(List.of(7L, 3L, 12L));
+
+        assertEquals(List.of(7L, 3L, 12L), ids(lookup.getItems()));
+        assertTrue(lookup.getMissingIds().isEmpty());
+        verifyNoInteractions(productLookupRepository);
+    }
+
+    @Test
+    void getProductsByIds_WhenIdsRepeatOrAreNull_ShouldReturnEachProductOnce() {
+        ProductLookupDto lookup = productService.getProductsByIds(Arrays.asList(3L, null, 7L, 3L));
+
+        assertEquals(List.of(3L, 7L), ids(lookup.getItems()));
+        assertTrue(lookup.getMissingIds().isEmpty());
+    }
+
+    @Test
+    void getProductsByIds_WhenIdsAreUnknownOrInactive_ShouldListThemAsMissing() {
+        ProductDto deactivated = product(5L, "Produit 1", "3", CREATED, 5);
+        deactivated.setActive(false);
+        snapshot = snapshot.withChanges(2, List.of(5L), List.of(deactivated));
+
+        ProductLookupDto lookup = productService.getProductsByIds(List.of(5L, 99L, 2L));
+
+        assertEquals(List.of(2L), ids(lookup.getItems()));
+        assertEquals(List.of(5L, 99L), lookup.getMissingIds());
+    }
+
+    @Test
+    void getProductsByIds_WhenMoreDistinctIdsThanAllowed_ShouldThrow() {
+        ReflectionTestUtils.setField(productService, "maxLookupIds", 3);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> productService.getProductsByIds(List.of(1L, 2L, 3L, 4L)));
+
+        assertEquals(ExceptionConstants.TOO_MANY_PRODUCT_IDS, exception.getCode());
+        assertEquals(3, productService.getProductsByIds(List.of(1L, 1L, 2L, 2L, 3L)).getItems().size());
+    }
+
+    @Test
+    void getProductsByIds_WhenCacheDisabled_ShouldQueryOnceAndKeepRequestOrder() {
+        when(catalogCache.isEnabled()).thenReturn(false);
+        when(productLookupRepository.findActiveByIds(any())).thenReturn(List.of(snapshot.getProduct(3L), snapshot.getProduct(9L)));
+
+        ProductLookupDto lookup = productService.getProductsByIds(Arrays.asList(9L, 4L, null, 3L, 9L));
+
+        assertEquals(List.of(9L, 3L), ids(lookup.getItems()));
+        assertEquals(List.of(4L), lookup.getMissingIds());
+        verify(productLookupRepository).findActiveByIds(new LinkedHashSet<>(List.of(9L, 4L, 3L)));
+        verify(catalogCache, never()).snapshot();
+    }
+
+    @Test
+    void getProductsByIds_WhenCacheDisabledAndNoIdsLeft_ShouldNotQuery() {
+        when(catalogCache.isEnabled()).thenReturn(false);
+
+        ProductLookupDto lookup = productService.getProductsByIds(Arrays.asList(null, null));
+
+        assertTrue(lookup.getItems().isEmpty());
+        assertTrue(lookup.getMissingIds().isEmpty());
+        verifyNoInteractions(productLookupRepository);
+    }
+
+    private List<Long> pageThrough(String sort, Boolean inStock) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductPageDto page = productService.getAllProducts(query(sort, cursor, inStock, 5));
+            page.getItems().forEach(item -> ids.add(item.getId()));
+            cursor = page.getNextCursor();
+            assertTrue(++pages <= 5, "cursor did not advance");
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static ProductQuery query(String sort, String cursor, Boolean inStock, int limit) {
+        ProductQuery query = new ProductQuery();
+        query.setSort(sort);
+        query.setCursor(cursor);
+        query.setInStock(inStock);
+        query.setLimit(limit);
+        return query;
+    }
+
+    private static List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+
+    private static ProductDto product(Long id, String name, String price, LocalDateTime createdAt, int stock) {
+        return ProductDto.builder()
+                .id(id)
+                .name(name)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .category("Épicerie")
+                .active(true)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.dto.AddToCartRequest;
+import com.carrefour.carrefourShop.dto.CreateOrderRequest;
+import com.carrefour.carrefourShop.entity.Product;
+import com.carrefour.carrefourShop.entity.User;
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import com.carrefour.carrefourShop.repository.ProductRepository;
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.service.CartService;
+import com.carrefour.carrefourShop.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class StockReservationServiceImplIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Autowired
+    private StockReservationServiceImpl stockReservationService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product promo;
+    private Long alice;
+    private Long bob;
+
+    @BeforeEach
+    void setUp() {
+        promo = productRepository.save(Product.builder()
+                .name("Promo")
+                .price(new BigDecimal("4.99"))
+                .stock(2)
+                .category("Grocery")
+                .active(true)
+                .build());
+        alice = user();
+        bob = user();
+    }
+
+    @Test
+    void addItemToCart_WhenStockIsHeldByAnotherCart_ShouldThrowBusinessException() {
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> cartService.addItemToCart(bob, new AddToCartRequest(promo.getId(), 1)));
+
+        assertEquals(ExceptionConstants.INSUFFICIENT_STOCK, exception.getCode());
+        assertEquals(0, stockReservationService.getAvailableStock(promo.getId(), 2));
+        assertEquals(2, reserved());
+    }
+
+    @Test
+    void removeItemFromCart_ShouldReleaseHold() {
+        Long itemId = cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2)).getItems().get(0).getId();
+
+        cartService.removeItemFromCart(alice, itemId);
+
+        assertEquals(0, reserved());
+        assertEquals(2, stockReservationService.getAvailableStock(promo.getId(), 2));
+        assertDoesNotThrow(() -> cartService.addItemToCart(bob, new AddToCartRequest(promo.getId(), 2)));
+    }
+
+    @Test
+    void sweepExpired_ShouldReleaseExpiredHolds() {
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+        jdbcTemplate.update("UPDATE stock_reservations SET expires_at = LOCALTIMESTAMP - INTERVAL '1 minute' WHERE product_id = ?", promo.getId());
+
+        stockReservationService.sweepExpired();
+
+        assertEquals(0, reserved());
+        assertEquals(2, stockReservationService.getAvailableStock(promo.getId(), 2));
+        assertDoesNotThrow(() -> cartService.addItemToCart(bob, new AddToCartRequest(promo.getId(), 2)));
+    }
+
+    @Test
+    void createOrder_ShouldConvertHoldIntoStockDecrement() {
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+
+        orderService.createOrder(alice, new CreateOrderRequest("1 rue de la Paix", null, "0600000000", null));
+
+        assertEquals(0, productRepository.findById(promo.getId()).orElseThrow().getStock());
+        assertEquals(0, reserved());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM stock_reservations WHERE product_id = ?", Integer.class, promo.getId()));
+    }
+
+    @Test
+    void createOrder_AfterHoldExpired_ShouldStillTakeFreeStock() {
+        cartService.addItemToCart(alice, new AddToCartRequest(promo.getId(), 2));
+        jdbcTemplate.update("UPDATE stock_reservations SET expires_at = LOCALTIMESTAMP - INTERVAL '1 minute' WHERE product_id = ?", promo.getId());
+        stockReservationService.sweepExpired();
+        cartService.addItemToCart(bob, new AddToCartRequest(promo.getId(), 1));
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> orderService.createOrder(alice, new CreateOrderRequest("1 rue de la Paix", null, "0600000000", null)));
+
+        assertEquals(ExceptionConstants.INSUFFICIENT_STOCK_FOR_PRODUCT, exception.getCode());
+        assertEquals(2, productRepository.findById(promo.getId()).orElseThrow().getStock());
+        assertEquals(1, reserved());
+    }
+
+    private int reserved() {
+        return jdbcTemplate.queryForObject("SELECT reserved FROM products WHERE id = ?", Integer.class, promo.getId());
+    }
+
+    private Long user() {
+        return userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .role(User.Role.USER)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,114 @@
+package com.carrefour.carrefourShop.service.impl;
+
+import com.carrefour.carrefourShop.repository.UserRepository;
+import com.carrefour.carrefourShop.repository.UserRepository.TokenVersionView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TokenVersionServiceImpl tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenVersionService, "fullRefreshInterval", 600_000L);
+    }
+
+    @Test
+    void isCurrent_WhenVersionMatches_ShouldAcceptToken() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(3));
+
+        assertTrue(tokenVersionService.isCurrent(1L, 3));
+        assertTrue(tokenVersionService.isCurrent(1L, 3));
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_WhenTokenIsStale_ShouldRejectIt() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(3));
+
+        assertFalse(tokenVersionService.isCurrent(1L, 2));
+    }
+
+    @Test
+    void isCurrent_WhenUserIsUnknown_ShouldRejectToken() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(tokenVersionService.isCurrent(1L, 0));
+    }
+
+    @Test
+    void revokeAllTokens_ShouldBumpVersionAndRejectOlderTokens() {
+        tokenVersionService.remember(1L, 0);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1));
+
+        int current = tokenVersionService.revokeAllTokens(1L);
+
+        assertEquals(1, current);
+        verify(userRepository).incrementTokenVersion(1L);
+        assertFalse(tokenVersionService.isCurrent(1L, 0));
+        assertTrue(tokenVersionService.isCurrent(1L, 1));
+    }
+
+    @Test
+    void refresh_AfterFirstLoad_ShouldPullChangesOverDatabaseClockWindow() {
+        when(userRepository.findAllTokenVersions()).thenReturn(List.of(view(1L, 0)));
+        tokenVersionService.refresh();
+        assertTrue(tokenVersionService.isCurrent(1L, 0));
+
+        // another node bumped the version, e.g. on a role change
+        when(userRepository.findTokenVersionsUpdatedWithin(anyLong())).thenReturn(List.of(view(1L, 1)));
+        tokenVersionService.refresh();
+
+        verify(userRepository, times(1)).findAllTokenVersions();
+        verify(userRepository).findTokenVersionsUpdatedWithin(longThat(window -> window >= 5_000));
+        assertFalse(tokenVersionService.isCurrent(1L, 0));
+        assertTrue(tokenVersionService.isCurrent(1L, 1));
+    }
+
+    @Test
+    void refresh_WhenFullRefreshIsDue_ShouldDropDeletedUsers() {
+        ReflectionTestUtils.setField(tokenVersionService, "fullRefreshInterval", 0L);
+        when(userRepository.findAllTokenVersions())
+                .thenReturn(List.of(view(1L, 0), view(2L, 0)))
+                .thenReturn(List.of(view(1L, 0)));
+        tokenVersionService.refresh();
+        tokenVersionService.refresh();
+        when(userRepository.findTokenVersionById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(tokenVersionService.isCurrent(1L, 0));
+        assertFalse(tokenVersionService.isCurrent(2L, 0));
+        verify(userRepository, never()).findTokenVersionsUpdatedWithin(anyLong());
+    }
+
+    private static TokenVersionView view(Long id, int tokenVersion) {
+        return new TokenVersionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getTokenVersion() {
+                return tokenVersion;
+            }
+        };
+    }
+}
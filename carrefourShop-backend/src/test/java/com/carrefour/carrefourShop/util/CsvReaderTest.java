@@ -0,0 +1,48 @@
+package com.carrefour.carrefourShop.util;
+
+import com.carrefour.carrefourShop.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void next_ShouldSplitPlainAndQuotedFields() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("sku,name,price\r\nA1,\"Lait, entier\",1.99\r\n"));
+
+        assertEquals(List.of("sku", "name", "price"), reader.next());
+        assertEquals(List.of("A1", "Lait, entier", "1.99"), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_ShouldKeepQuotesAndLineBreaksInsideQuotedFields() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("A1,\"Yaourt \"\"bio\"\"\nx8\",4.99\nA2,Pain,2.49"));
+
+        assertEquals(List.of("A1", "Yaourt \"bio\"\nx8", "4.99"), reader.next());
+        assertEquals(List.of("A2", "Pain", "2.49"), reader.next());
+        assertEquals(3, reader.recordLine());
+    }
+
+    @Test
+    void next_ShouldReadUnquotedEmptyAsNullAndSkipBlankLines() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("\n\nA1,,\"\"\n\n"));
+
+        assertEquals(Arrays.asList("A1", null, ""), reader.next());
+        assertEquals(3, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_WhenQuoteIsNotClosed_ShouldThrow() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("A1,\"Lait entier,1.99\n"));
+
+        assertThrows(BusinessException.class, reader::next);
+    }
+}
@@ -0,0 +1,67 @@
+package com.carrefour.carrefourShop.util;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtil = new JwtUtil(meterRegistry);
+        ReflectionTestUtils.setField(jwtUtil, "secret", "mySecretKeyForJWTTokenGenerationAndValidationMinimum32CharactersLong");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 100);
+        jwtUtil.init();
+
+        userDetails = User.builder()
+                .username("test@example.com")
+                .password("secret")
+                .roles("USER")
+                .build();
+    }
+
+    @Test
+    void parseToken_WhenCalledTwice_ShouldVerifyOnceAndServeSecondFromCache() {
+        String token = jwtUtil.generateToken(userDetails, "USER");
+
+        Optional<Claims> first = jwtUtil.parseToken(token);
+        Optional<Claims> second = jwtUtil.parseToken(token);
+
+        assertTrue(first.isPresent());
+        assertTrue(second.isPresent());
+        assertEquals("test@example.com", second.get().getSubject());
+        assertEquals(1.0, meterRegistry.counter("jwt.cache.requests", "result", "miss").count());
+        assertEquals(1.0, meterRegistry.counter("jwt.cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    void parseToken_WhenSignatureTampered_ShouldReturnEmpty() {
+        String token = jwtUtil.generateToken(userDetails, "USER");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertTrue(jwtUtil.parseToken(tampered).isEmpty());
+        assertFalse(jwtUtil.isTokenValid(tampered));
+    }
+
+    @Test
+    void parseToken_WhenTokenExpired_ShouldReturnEmpty() {
+        ReflectionTestUtils.setField(jwtUtil, "expiration", -1_000L);
+        String token = jwtUtil.generateToken(userDetails, "USER");
+
+        assertTrue(jwtUtil.parseToken(token).isEmpty());
+    }
+}
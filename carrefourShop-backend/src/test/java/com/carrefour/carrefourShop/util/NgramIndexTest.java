@@ -0,0 +1,66 @@
+package com.carrefour.carrefourShop.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NgramIndexTest {
+
+    private final NgramIndex index = NgramIndex.build(List.of(
+            new NgramIndex.Entry(1, "Chocolat noir", 5),
+            new NgramIndex.Entry(2, "Biscuits au chocolat", 50),
+            new NgramIndex.Entry(3, "Crème brûlée", 0),
+            new NgramIndex.Entry(4, "Pain de mie complet", 10),
+            new NgramIndex.Entry(5, "Chocolat au lait", 1)));
+
+    @Test
+    void normalizeFoldsAccentsAndPunctuation() {
+        assertEquals("creme brulee 70", NgramIndex.normalize("  Crème-Brûlée (70%) "));
+    }
+
+    @Test
+    void nameStartingWithPrefixRanksFirstThenPopularity() {
+        assertEquals(List.of(1L, 5L, 2L), search("choc", 10, null));
+    }
+
+    @Test
+    void shortPrefixUsesEdgeGrams() {
+        assertEquals(List.of(1L, 5L, 3L, 2L, 4L), search("c", 10, null));
+        assertEquals(List.of(4L), search("pa", 10, null));
+    }
+
+    @Test
+    void matchesAccentFoldedTextAndEveryWord() {
+        assertEquals(List.of(3L), search("creme bru", 10, null));
+        assertEquals(List.of(5L), search("chocolat lait", 10, null));
+        assertEquals(List.of(), search("chocolat blanc", 10, null));
+    }
+
+    @Test
+    void matchesInsideWordsRankedByPopularity() {
+        assertEquals(List.of(2L, 1L, 5L), search("colat", 10, null));
+    }
+
+    @Test
+    void limitsResultsAndSkipsExcludedDocuments() {
+        assertEquals(List.of(1L), search("choc", 1, null));
+
+        BitSet excluded = new BitSet();
+        excluded.set(index.ordinalOf(1));
+        assertEquals(List.of(5L, 2L), search("choc", 10, excluded));
+    }
+
+    private List<Long> search(String prefix, int k, BitSet excluded) {
+        NgramIndex.TopK top = new NgramIndex.TopK(k);
+        index.search(NgramIndex.normalize(prefix), top, excluded);
+        List<Long> ids = new ArrayList<>();
+        for (int rank = 0; rank < top.size(); rank++) {
+            ids.add(top.id(rank));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,62 @@
+package com.carrefour.carrefourShop.util;
+
+import com.carrefour.carrefourShop.dto.ProductDto;
+import com.carrefour.carrefourShop.dto.ProductSort;
+import com.carrefour.carrefourShop.exception.BusinessException;
+import com.carrefour.carrefourShop.exception.ExceptionConstants;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCursorTest {
+
+    private final ProductDto product = ProductDto.builder()
+            .id(42L)
+            .name("Café | moulu 250g")
+            .price(new BigDecimal("3.90"))
+            .createdAt(LocalDateTime.of(2024, 5, 17, 9, 30, 12, 345_000_000))
+            .build();
+
+    @Test
+    void decode_ShouldReadBackWhatEncodeWroteForEveryListingSort() {
+        for (ProductSort sort : ProductSort.LISTING_SORTS) {
+            ProductCursor cursor = ProductCursor.after(sort, product);
+
+            ProductCursor decoded = ProductCursor.decode(cursor.encode(), sort);
+
+            assertEquals(cursor, decoded);
+            assertEquals(0, sort.comparator().compare(product, decoded.key()));
+        }
+    }
+
+    @Test
+    void encode_ShouldBeUrlSafe() {
+        String encoded = ProductCursor.after(ProductSort.NAME, product).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_WhenCursorWasIssuedForAnotherSort_ShouldReject() {
+        String encoded = ProductCursor.after(ProductSort.PRICE, product).encode();
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> ProductCursor.decode(encoded, ProductSort.NAME));
+        assertEquals(ExceptionConstants.INVALID_CURSOR, exception.getCode());
+    }
+
+    @Test
+    void decode_WhenCursorIsGarbage_ShouldReject() {
+        assertThrows(BusinessException.class, () -> ProductCursor.decode("not a cursor!", ProductSort.NAME));
+        assertThrows(BusinessException.class, () -> ProductCursor.decode("TkFNRQ", ProductSort.NAME));
+        assertThrows(BusinessException.class, () -> ProductCursor.decode(new ProductCursor(ProductSort.PRICE, 1L, "abc").encode(), ProductSort.PRICE).key());
+    }
+
+    @Test
+    void decode_WhenCursorIsMissing_ShouldStartFromTheTop() {
+        assertNull(ProductCursor.decode(null, ProductSort.NAME));
+        assertNull(ProductCursor.decode(" ", ProductSort.NAME));
+    }
+}
@@ -0,0 +1,47 @@
+package com.carrefour.carrefourShop.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterTest {
+
+    @Test
+    void tryAcquire_WhenLimitReachedWithinWindow_ShouldReject() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 60_000);
+        long now = 600_000;
+
+        assertTrue(limiter.tryAcquire("10.0.0.1", now));
+        assertTrue(limiter.tryAcquire("10.0.0.1", now + 1));
+        assertTrue(limiter.tryAcquire("10.0.0.1", now + 2));
+        assertFalse(limiter.tryAcquire("10.0.0.1", now + 3));
+        assertTrue(limiter.tryAcquire("10.0.0.2", now + 3));
+    }
+
+    @Test
+    void tryAcquire_WhenPreviousWindowStillOverlaps_ShouldWeightIt() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, 60_000);
+        long windowStart = 600_000;
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire("user@example.com", windowStart + 59_000));
+        }
+
+        // 10% into the next window, 90% of the previous 4 attempts still count: 3.6 + 1 > 4
+        assertTrue(limiter.tryAcquire("user@example.com", windowStart + 66_000));
+        assertFalse(limiter.tryAcquire("user@example.com", windowStart + 66_000));
+        // 80% into the next window, only 20% of them do
+        assertTrue(limiter.tryAcquire("user@example.com", windowStart + 108_000));
+    }
+
+    @Test
+    void evictIdle_WhenKeyIdleForTwoWindows_ShouldRemoveIt() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 60_000);
+        limiter.tryAcquire("10.0.0.1", 600_000);
+
+        limiter.evictIdle(600_000 + 60_000);
+        assertEquals(1, limiter.size());
+
+        limiter.evictIdle(600_000 + 180_000);
+        assertEquals(0, limiter.size());
+    }
+}
@@ -0,0 +1,117 @@
+package com.carrefour.carrefourShop.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedCounterTest {
+
+    @Test
+    void tryTake_WhenUnitsAvailable_ShouldTakeThemUntilEmpty() {
+        StripedCounter counter = new StripedCounter(4);
+        counter.add(8);
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(counter.tryTake(1));
+        }
+        assertFalse(counter.tryTake(1));
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void tryTake_WhenNoStripeHoldsEnough_ShouldTakeAcrossStripes() {
+        StripedCounter counter = new StripedCounter(4);
+        counter.add(6);
+
+        assertTrue(counter.tryTake(3));
+        assertEquals(3, counter.sum());
+        assertTrue(counter.tryTake(3));
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void tryTake_WhenStripesTogetherHoldTooFew_ShouldTakeNothing() {
+        StripedCounter counter = new StripedCounter(4);
+        counter.add(6);
+
+        assertFalse(counter.tryTake(7));
+        assertEquals(6, counter.sum());
+        assertTrue(counter.tryTake(6));
+    }
+
+    @Test
+    void drain_ShouldEmptyAllStripes() {
+        StripedCounter counter = new StripedCounter(3);
+        counter.add(10);
+        counter.tryTake(1);
+
+        assertEquals(9, counter.drain());
+        assertEquals(0, counter.sum());
+        assertFalse(counter.tryTake(1));
+    }
+
+    @Test
+    void tryTake_FromManyThreads_ShouldNeverHandOutMoreThanAdded() throws Exception {
+        StripedCounter counter = new StripedCounter(8);
+        counter.add(10_000);
+        AtomicInteger taken = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        if (counter.tryTake(1)) {
+                            taken.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10_000, taken.get());
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void tryTake_ManyUnitsFromManyThreads_ShouldHandOutEveryUnitOnce() throws Exception {
+        StripedCounter counter = new StripedCounter(8);
+        counter.add(9_999);
+        AtomicInteger taken = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        if (counter.tryTake(3)) {
+                            taken.addAndGet(3);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // takes of 3 drain the stripes unevenly, so the last takes have to gather
+        assertEquals(9_999 - counter.sum(), taken.get());
+        assertTrue(counter.sum() < 3 * 8, "left " + counter.sum());
+        assertTrue(counter.tryTake(counter.sum()));
+    }
+}
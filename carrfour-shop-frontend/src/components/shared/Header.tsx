@@ -5,6 +5,7 @@ import {
   useGetCurrentUserQuery,
   useLogoutMutation,
   useGetCartQuery,
+  useGetSuggestionsQuery,
 } from '../../services/apiSlice';
 import { clearCredentials } from '../../redux/slices/authSlice';
 import { apiSlice } from '../../services/apiSlice';
@@ -22,6 +23,9 @@ const Header = () => {
   const { data: cart } = useGetCartQuery(undefined, {
     skip: !isAuthenticated,
   });
+  const { data: suggestions = [] } = useGetSuggestionsQuery(searchKeyword.trim(), {
+    skip: !searchKeyword.trim(),
+  });
 
   const displayUser = currentUser || user;
 
@@ -61,8 +65,14 @@ const Header = () => {
                 placeholder="Ordinateur, jouet, cafetière..."
                 value={searchKeyword}
                 onChange={(e) => setSearchKeyword(e.target.value)}
+                list="product-suggestions"
                 className="w-full px-4 py-2 border border-gray-300 rounded-lg focus:outline-none focus:ring-2 focus:ring-blue-500"
               />
+              <datalist id="product-suggestions">
+                {suggestions.map((suggestion) => (
+                  <option key={suggestion.id} value={suggestion.name} />
+                ))}
+              </datalist>
               <button
                 type="submit"
                 className="absolute right-2 top-1/2 transform -translate-y-1/2 px-4 py-1 bg-blue-600 text-white rounded hover:bg-blue-700"
@@ -48,7 +48,7 @@ const Login = () => {
     setErrorMessage(null);
     try {
       const result = await loginMutation(formData).unwrap();
-      dispatch(setCredentials({ user: result.user, token: result.token }));
+      dispatch(setCredentials({ user: result.user, token: result.token, refreshToken: result.refreshToken }));
       navigate('/products');
     } catch (err) {}
   };
@@ -1,16 +1,25 @@
-import { useEffect } from 'react';
+import { useEffect, useState } from 'react';
 import { useParams, Link } from 'react-router-dom';
 import { useGetOrderByIdQuery, useClearCartMutation } from '../services/apiSlice';
 import Layout from '../components/shared/Layout';
 import { formatPrice } from '../utils/formatPrice';
 
+// An order accepted with 202 is placed or rejected by a background worker shortly after.
+const ACCEPTED_POLLING_INTERVAL = 2000;
+
 const OrderConfirmation = () => {
   const { id } = useParams<{ id: string }>();
+  const [pollingInterval, setPollingInterval] = useState(0);
   const { data: currentOrder, isLoading: loading } = useGetOrderByIdQuery(Number(id) || 0, {
     skip: !id,
+    pollingInterval,
   });
   const [clearCartMutation] = useClearCartMutation();
 
+  useEffect(() => {
+    setPollingInterval(currentOrder?.status === 'ACCEPTED' ? ACCEPTED_POLLING_INTERVAL : 0);
+  }, [currentOrder?.status]);
+
   useEffect(() => {
     if (id) {
       clearCartMutation();
@@ -40,24 +49,28 @@ const OrderConfirmation = () => {
 
   const getStatusText = (status: string) => {
     const statusMap: Record<string, string> = {
+      ACCEPTED: 'En cours de validation',
       PENDING: 'En attente',
       CONFIRMED: 'Confirmée',
       PROCESSING: 'En traitement',
       SHIPPED: 'Expédiée',
       DELIVERED: 'Livrée',
       CANCELLED: 'Annulée',
+      REJECTED: 'Refusée',
     };
     return statusMap[status] || status;
   };
 
   const getStatusColor = (status: string) => {
     const colorMap: Record<string, string> = {
+      ACCEPTED: 'bg-orange-100 text-orange-800',
       PENDING: 'bg-yellow-100 text-yellow-800',
       CONFIRMED: 'bg-blue-100 text-blue-800',
       PROCESSING: 'bg-purple-100 text-purple-800',
       SHIPPED: 'bg-indigo-100 text-indigo-800',
       DELIVERED: 'bg-green-100 text-green-800',
       CANCELLED: 'bg-red-100 text-red-800',
+      REJECTED: 'bg-red-100 text-red-800',
     };
     return colorMap[status] || 'bg-gray-100 text-gray-800';
   };
@@ -66,13 +79,33 @@ const OrderConfirmation = () => {
     <Layout>
       <div className="max-w-3xl mx-auto">
         <div className="bg-white rounded-lg shadow-md p-8 text-center mb-6">
-          <div className="w-16 h-16 bg-green-100 rounded-full flex items-center justify-center mx-auto mb-4">
-            <svg className="w-8 h-8 text-green-600" fill="none" stroke="currentColor" viewBox="0 0 24 24">
-              <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M5 13l4 4L19 7" />
-            </svg>
-          </div>
-          <h1 className="text-3xl font-bold mb-2">Commande confirmée!</h1>
-          <p className="text-gray-600">Merci pour votre achat</p>
+          {currentOrder.status === 'ACCEPTED' ? (
+            <>
+              <div className="inline-block animate-spin rounded-full h-12 w-12 border-b-2 border-orange-500 mb-4"></div>
+              <h1 className="text-3xl font-bold mb-2">Commande reçue</h1>
+              <p className="text-gray-600">Nous vérifions la disponibilité de vos articles...</p>
+            </>
+          ) : currentOrder.status === 'REJECTED' ? (
+            <>
+              <div className="w-16 h-16 bg-red-100 rounded-full flex items-center justify-center mx-auto mb-4">
+                <svg className="w-8 h-8 text-red-600" fill="none" stroke="currentColor" viewBox="0 0 24 24">
+                  <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M6 18L18 6M6 6l12 12" />
+                </svg>
+              </div>
+              <h1 className="text-3xl font-bold mb-2">Commande refusée</h1>
+              <p className="text-gray-600">{currentOrder.statusReason || "Votre commande n'a pas pu être validée"}</p>
+            </>
+          ) : (
+            <>
+              <div className="w-16 h-16 bg-green-100 rounded-full flex items-center justify-center mx-auto mb-4">
+                <svg className="w-8 h-8 text-green-600" fill="none" stroke="currentColor" viewBox="0 0 24 24">
+                  <path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M5 13l4 4L19 7" />
+                </svg>
+              </div>
+              <h1 className="text-3xl font-bold mb-2">Commande confirmée!</h1>
+              <p className="text-gray-600">Merci pour votre achat</p>
+            </>
+          )}
         </div>
 
         <div className="bg-white rounded-lg shadow-md p-6 mb-6">
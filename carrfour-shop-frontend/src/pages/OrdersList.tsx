@@ -12,24 +12,28 @@ const OrdersList = () => {
 
   const getStatusText = (status: string) => {
     const statusMap: Record<string, string> = {
+      ACCEPTED: 'En cours de validation',
       PENDING: 'En attente',
       CONFIRMED: 'Confirmée',
       PROCESSING: 'En traitement',
       SHIPPED: 'Expédiée',
       DELIVERED: 'Livrée',
       CANCELLED: 'Annulée',
+      REJECTED: 'Refusée',
     };
     return statusMap[status] || status;
   };
 
   const getStatusColor = (status: string) => {
     const colorMap: Record<string, string> = {
+      ACCEPTED: 'bg-orange-100 text-orange-800',
       PENDING: 'bg-yellow-100 text-yellow-800',
       CONFIRMED: 'bg-blue-100 text-blue-800',
       PROCESSING: 'bg-purple-100 text-purple-800',
       SHIPPED: 'bg-indigo-100 text-indigo-800',
       DELIVERED: 'bg-green-100 text-green-800',
       CANCELLED: 'bg-red-100 text-red-800',
+      REJECTED: 'bg-red-100 text-red-800',
     };
     return colorMap[status] || 'bg-gray-100 text-gray-800';
   };
@@ -81,6 +85,10 @@ const OrdersList = () => {
                 </span>
               </div>
 
+              {order.status === 'REJECTED' && order.statusReason && (
+                <p className="mb-4 p-3 bg-red-50 text-red-700 rounded-lg text-sm">{order.statusReason}</p>
+              )}
+
               <div className="border-t pt-4 mb-4">
                 <div className="space-y-2 mb-4">
                   {order.items.map((item) => (
@@ -1,6 +1,6 @@
 import { Link, useSearchParams } from 'react-router-dom';
 import { useAppSelector } from '../redux/store/hooks';
-import { useGetProductsQuery, useSearchProductsQuery, useAddToCartMutation } from '../services/apiSlice';
+import { useGetProductsInfiniteQuery, useSearchProductsInfiniteQuery, useAddToCartMutation } from '../services/apiSlice';
 import Layout from '../components/shared/Layout';
 import { formatPrice } from '../utils/formatPrice';
 import { showSuccess, showInfo } from '../utils/toast';
@@ -11,15 +11,16 @@ const Products = () => {
   const { isAuthenticated } = useAppSelector((state) => state.auth);
   const [addToCartMutation] = useAddToCartMutation();
   
-  const { data: searchResults, isLoading: searchLoading } = useSearchProductsQuery(searchKeyword, {
+  const searchQuery = useSearchProductsInfiniteQuery(searchKeyword, {
     skip: !searchKeyword,
   });
-  const { data: allProducts = [], isLoading: productsLoading } = useGetProductsQuery(undefined, {
+  const allProductsQuery = useGetProductsInfiniteQuery(undefined, {
     skip: !!searchKeyword,
   });
-  
-  const products = searchKeyword ? (searchResults || []) : allProducts;
-  const loading = searchKeyword ? searchLoading : productsLoading;
+
+  const { data, isLoading: loading, hasNextPage, isFetchingNextPage, fetchNextPage } =
+    searchKeyword ? searchQuery : allProductsQuery;
+  const products = data?.pages.flatMap((page) => page.items) ?? [];
 
   const handleAddToCart = async (productId: number) => {
     if (!isAuthenticated) {
@@ -61,7 +62,9 @@ const Products = () => {
               <Link to={`/products/${product.id}`}>
                 <h3 className="font-semibold text-lg mb-2 hover:text-blue-600">{product.name}</h3>
               </Link>
-              <p className="text-gray-600 text-sm mb-2 line-clamp-2">{product.description}</p>
+              {product.brand && (
+                <p className="text-gray-600 text-sm mb-2">{product.brand}</p>
+              )}
               <div className="flex items-center justify-between">
                 <span className="text-xl font-bold text-blue-600">{formatPrice(product.price)}€</span>
                 <button
@@ -79,6 +82,18 @@ const Products = () => {
         ))}
       </div>
 
+      {hasNextPage && (
+        <div className="text-center mt-8">
+          <button
+            onClick={() => fetchNextPage()}
+            disabled={isFetchingNextPage}
+            className="px-6 py-2 bg-white border border-blue-600 text-blue-600 rounded-lg hover:bg-blue-50 disabled:opacity-50"
+          >
+            {isFetchingNextPage ? 'Chargement...' : 'Voir plus de produits'}
+          </button>
+        </div>
+      )}
+
       {products.length === 0 && (
         <div className="text-center py-12">
           <p className="text-gray-600">Aucun produit trouvé</p>
@@ -1,7 +1,14 @@
 import { createApi, fetchBaseQuery } from '@reduxjs/toolkit/query/react';
+import type { InfiniteData } from '@reduxjs/toolkit/query/react';
 import type {
   User,
   Product,
+  ProductPage,
+  ProductLookup,
+  ProductSummary,
+  ProductChange,
+  Suggestion,
+  Category,
   Cart,
   Order,
   RegisterData,
@@ -11,6 +18,17 @@ import type {
 } from '../types';
 
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api';
+const PRODUCT_PAGE_SIZE = 24;
+
+// Product lists are keyset paged: each page carries the cursor of the next one, or null
+// once the last page has been read.
+const productPageOptions = {
+  initialPageParam: null as string | null,
+  getNextPageParam: (lastPage: ProductPage) => lastPage.nextCursor ?? undefined,
+};
+
+const withCursor = (url: string, cursor: string | null) =>
+  cursor ? `${url}&cursor=${encodeURIComponent(cursor)}` : url;
 
 const baseQuery = fetchBaseQuery({
   baseUrl: API_BASE_URL,
@@ -23,11 +41,36 @@ const baseQuery = fetchBaseQuery({
   },
 });
 
+const refreshTokens = async (api: any, extraOptions: any) => {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) return false;
+
+  const result = await baseQuery(
+    { url: '/auth/refresh', method: 'POST', body: { refreshToken } },
+    api,
+    extraOptions
+  );
+  const data = result.data as { token?: string; refreshToken?: string } | undefined;
+  if (!data?.token || !data.refreshToken) return false;
+
+  localStorage.setItem('token', data.token);
+  localStorage.setItem('refreshToken', data.refreshToken);
+  return true;
+};
+
 const baseQueryWithReauth = async (args: any, api: any, extraOptions: any) => {
   let result = await baseQuery(args, api, extraOptions);
+
+  if (result.error && (result.error.status === 401 || result.error.status === 403)
+      && localStorage.getItem('refreshToken')) {
+    if (await refreshTokens(api, extraOptions)) {
+      result = await baseQuery(args, api, extraOptions);
+    }
+  }
   
   if (result.error && result.error.status === 401) {
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
     if (window.location.pathname !== '/login' && window.location.pathname !== '/register') {
       window.location.href = '/login';
@@ -37,6 +80,40 @@ const baseQueryWithReauth = async (args: any, api: any, extraOptions: any) => {
   return result;
 };
 
+// Keeps a cached product list current from the server's change stream until the entry is dropped.
+const followProductChanges = async (
+  { updateCachedData, cacheDataLoaded, cacheEntryRemoved, dispatch }: any,
+) => {
+  try {
+    await cacheDataLoaded;
+  } catch {
+    return;
+  }
+  const source = new EventSource(`${API_BASE_URL}/products/changes`);
+  source.addEventListener('products', (event) => {
+    const changes: ProductChange[] = JSON.parse((event as MessageEvent).data);
+    updateCachedData((draft: InfiniteData<ProductPage, string | null>) => {
+      for (const change of changes) {
+        for (const page of draft.pages) {
+          const index = page.items.findIndex((product: ProductSummary) => product.id === change.id);
+          if (index < 0) continue;
+          if (!change.active) {
+            page.items.splice(index, 1);
+          } else {
+            page.items[index].price = change.price ?? page.items[index].price;
+            page.items[index].stock = change.stock ?? 0;
+          }
+        }
+      }
+    });
+  });
+  source.addEventListener('reset', () => {
+    dispatch(apiSlice.util.invalidateTags(['Product']));
+  });
+  await cacheEntryRemoved;
+  source.close();
+};
+
 export const apiSlice = createApi({
   reducerPath: 'api',
   baseQuery: baseQueryWithReauth,
@@ -50,7 +127,7 @@ export const apiSlice = createApi({
       }),
     }),
 
-    login: builder.mutation<{ token: string; user: User }, LoginData>({
+    login: builder.mutation<{ token: string; refreshToken: string; user: User }, LoginData>({
       query: (data) => ({
         url: '/auth/login',
         method: 'POST',
@@ -68,13 +145,16 @@ export const apiSlice = createApi({
       query: () => ({
         url: '/auth/logout',
         method: 'POST',
+        body: { refreshToken: localStorage.getItem('refreshToken') },
       }),
       invalidatesTags: ['User', 'Cart'],
     }),
 
-    getProducts: builder.query<Product[], void>({
-      query: () => '/products',
+    getProducts: builder.infiniteQuery<ProductPage, void, string | null>({
+      infiniteQueryOptions: productPageOptions,
+      query: ({ pageParam }) => withCursor(`/products?limit=${PRODUCT_PAGE_SIZE}`, pageParam),
       providesTags: ['Product'],
+      onCacheEntryAdded: (arg, api) => followProductChanges(api),
     }),
 
     getProductById: builder.query<Product, number>({
@@ -82,13 +162,33 @@ export const apiSlice = createApi({
       providesTags: (result, error, id) => [{ type: 'Product', id }],
     }),
 
-    getProductsByCategory: builder.query<Product[], string>({
-      query: (category) => `/products/category/${category}`,
+    getProductsByIds: builder.query<ProductLookup, number[]>({
+      query: (ids) => `/products?ids=${ids.join(',')}`,
+      providesTags: (result, error, ids) => ids.map((id) => ({ type: 'Product' as const, id })),
+    }),
+
+    getProductsByCategory: builder.infiniteQuery<ProductPage, string, string | null>({
+      infiniteQueryOptions: productPageOptions,
+      query: ({ queryArg: category, pageParam }) =>
+        withCursor(`/products/category/${encodeURIComponent(category)}?limit=${PRODUCT_PAGE_SIZE}`, pageParam),
       providesTags: ['Product'],
+      onCacheEntryAdded: (arg, api) => followProductChanges(api),
     }),
 
-    searchProducts: builder.query<Product[], string>({
-      query: (keyword) => `/products/search?keyword=${keyword}`,
+    searchProducts: builder.infiniteQuery<ProductPage, string, string | null>({
+      infiniteQueryOptions: productPageOptions,
+      query: ({ queryArg: keyword, pageParam }) =>
+        withCursor(`/products/search?keyword=${encodeURIComponent(keyword)}&limit=${PRODUCT_PAGE_SIZE}`, pageParam),
+      providesTags: ['Product'],
+    }),
+
+    getSuggestions: builder.query<Suggestion[], string>({
+      query: (prefix) => `/products/suggest?prefix=${encodeURIComponent(prefix)}`,
+      providesTags: ['Product'],
+    }),
+
+    getCategories: builder.query<Category[], void>({
+      query: () => '/categories',
       providesTags: ['Product'],
     }),
 
@@ -152,6 +252,8 @@ export const apiSlice = createApi({
       invalidatesTags: ['Cart'],
     }),
 
+    // 201 when the order is placed at once; 202 with Location when it is queued as ACCEPTED
+    // and placed or rejected by a worker afterwards.
     createOrder: builder.mutation<Order, CreateOrderData>({
       query: (data) => ({
         url: '/orders',
@@ -159,10 +261,15 @@ export const apiSlice = createApi({
         body: data,
       }),
       invalidatesTags: ['Order', 'Cart'],
-      transformResponse: (response: any) => ({
-        ...response,
-        totalAmount: response.totalPrice || response.totalAmount || 0,
-      }),
+      transformResponse: (response: any, meta) => {
+        const location = meta?.response?.status === 202 ? meta.response.headers.get('Location') : null;
+        return {
+          ...response,
+          id: response?.id ?? (location ? Number(location.substring(location.lastIndexOf('/') + 1)) : undefined),
+          status: response?.status ?? (location ? 'ACCEPTED' : undefined),
+          totalAmount: response?.totalPrice || response?.totalAmount || 0,
+        };
+      },
     }),
 
     getUserOrders: builder.query<Order[], void>({
@@ -203,10 +310,13 @@ export const {
   useLoginMutation,
   useGetCurrentUserQuery,
   useLogoutMutation,
-  useGetProductsQuery,
+  useGetProductsInfiniteQuery,
   useGetProductByIdQuery,
-  useGetProductsByCategoryQuery,
-  useSearchProductsQuery,
+  useGetProductsByIdsQuery,
+  useGetProductsByCategoryInfiniteQuery,
+  useSearchProductsInfiniteQuery,
+  useGetSuggestionsQuery,
+  useGetCategoriesQuery,
   useGetCartQuery,
   useAddToCartMutation,
   useUpdateCartItemMutation,
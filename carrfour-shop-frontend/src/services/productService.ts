@@ -1,9 +1,9 @@
 import api from './api';
-import type { Product } from '../redux/types';
+import type { Product, ProductLookup, ProductPage } from '../redux/types';
 
 export const productService = {
-  getAllProducts: async () => {
-    const response = await api.get<Product[]>('/products');
+  getAllProducts: async (cursor?: string) => {
+    const response = await api.get<ProductPage>('/products', { params: { cursor } });
     return response.data;
   },
 
@@ -12,13 +12,18 @@ export const productService = {
     return response.data;
   },
 
-  getProductsByCategory: async (category: string) => {
-    const response = await api.get<Product[]>(`/products/category/${category}`);
+  getProductsByIds: async (ids: number[]) => {
+    const response = await api.post<ProductLookup>('/products/lookup', { ids });
     return response.data;
   },
 
-  searchProducts: async (keyword: string) => {
-    const response = await api.get<Product[]>(`/products/search?keyword=${keyword}`);
+  getProductsByCategory: async (category: string, cursor?: string) => {
+    const response = await api.get<ProductPage>(`/products/category/${category}`, { params: { cursor } });
+    return response.data;
+  },
+
+  searchProducts: async (keyword: string, cursor?: string) => {
+    const response = await api.get<ProductPage>('/products/search', { params: { keyword, cursor } });
     return response.data;
   },
 };
@@ -15,6 +15,7 @@ export interface AuthState {
 
 export interface Product {
   id: number;
+  sku?: string | null;
   name: string;
   description: string;
   price: number;
@@ -23,6 +24,66 @@ export interface Product {
   stock: number;
 }
 
+export interface FacetCount {
+  value: string;
+  count: number;
+}
+
+export interface PriceRangeCount {
+  min: number;
+  max: number | null;
+  count: number;
+}
+
+export interface ProductFacets {
+  total: number;
+  categories: FacetCount[];
+  brands: FacetCount[];
+  priceRanges: PriceRangeCount[];
+  inStock: number;
+  outOfStock: number;
+}
+
+export interface ProductSummary {
+  id: number;
+  name: string;
+  price: number;
+  imageUrl?: string;
+  brand?: string;
+  stock: number;
+}
+
+export interface ProductPage {
+  items: ProductSummary[];
+  nextCursor: string | null;
+  facets?: ProductFacets;
+}
+
+export interface ProductLookup {
+  items: Product[];
+  missingIds: number[];
+}
+
+export interface Category {
+  id: number;
+  name: string;
+  path: string;
+  productCount: number;
+  children: Category[];
+}
+
+export interface ProductChange {
+  id: number;
+  price: number | null;
+  stock: number | null;
+  active: boolean;
+}
+
+export interface Suggestion {
+  id: number;
+  name: string;
+}
+
 export interface CartItem {
   id: number;
   productId: number;
@@ -46,16 +107,19 @@ export interface Order {
   phone: string;
   email: string;
   status: OrderStatus;
+  statusReason?: string | null;
   createdAt: string;
 }
 
 export type OrderStatus = 
+  | 'ACCEPTED' 
   | 'PENDING' 
   | 'CONFIRMED' 
   | 'PROCESSING' 
   | 'SHIPPED' 
   | 'DELIVERED' 
-  | 'CANCELLED';
+  | 'CANCELLED' 
+  | 'REJECTED';
 
 export interface RegisterData {
   password: string;